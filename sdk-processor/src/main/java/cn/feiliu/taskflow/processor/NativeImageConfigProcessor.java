@@ -0,0 +1,169 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 生成GraalVM native-image反射配置
+ * <p>
+ * 注册包含{@code @WorkerTask}方法的类的公共方法(读取注解及反射调用)、生成的调用器和无参构造函数(按索引实例化),
+ * 以及方法参数和返回值中的自定义类型(JSON转换), 写入{@value #REFLECT_CONFIG}
+ *
+ * @author kevin.luan
+ * @since 2025-06-25
+ */
+@SupportedAnnotationTypes("*")
+public class NativeImageConfigProcessor extends AbstractProcessor {
+    /**
+     * 反射配置路径
+     */
+    public static final String        REFLECT_CONFIG = "META-INF/native-image/cn.taskflow/workers/reflect-config.json";
+    private static final String       WORKER_TASK    = "cn.feiliu.taskflow.annotations.WorkerTask";
+    private static final String       WORKER         = "cn.feiliu.taskflow.executor.task.Worker";
+    private static final String       CONSTRUCTOR    = "\"methods\": [{ \"name\": \"<init>\", \"parameterTypes\": [] }]";
+    // 类名到反射配置项属性
+    private final Map<String, String> entries        = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeConfig();
+        } else {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+                collect(type);
+            }
+        }
+        return false;
+    }
+
+    private void collect(TypeElement type) {
+        boolean annotated = false;
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (!isWorkerTask(method)) {
+                continue;
+            }
+            annotated = true;
+            for (VariableElement parameter : method.getParameters()) {
+                addDataType(parameter.asType());
+            }
+            addDataType(method.getReturnType());
+        }
+        if (annotated || isWorker(type)) {
+            entries.put(binaryName(type), "\"allPublicMethods\": true, " + CONSTRUCTOR);
+        }
+        if (annotated) {
+            String name = binaryName(type);
+            String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+            String simpleName = packageName.isEmpty() ? name : name.substring(packageName.length() + 1);
+            String invoker = (packageName.isEmpty() ? "" : packageName + ".") + simpleName.replace('$', '_')
+                             + WorkerInvokerProcessor.SUFFIX;
+            entries.put(invoker, CONSTRUCTOR);
+        }
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            collect(nested);
+        }
+    }
+
+    /**
+     * 注册参数及返回值中需要JSON转换的类型, 包括泛型参数; JDK及Taskflow自身的类型不注册
+     */
+    private void addDataType(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            addDataType(((javax.lang.model.type.ArrayType) type).getComponentType());
+            return;
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return;
+        }
+        DeclaredType declaredType = (DeclaredType) type;
+        for (TypeMirror typeArgument : declaredType.getTypeArguments()) {
+            addDataType(typeArgument);
+        }
+        TypeElement element = (TypeElement) declaredType.asElement();
+        String name = element.getQualifiedName().toString();
+        if (name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("cn.feiliu.taskflow.")) {
+            return;
+        }
+        entries.putIfAbsent(binaryName(element),
+            "\"allDeclaredFields\": true, \"allDeclaredMethods\": true, \"allDeclaredConstructors\": true");
+    }
+
+    private boolean isWorker(TypeElement type) {
+        TypeElement worker = processingEnv.getElementUtils().getTypeElement(WORKER);
+        return type.getKind() == ElementKind.CLASS
+               && worker != null
+               && processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type.asType()),
+                   processingEnv.getTypeUtils().erasure(worker.asType()));
+    }
+
+    private boolean isWorkerTask(ExecutableElement method) {
+        for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(WORKER_TASK)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private void writeConfig() {
+        if (entries.isEmpty()) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder("[\n");
+        int i = 0;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            sb.append("  { \"name\": \"").append(entry.getKey()).append("\", ").append(entry.getValue()).append(" }");
+            sb.append(++i < entries.size() ? ",\n" : "\n");
+        }
+        sb.append("]\n");
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                REFLECT_CONFIG);
+            try (Writer writer = resource.openWriter()) {
+                writer.write(sb.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                "Unable to write " + REFLECT_CONFIG + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * 编译期生成工作节点索引
+ * <p>
+ * 收集包含{@code @WorkerTask}方法或实现{@code Worker}接口、且可通过公共无参构造函数实例化的类,
+ * 写入{@value #INDEX_RESOURCE}; 运行期扫描优先读取该索引, 不存在时再遍历类路径.
+ * 增量编译只处理变更的源文件, 写入时合并上次生成的索引: 保留本次未处理且仍然存在的类, 本次处理过的类以本次结果为准
+ *
+ * @author kevin.luan
+ * @since 2025-06-23
+ */
+@SupportedAnnotationTypes("*")
+public class WorkerIndexProcessor extends AbstractProcessor {
+    /**
+     * 索引资源路径, 每行一个类名
+     */
+    public static final String  INDEX_RESOURCE = "META-INF/taskflow/workers";
+    private static final String WORKER_TASK    = "cn.feiliu.taskflow.annotations.WorkerTask";
+    private static final String WORKER         = "cn.feiliu.taskflow.executor.task.Worker";
+    private final Set<String>   workers        = new TreeSet<>();
+    // 本次编译处理过的类, 包括不符合条件的类
+    private final Set<String>   processed      = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        } else {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+                collect(type);
+            }
+        }
+        // 不占用注解, 其它处理器照常执行
+        return false;
+    }
+
+    private void collect(TypeElement type) {
+        processed.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+        if (isInstantiable(type) && (isWorker(type) || hasWorkerTaskMethod(type))) {
+            workers.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+        }
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            collect(nested);
+        }
+    }
+
+    private boolean isInstantiable(TypeElement type) {
+        Set<Modifier> modifiers = type.getModifiers();
+        if (type.getKind() != ElementKind.CLASS || !modifiers.contains(Modifier.PUBLIC)
+            || modifiers.contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC)) {
+            return false;
+        }
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return constructors.isEmpty();
+    }
+
+    private boolean isWorker(TypeElement type) {
+        TypeElement worker = processingEnv.getElementUtils().getTypeElement(WORKER);
+        return worker != null
+               && processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type.asType()),
+                   processingEnv.getTypeUtils().erasure(worker.asType()));
+    }
+
+    /**
+     * 包含父类继承的公共方法, 与运行期{@code Class#getMethods()}一致
+     */
+    private boolean hasWorkerTaskMethod(TypeElement type) {
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals(Object.class.getName())) {
+            for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                if (!method.getModifiers().contains(Modifier.PUBLIC)) {
+                    continue;
+                }
+                for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+                    TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+                    if (annotationType.getQualifiedName().contentEquals(WORKER_TASK)) {
+                        return true;
+                    }
+                }
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement()
+                : null;
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        Set<String> previous = readPreviousIndex();
+        for (String name : previous) {
+            if (!processed.contains(name) && exists(name)) {
+                workers.add(name);
+            }
+        }
+        if (workers.isEmpty() && previous.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                INDEX_RESOURCE);
+            try (Writer writer = resource.openWriter()) {
+                for (String worker : workers) {
+                    writer.write(worker);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                "Unable to write " + INDEX_RESOURCE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * 读取上次编译生成的索引, 不存在时返回空集合
+     */
+    private Set<String> readPreviousIndex() {
+        Set<String> names = new LinkedHashSet<>();
+        try {
+            FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+                INDEX_RESOURCE);
+            try (BufferedReader reader = new BufferedReader(resource.openReader(true))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        names.add(line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 首次编译或输出目录已清理
+        }
+        return names;
+    }
+
+    /**
+     * 未参与本次编译的类从类路径(上次的输出目录)解析, 源文件已删除的类不再存在
+     */
+    private boolean exists(String binaryName) {
+        return processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.')) != null;
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * 为包含{@code @WorkerTask}方法的类生成调用器({@code GeneratedWorkerInvokers}实现)
+ * <p>
+ * 生成代码按参数类型绑定{@code @InputParam}并直接调用方法, 绑定规则与{@code AnnotatedWorker}的反射调用一致;
+ * 无法生成的方法(如List子类型参数、元素类型非具体类的List参数)在运行期回退为反射调用
+ *
+ * @author kevin.luan
+ * @since 2025-06-24
+ */
+@SupportedAnnotationTypes("*")
+public class WorkerInvokerProcessor extends AbstractProcessor {
+    /**
+     * 生成类的类名后缀, 与运行期WorkerInvokers.SUFFIX一致
+     */
+    public static final String  SUFFIX          = "_TaskflowInvokers";
+    private static final String WORKER_TASK     = "cn.feiliu.taskflow.annotations.WorkerTask";
+    private static final String INPUT_PARAM     = "cn.feiliu.taskflow.annotations.InputParam";
+    private static final String EXECUTING_TASK  = "cn.feiliu.taskflow.common.dto.tasks.ExecutingTask";
+    private static final String WORKER_INVOKERS = "cn.feiliu.taskflow.executor.task.WorkerInvokers";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            collect(type);
+        }
+        return false;
+    }
+
+    private void collect(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            return;
+        }
+        if (type.getKind() == ElementKind.CLASS) {
+            Map<String, String> invokers = new LinkedHashMap<>();
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                AnnotationMirror workerTask = findAnnotation(method, WORKER_TASK);
+                if (workerTask == null || !method.getModifiers().contains(Modifier.PUBLIC)
+                    || method.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                String body = generateInvoker(type, method);
+                if (body != null) {
+                    invokers.put(String.valueOf(annotationValue(workerTask, "value")), body);
+                }
+            }
+            if (!invokers.isEmpty()) {
+                write(type, invokers);
+            }
+        }
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            collect(nested);
+        }
+    }
+
+    /**
+     * 生成单个方法的调用器lambda, 不支持的参数形式返回null
+     */
+    private String generateInvoker(TypeElement type, ExecutableElement method) {
+        Types types = processingEnv.getTypeUtils();
+        List<? extends VariableElement> parameters = method.getParameters();
+        StringBuilder sb = new StringBuilder("(target, task) -> {\n");
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            TypeMirror erasure = types.erasure(parameter.asType());
+            String typeName = erasure.toString();
+            AnnotationMirror inputParam = findAnnotation(parameter, INPUT_PARAM);
+            String arg = "p" + i;
+            String value;
+            if (parameters.size() == 1 && typeName.equals(EXECUTING_TASK)) {
+                value = "task";
+            } else if (parameters.size() == 1 && typeName.equals("java.util.Map") && inputParam == null) {
+                value = "task.getInputData()";
+            } else if (inputParam == null) {
+                value = WORKER_INVOKERS + ".convertInput(task, " + boxed(erasure) + ".class)";
+            } else {
+                String name = literal(String.valueOf(annotationValue(inputParam, "value")));
+                Object required = annotationValue(inputParam, "required");
+                String input = WORKER_INVOKERS + ".input(task, " + name + ", " + (required == null ? true : required)
+                               + ")";
+                if (isList(erasure)) {
+                    if (!typeName.equals("java.util.List")) {
+                        return null;
+                    }
+                    String itemType = "null";
+                    List<? extends TypeMirror> typeArguments = ((DeclaredType) parameter.asType()).getTypeArguments();
+                    if (!typeArguments.isEmpty()) {
+                        if (typeArguments.get(0).getKind() != TypeKind.DECLARED) {
+                            return null;
+                        }
+                        itemType = types.erasure(typeArguments.get(0)) + ".class";
+                    }
+                    value = WORKER_INVOKERS + ".convertList(" + name + ", " + input + ", " + itemType + ")";
+                } else {
+                    value = WORKER_INVOKERS + ".convert(" + name + ", " + input + ", " + boxed(erasure) + ".class)";
+                }
+                if (erasure.getKind().isPrimitive()) {
+                    value = WORKER_INVOKERS + ".primitive(" + name + ", " + value + ")";
+                }
+            }
+            sb.append("            ").append(typeName).append(' ').append(arg).append(" = (")
+                .append(erasure.getKind().isPrimitive() ? boxed(erasure) : typeName).append(") ").append(value)
+                .append(";\n");
+            args.add(arg);
+        }
+        String call = "((" + types.erasure(type.asType()) + ") target)." + method.getSimpleName() + "("
+                      + String.join(", ", args) + ")";
+        sb.append("            try {\n");
+        if (method.getReturnType().getKind() == TypeKind.VOID) {
+            sb.append("                ").append(call).append(";\n");
+            sb.append("                return null;\n");
+        } else {
+            sb.append("                return ").append(call).append(";\n");
+        }
+        sb.append("            } catch (Throwable e) {\n");
+        sb.append("                throw new java.lang.reflect.InvocationTargetException(e);\n");
+        sb.append("            }\n");
+        sb.append("        }");
+        return sb.toString();
+    }
+
+    private void write(TypeElement type, Map<String, String> invokers) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+            .replace('$', '_') + SUFFIX;
+        String className = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("/**\n * Generated by ").append(getClass().getName()).append(" for ")
+            .append(type.getQualifiedName()).append(", do not edit\n */\n");
+        sb.append("public final class ").append(simpleName)
+            .append(" implements cn.feiliu.taskflow.executor.task.GeneratedWorkerInvokers {\n");
+        sb.append("    @Override\n");
+        sb.append("    @SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+        sb.append("    public java.util.Map<String, cn.feiliu.taskflow.executor.task.WorkerInvoker> getInvokers() {\n");
+        sb.append("        java.util.Map<String, cn.feiliu.taskflow.executor.task.WorkerInvoker> invokers")
+            .append(" = new java.util.HashMap<>();\n");
+        invokers.forEach((taskName, body) -> sb.append("        invokers.put(").append(literal(taskName))
+            .append(", ").append(body).append(");\n"));
+        sb.append("        return invokers;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(className, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(sb.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                "Unable to generate " + className + ": " + e.getMessage(), type);
+        }
+    }
+
+    private boolean isList(TypeMirror erasure) {
+        TypeElement list = processingEnv.getElementUtils().getTypeElement("java.util.List");
+        return erasure.getKind() == TypeKind.DECLARED
+               && processingEnv.getTypeUtils().isAssignable(erasure,
+                   processingEnv.getTypeUtils().erasure(list.asType()));
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) type)
+                .getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static Object annotationValue(AnnotationMirror annotation, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues()
+            .entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String literal(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.processor;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.*;
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-23
+ */
+public class WorkerProcessorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static JavaFileObject source(String className, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"),
+            JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines);
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        List<JavaFileObject> sources = Arrays.asList(
+            source(
+                "cn.feiliu.taskflow.annotations.WorkerTask",
+                lines("package cn.feiliu.taskflow.annotations;",
+                    "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)",
+                    "public @interface WorkerTask { String value(); }")),
+            source(
+                "demo.Workers",
+                lines("package demo;", "import cn.feiliu.taskflow.annotations.WorkerTask;", "public class Workers {",
+                    "    @WorkerTask(\"echo\") public String echo(String s) { return s; }",
+                    "    public static class Nested { @WorkerTask(\"nested\") public void run() {} }",
+                    "    public class Inner { @WorkerTask(\"inner\") public void run() {} }", "}")),
+            // 继承父类的@WorkerTask方法
+            source("demo.SubWorkers", lines("package demo;", "public class SubWorkers extends Workers {}")),
+            // 无公共无参构造函数, 运行期无法实例化
+            source(
+                "demo.NoDefaultConstructor",
+                lines("package demo;", "import cn.feiliu.taskflow.annotations.WorkerTask;",
+                    "public class NoDefaultConstructor {", "    public NoDefaultConstructor(int i) {}",
+                    "    @WorkerTask(\"skip\") public void run() {}", "}")),
+            source("demo.Plain", lines("package demo;", "public class Plain {}")));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        File out = folder.newFolder("classes");
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null,
+            Arrays.asList("-d", out.getPath(), "-proc:only"), null, sources);
+        task.setProcessors(Collections.singletonList(new WorkerIndexProcessor()));
+        Assert.assertTrue(task.call());
+
+        File index = new File(out, WorkerIndexProcessor.INDEX_RESOURCE);
+        List<String> lines = Files.readAllLines(index.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals(Arrays.asList("demo.SubWorkers", "demo.Workers", "demo.Workers$Nested"), lines);
+    }
+
+    @Test
+    public void testIncrementalIndex() throws Exception {
+        JavaFileObject annotation = source("cn.feiliu.taskflow.annotations.WorkerTask",
+            lines("package cn.feiliu.taskflow.annotations;", "public @interface WorkerTask { String value(); }"));
+        File out = folder.newFolder("incremental");
+        Assert.assertTrue(compile(
+            out,
+            annotation,
+            source(
+                "demo.A",
+                lines("package demo;", "public class A {",
+                    "    @cn.feiliu.taskflow.annotations.WorkerTask(\"a\") public void run() {}", "}")),
+            source(
+                "demo.B",
+                lines("package demo;", "public class B {",
+                    "    @cn.feiliu.taskflow.annotations.WorkerTask(\"b\") public void run() {}", "}"))));
+        // 只重新编译B且B不再是工作节点, 新增C; A未参与编译, 应保留
+        Assert.assertTrue(compile(
+            out,
+            source("demo.B", lines("package demo;", "public class B {}")),
+            source(
+                "demo.C",
+                lines("package demo;", "public class C {",
+                    "    @cn.feiliu.taskflow.annotations.WorkerTask(\"c\") public void run() {}", "}"))));
+
+        File index = new File(out, WorkerIndexProcessor.INDEX_RESOURCE);
+        List<String> lines = Files.readAllLines(index.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals(Arrays.asList("demo.A", "demo.C"), lines);
+    }
+
+    /**
+     * 以上次的输出目录作为类路径编译, 模拟增量编译
+     */
+    private static boolean compile(File out, JavaFileObject... sources) {
+        JavaCompiler.CompilationTask task = ToolProvider.getSystemJavaCompiler().getTask(null, null, null,
+            Arrays.asList("-d", out.getPath(), "-classpath", out.getPath()), null, Arrays.asList(sources));
+        task.setProcessors(Collections.singletonList(new WorkerIndexProcessor()));
+        return task.call();
+    }
+
+    /**
+     * 生成的调用器引用的SDK运行期类型, 本模块不依赖SDK, 以最小化的桩代码参与编译
+     */
+    private static List<JavaFileObject> runtimeStubs() {
+        return Arrays
+            .asList(
+                source(
+                    "cn.feiliu.taskflow.common.dto.tasks.ExecutingTask",
+                    lines("package cn.feiliu.taskflow.common.dto.tasks;", "public class ExecutingTask {",
+                        "    public java.util.Map<String, Object> getInputData() { return null; }", "}")),
+                source(
+                    "cn.feiliu.taskflow.executor.task.WorkerInvoker",
+                    lines("package cn.feiliu.taskflow.executor.task;", "public interface WorkerInvoker {",
+                        "    Object invoke(Object target, cn.feiliu.taskflow.common.dto.tasks.ExecutingTask task)",
+                        "        throws java.lang.reflect.InvocationTargetException;", "}")),
+                source(
+                    "cn.feiliu.taskflow.executor.task.GeneratedWorkerInvokers",
+                    lines("package cn.feiliu.taskflow.executor.task;", "public interface GeneratedWorkerInvokers {",
+                        "    java.util.Map<String, WorkerInvoker> getInvokers();", "}")),
+                source(
+                    "cn.feiliu.taskflow.executor.task.WorkerInvokers",
+                    lines(
+                        "package cn.feiliu.taskflow.executor.task;",
+                        "import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;",
+                        "public final class WorkerInvokers {",
+                        "    public static Object input(ExecutingTask task, String name, boolean required) { return null; }",
+                        "    public static <T> T convert(String name, Object value, Class<T> type) { return null; }",
+                        "    public static java.util.List<?> convertList(String name, Object value, Class<?> itemType) { return null; }",
+                        "    public static <T> T primitive(String name, T value) { return value; }",
+                        "    public static <T> T convertInput(ExecutingTask task, Class<T> type) { return null; }", "}")));
+    }
+
+    @Test
+    public void testInvokers() throws Exception {
+        List<JavaFileObject> sources = new ArrayList<>(runtimeStubs());
+        Collections
+            .addAll(
+                sources,
+                source(
+                    "cn.feiliu.taskflow.annotations.WorkerTask",
+                    lines("package cn.feiliu.taskflow.annotations;", "public @interface WorkerTask { String value(); }")),
+                source(
+                    "cn.feiliu.taskflow.annotations.InputParam",
+                    lines("package cn.feiliu.taskflow.annotations;",
+                        "public @interface InputParam { String value(); boolean required() default true; }")),
+                source(
+                    "demo.Workers",
+                    lines(
+                        "package demo;",
+                        "import cn.feiliu.taskflow.annotations.*;",
+                        "public class Workers {",
+                        "    @WorkerTask(\"echo\") public String echo(@InputParam(\"text\") String text,",
+                        "        @InputParam(value = \"n\", required = false) int n) { return text + n; }",
+                        "    @WorkerTask(\"sum\") public long sum(@InputParam(\"items\") java.util.List<Integer> items) { return 0; }",
+                        "    @WorkerTask(\"raw\") public void raw(java.util.Map<String, Object> input) {}",
+                        "    @WorkerTask(\"fallback\") public void fallback(@InputParam(\"items\") java.util.ArrayList<?> items) {}",
+                        "}")));
+        File out = folder.newFolder("generated");
+        JavaCompiler.CompilationTask task = ToolProvider.getSystemJavaCompiler().getTask(null, null, null,
+            Arrays.asList("-d", out.getPath(), "-s", out.getPath(), "-proc:only"), null, sources);
+        task.setProcessors(Collections.singletonList(new WorkerInvokerProcessor()));
+        Assert.assertTrue(task.call());
+
+        String code = new String(Files.readAllBytes(new File(out, "demo/Workers_TaskflowInvokers.java").toPath()),
+            StandardCharsets.UTF_8);
+        Assert.assertTrue(code, code.contains("invokers.put(\"echo\""));
+        Assert.assertTrue(code, code.contains("((demo.Workers) target).echo(p0, p1)"));
+        Assert.assertTrue(code, code.contains(".primitive(\"n\""));
+        Assert.assertTrue(code, code.contains(".convertList(\"items\""));
+        Assert.assertTrue(code, code.contains("task.getInputData()"));
+        // List子类型参数回退为反射调用
+        Assert.assertFalse(code, code.contains("\"fallback\""));
+    }
+
+    @Test
+    public void testNativeImageConfig() throws Exception {
+        List<JavaFileObject> sources = Arrays
+            .asList(
+                source(
+                    "cn.feiliu.taskflow.annotations.WorkerTask",
+                    lines("package cn.feiliu.taskflow.annotations;", "public @interface WorkerTask { String value(); }")),
+                source("demo.Order", lines("package demo;", "public class Order { public String id; }")),
+                source("demo.Result", lines("package demo;", "public class Result { public boolean ok; }")),
+                source(
+                    "demo.Workers",
+                    lines(
+                        "package demo;",
+                        "import cn.feiliu.taskflow.annotations.WorkerTask;",
+                        "public class Workers {",
+                        "    @WorkerTask(\"orders\") public Result handle(java.util.List<Order> orders, String note) { return null; }",
+                        "}")));
+        File out = folder.newFolder("native");
+        JavaCompiler.CompilationTask task = ToolProvider.getSystemJavaCompiler().getTask(null, null, null,
+            Arrays.asList("-d", out.getPath(), "-proc:only"), null, sources);
+        task.setProcessors(Collections.singletonList(new NativeImageConfigProcessor()));
+        Assert.assertTrue(task.call());
+
+        String config = new String(
+            Files.readAllBytes(new File(out, NativeImageConfigProcessor.REFLECT_CONFIG).toPath()),
+            StandardCharsets.UTF_8);
+        Assert.assertTrue(config, config.contains("\"name\": \"demo.Workers\", \"allPublicMethods\": true"));
+        Assert.assertTrue(config, config.contains("\"name\": \"demo.Workers_TaskflowInvokers\""));
+        // 泛型参数及返回值中的自定义类型
+        Assert.assertTrue(config, config.contains("\"name\": \"demo.Order\", \"allDeclaredFields\": true"));
+        Assert.assertTrue(config, config.contains("\"name\": \"demo.Result\""));
+        Assert.assertFalse(config, config.contains("java.lang.String"));
+    }
+}
@@ -17,6 +17,8 @@ package cn.feiliu.taskflow.client.spring;
 import cn.feiliu.taskflow.client.ApiClient;
 import cn.feiliu.taskflow.utils.TaskflowConfig;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -24,6 +26,9 @@ import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.env.Environment;
+
+import java.util.LinkedHashMap;
 
 @Slf4j
 @Configuration
@@ -45,7 +50,18 @@ public class ApiClientAutoConfiguration {
         if (properties.getKeySecret() == null || properties.getKeySecret().trim().isEmpty()) {
             throw new IllegalArgumentException("TaskFlow keySecret不能为空，请在配置文件中设置taskflow.key-secret");
         }
+        TaskflowConfig config = toConfig(properties);
+        config.validate();
+        return config;
+    }
 
+    /**
+     * 将配置属性转换为客户端配置
+     *
+     * @param properties 配置属性
+     * @return 客户端配置(未校验)
+     */
+    static TaskflowConfig toConfig(TaskflowProperties properties) {
         TaskflowConfig config = new TaskflowConfig();
         config.setKeyId(properties.getKeyId());
         config.setKeySecret(properties.getKeySecret());
@@ -53,11 +69,36 @@ public class ApiClientAutoConfiguration {
         config.setWebSocketUrl(properties.getWebSocketUrl());
         config.setAutoRegister(properties.getAutoRegister());
         config.setUpdateExisting(properties.getUpdateExisting());
+        config.setTraceSampleRatio(properties.getTraceSampleRatio());
+        config.setPrefetchDepth(properties.getPrefetchDepth());
+        config.setPrefetchMaxHoldSeconds(properties.getPrefetchMaxHoldSeconds());
+        config.setLeaseExtendThresholdSeconds(properties.getLeaseExtendThresholdSeconds());
+        config.setLeaseExtendSeconds(properties.getLeaseExtendSeconds());
+        config.setPushDispatch(properties.isPushDispatch());
+        config.setReconnectBaseDelayMillis(properties.getReconnectBaseDelayMillis());
+        config.setReconnectMaxDelayMillis(properties.getReconnectMaxDelayMillis());
+        config.setHeartbeatIntervalSeconds(properties.getHeartbeatIntervalSeconds());
+        config.setHeartbeatMaxMissed(properties.getHeartbeatMaxMissed());
+        config.setMultiPoll(properties.isMultiPoll());
+        config.setTaskDefCacheFile(properties.getTaskDefCacheFile());
+        config.setLazyStartup(properties.isLazyStartup());
+        config.setUpdateRetryCount(properties.getUpdateRetryCount());
+        config.setSleepWhenRetry(properties.getSleepWhenRetry());
+        config.setShutdownGracePeriodSeconds(properties.getShutdownGracePeriodSeconds());
+        config.setPollTimeoutMillis(properties.getPollTimeoutMillis());
+        config.setExecutionBackend(properties.getExecutionBackend());
+        config.setHttpMaxIdleConnections(properties.getHttpMaxIdleConnections());
+        config.setHttpKeepAliveSeconds(properties.getHttpKeepAliveSeconds());
+        config.setHttpConnectTimeoutMillis(properties.getHttpConnectTimeoutMillis());
+        config.setHttpReadTimeoutMillis(properties.getHttpReadTimeoutMillis());
+        config.setHttpWriteTimeoutMillis(properties.getHttpWriteTimeoutMillis());
+        config.setJmxEnabled(properties.isJmxEnabled());
+        config.setWorkers(new LinkedHashMap<>(properties.getWorkers()));
         return config;
     }
 
     @Bean("workerTasksScanner")
-    public WorkerTasksScanner workerTasksScanner() {
+    public static WorkerTasksScanner workerTasksScanner() {
         return new WorkerTasksScanner();
     }
 
@@ -68,6 +109,11 @@ public class ApiClientAutoConfiguration {
         return new ApiClient(config);
     }
 
+    @Bean
+    public TaskflowPropertiesRebinder taskflowPropertiesRebinder(ApiClient apiClient, Environment environment) {
+        return new TaskflowPropertiesRebinder(apiClient, environment);
+    }
+
     @Bean
     public ApplicationListener<ApplicationReadyEvent> apiClientInitializer(ApiClient apiClient,
                                                                            WorkerTasksScanner workerTasksScanner) {
@@ -77,8 +123,41 @@ public class ApiClientAutoConfiguration {
                 log.info("TaskFlow application ready, starting worker registration and client initialization");
                 apiClient.addWorker(workerTasksScanner.getWorkerBeans());
                 apiClient.start();
-                log.info("TaskFlow client started successfully");
+                if (apiClient.isReady()) {
+                    log.info("TaskFlow client started successfully");
+                } else {
+                    log.info("TaskFlow client started, task definitions registering in background");
+                    apiClient.getReadyFuture().thenRun(() -> log.info("TaskFlow client ready"));
+                }
             }
         };
     }
+
+    /**
+     * classpath中存在spring-boot-actuator时注册{@code /actuator/taskflow}端点
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class TaskflowEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public TaskflowEndpoint taskflowEndpoint(ApiClient apiClient) {
+            return new TaskflowEndpoint(apiClient);
+        }
+    }
+
+    /**
+     * classpath中存在Micrometer时将运行时指标绑定到MeterRegistry
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class TaskflowMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public TaskflowMeterBinder taskflowMeterBinder(ApiClient apiClient) {
+            return new TaskflowMeterBinder(apiClient);
+        }
+    }
 }
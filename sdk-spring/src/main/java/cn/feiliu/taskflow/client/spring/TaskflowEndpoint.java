@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.client.spring;
+
+import cn.feiliu.taskflow.automator.WorkerRuntimeStats;
+import cn.feiliu.taskflow.client.ApiClient;
+import cn.feiliu.taskflow.ws.ConnectionState;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 工作节点运行时状态端点: {@code /actuator/taskflow}
+ * <p>
+ * 输出每个任务类型的许可占用、拉取速率、执行耗时分位数及结果上报积压, 以及WebSocket连接状态和下一次令牌刷新时间
+ *
+ * @author kevin.luan
+ * @since 2025-06-26
+ */
+@Endpoint(id = "taskflow")
+public class TaskflowEndpoint {
+    private final ApiClient apiClient;
+
+    public TaskflowEndpoint(ApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+
+    @ReadOperation
+    public Map<String, Object> taskflow() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ready", apiClient.isReady());
+        ConnectionState state = apiClient.getWebSocketState();
+        result.put("webSocketState", state == null ? null : state.name());
+        long refreshAt = apiClient.getTokenRefreshAtMillis();
+        result.put("tokenNextRefreshAt", refreshAt > 0 ? Instant.ofEpochMilli(refreshAt).toString() : null);
+        Map<String, WorkerRuntimeStats.Snapshot> taskTypes = new LinkedHashMap<>();
+        for (WorkerRuntimeStats.Snapshot snapshot : apiClient.getWorkerStats()) {
+            taskTypes.put(snapshot.getTaskType(), snapshot);
+        }
+        result.put("taskTypes", taskTypes);
+        return result;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.client.spring;
+
+import cn.feiliu.taskflow.automator.WorkerRuntimeStats.Snapshot;
+import cn.feiliu.taskflow.client.ApiClient;
+import cn.feiliu.taskflow.ws.ConnectionState;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 将工作节点运行时指标绑定到Micrometer
+ * <p>
+ * 任务类型在应用启动完成后才确定, 按任务类型的指标在客户端就绪(或注册失败)后注册;
+ * 同一次采集中的多个指标共用一份快照, 快照在一秒内复用; 执行耗时由执行监听器逐次记录到{@link Timer}
+ *
+ * @author kevin.luan
+ * @since 2025-06-26
+ */
+public class TaskflowMeterBinder implements MeterBinder {
+    private static final long           SNAPSHOT_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private final ApiClient             apiClient;
+    // 最近一次采集的快照
+    private final Map<String, Snapshot> snapshots          = new ConcurrentHashMap<>();
+    private volatile long               snapshotNanos;
+
+    public TaskflowMeterBinder(ApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("taskflow.websocket.connected", apiClient,
+            client -> client.getWebSocketState() == ConnectionState.CONNECTED ? 1 : 0)
+            .description("WebSocket连接是否已建立").register(registry);
+        Gauge.builder("taskflow.token.next.refresh", apiClient, TaskflowMeterBinder::secondsUntilTokenRefresh)
+            .description("距离下一次刷新令牌的秒数").baseUnit("seconds").register(registry);
+        Map<String, Timer> timers = new ConcurrentHashMap<>();
+        apiClient.addExecutionListener((taskType, nanos) -> timers
+            .computeIfAbsent(taskType, type -> latency(registry, type)).record(nanos, TimeUnit.NANOSECONDS));
+        apiClient.getReadyFuture().whenComplete((nil, error) -> bindWorkers(registry, timers));
+    }
+
+    private void bindWorkers(MeterRegistry registry, Map<String, Timer> timers) {
+        for (Snapshot snapshot : apiClient.getWorkerStats()) {
+            String taskType = snapshot.getTaskType();
+            gauge(registry, "taskflow.worker.permits", taskType, "执行许可总数", Snapshot::getPermits);
+            gauge(registry, "taskflow.worker.permits.in.use", taskType, "已占用的执行许可数", Snapshot::getPermitsInUse);
+            gauge(registry, "taskflow.worker.poll.rate", taskType, "最近一分钟的拉取速率(次/秒)", Snapshot::getPollRate);
+            gauge(registry, "taskflow.worker.update.backlog", taskType, "正在上报的任务结果数", Snapshot::getPendingUpdates);
+            counter(registry, "taskflow.worker.polls", taskType, "累计拉取次数", Snapshot::getPollCount);
+            counter(registry, "taskflow.worker.executions", taskType, "累计执行次数", Snapshot::getExecutionCount);
+            counter(registry, "taskflow.worker.update.failures", taskType, "累计结果上报失败次数", Snapshot::getUpdateFailures);
+            timers.computeIfAbsent(taskType, type -> latency(registry, type));
+        }
+    }
+
+    private void gauge(MeterRegistry registry, String name, String taskType, String description,
+                       ToDoubleFunction<Snapshot> value) {
+        Gauge.builder(name, this, binder -> value.applyAsDouble(binder.snapshot(taskType))).tag("taskType", taskType)
+            .description(description).register(registry);
+    }
+
+    private void counter(MeterRegistry registry, String name, String taskType, String description,
+                         ToDoubleFunction<Snapshot> value) {
+        FunctionCounter.builder(name, this, binder -> value.applyAsDouble(binder.snapshot(taskType)))
+            .tag("taskType", taskType).description(description).register(registry);
+    }
+
+    private static Timer latency(MeterRegistry registry, String taskType) {
+        return Timer.builder("taskflow.worker.execution.latency").tag("taskType", taskType)
+            .publishPercentiles(0.5, 0.9, 0.99).description("任务执行耗时").register(registry);
+    }
+
+    private Snapshot snapshot(String taskType) {
+        long now = System.nanoTime();
+        if (now - snapshotNanos > SNAPSHOT_TTL_NANOS || !snapshots.containsKey(taskType)) {
+            for (Snapshot snapshot : apiClient.getWorkerStats()) {
+                snapshots.put(snapshot.getTaskType(), snapshot);
+            }
+            snapshotNanos = now;
+        }
+        Snapshot snapshot = snapshots.get(taskType);
+        return snapshot == null ? new Snapshot() : snapshot;
+    }
+
+    private static double secondsUntilTokenRefresh(ApiClient client) {
+        long refreshAt = client.getTokenRefreshAtMillis();
+        return refreshAt > 0 ? Math.max(0, refreshAt - System.currentTimeMillis()) / 1000.0 : 0;
+    }
+}
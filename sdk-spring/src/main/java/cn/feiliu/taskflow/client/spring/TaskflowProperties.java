@@ -14,8 +14,13 @@
  */
 package cn.feiliu.taskflow.client.spring;
 
+import cn.feiliu.taskflow.automator.ExecutionBackend;
+import cn.feiliu.taskflow.utils.TaskflowConfig.WorkerConfig;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * TaskFlow配置属性类
  * 
@@ -28,39 +33,164 @@ public class TaskflowProperties {
     /**
      * 是否启用TaskFlow功能
      */
-    private boolean enabled        = true;
+    private boolean                   enabled                     = true;
 
     /**
      * 飞流云平台 host
      */
-    private String  baseUrl        = "https://developer.taskflow.cn/api";
+    private String                    baseUrl                     = "https://developer.taskflow.cn/api";
 
     /**
      * 开发者key
      * 注意：此配置项为必需项，请在配置文件中设置taskflow.key-id
      */
-    private String  keyId;
+    private String                    keyId;
 
     /**
      * 开发者秘钥
      * 注意：此配置项为必需项，请在配置文件中设置taskflow.key-secret
      */
-    private String  keySecret;
+    private String                    keySecret;
 
     /**
      * 自动注册
      */
-    private Boolean autoRegister   = true;
+    private Boolean                   autoRegister                = true;
 
     /**
      * 存在则更新
      */
-    private Boolean updateExisting = true;
+    private Boolean                   updateExisting              = true;
 
     /**
      * web socket url
      */
-    private String  webSocketUrl   = "wss://developer.taskflow.cn";
+    private String                    webSocketUrl                = "wss://developer.taskflow.cn";
+
+    /**
+     * 链路追踪采样比例[0, 1], 类路径中存在OpenTelemetry API时生效, 0表示关闭
+     */
+    private double                    traceSampleRatio            = 0.1D;
+
+    /**
+     * 每个任务类型在执行中的任务之外最多预取的任务数, 0表示不预取
+     */
+    private int                       prefetchDepth               = 0;
+
+    /**
+     * 预取任务在本地缓冲区的最长停留时间(秒), 超时后交还服务端
+     */
+    private int                       prefetchMaxHoldSeconds      = 30;
+
+    /**
+     * 执行中的任务超过该时间(秒)后自动续租, 之后按该周期续租, 0表示不续租(默认)
+     */
+    private int                       leaseExtendThresholdSeconds = 0;
+
+    /**
+     * 每次续租的callbackAfterSeconds(秒), 应大于续租周期
+     */
+    private int                       leaseExtendSeconds          = 60;
+
+    /**
+     * 开启WebSocket时由服务端推送驱动任务拉取, 仅在连接断开时定时轮询
+     */
+    private boolean                   pushDispatch                = true;
+
+    /**
+     * WebSocket断开后首次重连的最大等待时间(毫秒), 之后按去相关抖动指数退避
+     */
+    private int                       reconnectBaseDelayMillis    = 500;
+
+    /**
+     * WebSocket重连等待时间上限(毫秒)
+     */
+    private int                       reconnectMaxDelayMillis     = 30000;
+
+    /**
+     * WebSocket应用层心跳周期(秒), 0表示关闭
+     */
+    private int                       heartbeatIntervalSeconds    = 10;
+
+    /**
+     * 连续丢失多少次心跳响应后判定连接失效并重连
+     */
+    private int                       heartbeatMaxMissed          = 3;
+
+    /**
+     * 一次请求拉取所有任务类型的任务, 请求数不随任务类型数增长(需服务端支持/tasks/poll/multi)
+     */
+    private boolean                   multiPoll                   = false;
+
+    /**
+     * 任务定义指纹缓存文件路径, 未配置时不启用; 指纹未变化的任务定义在重启时跳过更新
+     */
+    private String                    taskDefCacheFile;
+
+    /**
+     * 后台并发执行令牌获取、任务定义注册和WebSocket连接, 不阻塞启动; 已注册的任务类型立即开始拉取
+     */
+    private boolean                   lazyStartup                 = false;
+
+    /**
+     * 任务结果上报失败后的重试次数, 可在运行期刷新
+     */
+    private int                       updateRetryCount            = 3;
+
+    /**
+     * 任务结果上报重试前的等待时间(毫秒), 可在运行期刷新
+     */
+    private int                       sleepWhenRetry              = 500;
+
+    /**
+     * 关闭时等待执行中任务完成的最长时间(秒)
+     */
+    private int                       shutdownGracePeriodSeconds  = 10;
+
+    /**
+     * 拉取任务的长轮询等待时间(毫秒), 可按任务类型覆盖, 可在运行期刷新
+     */
+    private int                       pollTimeoutMillis           = 100;
+
+    /**
+     * 任务执行线程类型: PLATFORM(平台线程)/VIRTUAL(虚拟线程, 需JDK21+, 不支持时退回平台线程)
+     */
+    private ExecutionBackend          executionBackend            = ExecutionBackend.PLATFORM;
+
+    /**
+     * HTTP连接池最大空闲连接数
+     */
+    private int                       httpMaxIdleConnections      = 5;
+
+    /**
+     * HTTP空闲连接保活时间(秒)
+     */
+    private int                       httpKeepAliveSeconds        = 300;
+
+    /**
+     * HTTP连接超时(毫秒)
+     */
+    private int                       httpConnectTimeoutMillis    = 10000;
+
+    /**
+     * HTTP读超时(毫秒), 应大于长轮询等待时间
+     */
+    private int                       httpReadTimeoutMillis       = 10000;
+
+    /**
+     * HTTP写超时(毫秒)
+     */
+    private int                       httpWriteTimeoutMillis      = 10000;
+
+    /**
+     * 注册JMX MBean(cn.feiliu.taskflow:type=WorkerConcurrency), 支持运行期查看和调整任务类型的并发数
+     */
+    private boolean                   jmxEnabled                  = true;
+
+    /**
+     * 按任务类型覆盖的执行参数, key为任务名称, 如taskflow.workers.my_task.thread-count=8
+     */
+    private Map<String, WorkerConfig> workers                     = new LinkedHashMap<>();
 
     public boolean isEnabled() {
         return enabled;
@@ -118,6 +248,206 @@ public class TaskflowProperties {
         this.webSocketUrl = webSocketUrl;
     }
 
+    public double getTraceSampleRatio() {
+        return traceSampleRatio;
+    }
+
+    public void setTraceSampleRatio(double traceSampleRatio) {
+        this.traceSampleRatio = traceSampleRatio;
+    }
+
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    public void setPrefetchDepth(int prefetchDepth) {
+        this.prefetchDepth = prefetchDepth;
+    }
+
+    public int getPrefetchMaxHoldSeconds() {
+        return prefetchMaxHoldSeconds;
+    }
+
+    public void setPrefetchMaxHoldSeconds(int prefetchMaxHoldSeconds) {
+        this.prefetchMaxHoldSeconds = prefetchMaxHoldSeconds;
+    }
+
+    public int getLeaseExtendThresholdSeconds() {
+        return leaseExtendThresholdSeconds;
+    }
+
+    public void setLeaseExtendThresholdSeconds(int leaseExtendThresholdSeconds) {
+        this.leaseExtendThresholdSeconds = leaseExtendThresholdSeconds;
+    }
+
+    public int getLeaseExtendSeconds() {
+        return leaseExtendSeconds;
+    }
+
+    public void setLeaseExtendSeconds(int leaseExtendSeconds) {
+        this.leaseExtendSeconds = leaseExtendSeconds;
+    }
+
+    public boolean isPushDispatch() {
+        return pushDispatch;
+    }
+
+    public void setPushDispatch(boolean pushDispatch) {
+        this.pushDispatch = pushDispatch;
+    }
+
+    public int getReconnectBaseDelayMillis() {
+        return reconnectBaseDelayMillis;
+    }
+
+    public void setReconnectBaseDelayMillis(int reconnectBaseDelayMillis) {
+        this.reconnectBaseDelayMillis = reconnectBaseDelayMillis;
+    }
+
+    public int getReconnectMaxDelayMillis() {
+        return reconnectMaxDelayMillis;
+    }
+
+    public void setReconnectMaxDelayMillis(int reconnectMaxDelayMillis) {
+        this.reconnectMaxDelayMillis = reconnectMaxDelayMillis;
+    }
+
+    public int getHeartbeatIntervalSeconds() {
+        return heartbeatIntervalSeconds;
+    }
+
+    public void setHeartbeatIntervalSeconds(int heartbeatIntervalSeconds) {
+        this.heartbeatIntervalSeconds = heartbeatIntervalSeconds;
+    }
+
+    public int getHeartbeatMaxMissed() {
+        return heartbeatMaxMissed;
+    }
+
+    public void setHeartbeatMaxMissed(int heartbeatMaxMissed) {
+        this.heartbeatMaxMissed = heartbeatMaxMissed;
+    }
+
+    public boolean isMultiPoll() {
+        return multiPoll;
+    }
+
+    public void setMultiPoll(boolean multiPoll) {
+        this.multiPoll = multiPoll;
+    }
+
+    public String getTaskDefCacheFile() {
+        return taskDefCacheFile;
+    }
+
+    public void setTaskDefCacheFile(String taskDefCacheFile) {
+        this.taskDefCacheFile = taskDefCacheFile;
+    }
+
+    public boolean isLazyStartup() {
+        return lazyStartup;
+    }
+
+    public void setLazyStartup(boolean lazyStartup) {
+        this.lazyStartup = lazyStartup;
+    }
+
+    public int getUpdateRetryCount() {
+        return updateRetryCount;
+    }
+
+    public void setUpdateRetryCount(int updateRetryCount) {
+        this.updateRetryCount = updateRetryCount;
+    }
+
+    public int getSleepWhenRetry() {
+        return sleepWhenRetry;
+    }
+
+    public void setSleepWhenRetry(int sleepWhenRetry) {
+        this.sleepWhenRetry = sleepWhenRetry;
+    }
+
+    public int getShutdownGracePeriodSeconds() {
+        return shutdownGracePeriodSeconds;
+    }
+
+    public void setShutdownGracePeriodSeconds(int shutdownGracePeriodSeconds) {
+        this.shutdownGracePeriodSeconds = shutdownGracePeriodSeconds;
+    }
+
+    public int getPollTimeoutMillis() {
+        return pollTimeoutMillis;
+    }
+
+    public void setPollTimeoutMillis(int pollTimeoutMillis) {
+        this.pollTimeoutMillis = pollTimeoutMillis;
+    }
+
+    public ExecutionBackend getExecutionBackend() {
+        return executionBackend;
+    }
+
+    public void setExecutionBackend(ExecutionBackend executionBackend) {
+        this.executionBackend = executionBackend;
+    }
+
+    public int getHttpMaxIdleConnections() {
+        return httpMaxIdleConnections;
+    }
+
+    public void setHttpMaxIdleConnections(int httpMaxIdleConnections) {
+        this.httpMaxIdleConnections = httpMaxIdleConnections;
+    }
+
+    public int getHttpKeepAliveSeconds() {
+        return httpKeepAliveSeconds;
+    }
+
+    public void setHttpKeepAliveSeconds(int httpKeepAliveSeconds) {
+        this.httpKeepAliveSeconds = httpKeepAliveSeconds;
+    }
+
+    public int getHttpConnectTimeoutMillis() {
+        return httpConnectTimeoutMillis;
+    }
+
+    public void setHttpConnectTimeoutMillis(int httpConnectTimeoutMillis) {
+        this.httpConnectTimeoutMillis = httpConnectTimeoutMillis;
+    }
+
+    public int getHttpReadTimeoutMillis() {
+        return httpReadTimeoutMillis;
+    }
+
+    public void setHttpReadTimeoutMillis(int httpReadTimeoutMillis) {
+        this.httpReadTimeoutMillis = httpReadTimeoutMillis;
+    }
+
+    public int getHttpWriteTimeoutMillis() {
+        return httpWriteTimeoutMillis;
+    }
+
+    public void setHttpWriteTimeoutMillis(int httpWriteTimeoutMillis) {
+        this.httpWriteTimeoutMillis = httpWriteTimeoutMillis;
+    }
+
+    public Map<String, WorkerConfig> getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(Map<String, WorkerConfig> workers) {
+        this.workers = workers;
+    }
+
+    public boolean isJmxEnabled() {
+        return jmxEnabled;
+    }
+
+    public void setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
     public boolean isSupportWebsocket() {
         return webSocketUrl != null;
     }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.client.spring;
+
+import cn.feiliu.taskflow.client.ApiClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.env.Environment;
+
+/**
+ * 环境变更后重新绑定{@code taskflow.*}配置, 并将可安全刷新的部分应用到运行中的客户端
+ * <p>
+ * 响应Spring Cloud的{@code EnvironmentChangeEvent}(配置中心推送或{@code /actuator/refresh}触发), 效果等同于
+ * {@code @RefreshScope}, 但不重建客户端; 也可直接调用{@link #rebind()}. 新配置校验失败时保留当前配置
+ *
+ * @author kevin.luan
+ * @since 2025-06-27
+ */
+@Slf4j
+public class TaskflowPropertiesRebinder implements SmartApplicationListener {
+    private static final String ENVIRONMENT_CHANGE_EVENT = "org.springframework.cloud.context.environment.EnvironmentChangeEvent";
+    private final ApiClient     apiClient;
+    private final Environment   environment;
+
+    public TaskflowPropertiesRebinder(ApiClient apiClient, Environment environment) {
+        this.apiClient = apiClient;
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
+        return ENVIRONMENT_CHANGE_EVENT.equals(eventType.getName());
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        rebind();
+    }
+
+    /**
+     * 从当前环境重新绑定配置并应用
+     *
+     * @return 是否应用成功
+     */
+    public boolean rebind() {
+        TaskflowProperties properties = Binder.get(environment).bindOrCreate("taskflow", TaskflowProperties.class);
+        try {
+            apiClient.applyRuntimeConfig(ApiClientAutoConfiguration.toConfig(properties));
+            return true;
+        } catch (IllegalArgumentException e) {
+            log.error("刷新TaskFlow配置失败, 保留当前配置: {}", e.getMessage());
+            return false;
+        }
+    }
+}
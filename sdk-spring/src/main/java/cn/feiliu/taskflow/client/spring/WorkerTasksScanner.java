@@ -18,45 +18,57 @@ import cn.feiliu.taskflow.annotations.WorkerTask;
 import cn.feiliu.taskflow.executor.task.Worker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.ApplicationContext;
-import org.springframework.context.ApplicationListener;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.core.annotation.AnnotationUtils;
-import org.springframework.stereotype.Service;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-public class WorkerTasksScanner implements ApplicationListener<ApplicationReadyEvent> {
+/**
+ * 在Bean创建时识别工作节点, 不在启动完成后再遍历容器
+ * <p>
+ * 实现{@link Worker}接口或包含{@link WorkerTask}方法(按代理前的目标类识别)的Bean会被收集;
+ * CGLIB代理按代理对象注册以保留切面, JDK动态代理无法按目标类方法调用, 注册其目标对象
+ */
+public class WorkerTasksScanner implements BeanPostProcessor {
     static final Logger                 logger      = LoggerFactory.getLogger(WorkerTasksScanner.class);
     private final Map<Class<?>, Object> workerBeans = new ConcurrentHashMap<>();
 
-    @Autowired
-    private ApplicationContext          applicationContext;
-
     @Override
-    public void onApplicationEvent(ApplicationReadyEvent event) {
-        String[] names = applicationContext.getBeanNamesForType(Worker.class);
-        for (String name : names) {
-            Object bean = applicationContext.getBean(name);
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Worker) {
             workerBeans.putIfAbsent(bean.getClass(), bean);
+            return bean;
         }
-        Map<String, Object> beans = applicationContext.getBeansWithAnnotation(Service.class);
-        /*这里不考虑使用 @Component 原因 考虑到暴露的方法通常应该是一个业务方法*/
-        //applicationContext.getBeansWithAnnotation(Component.class);
-        for (Object bean : beans.values()) {
-            Method[] methods = bean.getClass().getDeclaredMethods();
-            for (Method method : methods) {
-                WorkerTask annotation = AnnotationUtils.findAnnotation(method, WorkerTask.class);
-                if (annotation != null) {
-                    workerBeans.putIfAbsent(bean.getClass(), bean);
-                    break;
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        if (hasWorkerTask(targetClass)) {
+            Object worker = bean;
+            if (AopUtils.isJdkDynamicProxy(bean)) {
+                Object target = AopProxyUtils.getSingletonTarget(bean);
+                if (target == null) {
+                    logger
+                        .warn("worker bean `{}` is a JDK dynamic proxy without a singleton target, skipped", beanName);
+                    return bean;
                 }
+                logger.warn("worker bean `{}` is a JDK dynamic proxy, its advice is bypassed", beanName);
+                worker = target;
+            }
+            workerBeans.putIfAbsent(targetClass, worker);
+        }
+        return bean;
+    }
+
+    private static boolean hasWorkerTask(Class<?> targetClass) {
+        for (Method method : targetClass.getMethods()) {
+            if (AnnotationUtils.findAnnotation(method, WorkerTask.class) != null) {
+                return true;
             }
         }
+        return false;
     }
 
     public Collection<Object> getWorkerBeans() {
@@ -65,4 +77,4 @@ public class WorkerTasksScanner implements ApplicationListener<ApplicationReadyE
         });
         return workerBeans.values();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.mock;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端延迟记录器, 保存原始样本用于计算分位数
+ *
+ * @author kevin.luan
+ * @since 2025-06-12
+ */
+public class LatencyRecorder {
+    private long[] samples = new long[1024];
+    private int    size;
+
+    /**
+     * 记录一次延迟
+     *
+     * @param nanos 延迟(纳秒)
+     */
+    public synchronized void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size << 1);
+        }
+        samples[size++] = nanos;
+    }
+
+    public synchronized int count() {
+        return size;
+    }
+
+    public synchronized void reset() {
+        size = 0;
+    }
+
+    /**
+     * 获取延迟分位数
+     *
+     * @param percentile 分位数, 取值(0, 100]
+     * @return 延迟(毫秒), 无样本时返回0
+     */
+    public double percentile(double percentile) {
+        long[] sorted = snapshot();
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return toMillis(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+    }
+
+    /**
+     * @return 最大延迟(毫秒)
+     */
+    public double max() {
+        return percentile(100);
+    }
+
+    private synchronized long[] snapshot() {
+        long[] copy = Arrays.copyOf(samples, size);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
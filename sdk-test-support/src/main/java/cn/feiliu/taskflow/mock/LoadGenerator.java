@@ -0,0 +1,174 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.mock;
+
+import cn.feiliu.taskflow.client.ApiClient;
+import cn.feiliu.taskflow.utils.TaskflowConfig;
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 针对{@link MockTaskflowServer}驱动真实的{@link ApiClient}/TaskEngine进行压测,
+ * 统计端到端吞吐量(tasks/s)与延迟分位数
+ *
+ * <pre>
+ * try (MockTaskflowServer server = new MockTaskflowServer().start()) {
+ *     LoadReport report = new LoadGenerator.Builder(server)
+ *         .withWorkers(new MyWorker())
+ *         .withArrivalRate("add", 500, () -> input)
+ *         .withDuration(10, TimeUnit.SECONDS)
+ *         .build()
+ *         .run();
+ * }
+ * </pre>
+ *
+ * @author kevin.luan
+ * @since 2025-06-12
+ */
+public class LoadGenerator {
+    private static final Logger                              LOGGER = LoggerFactory.getLogger(LoadGenerator.class);
+    private final MockTaskflowServer                         server;
+    private final List<Object>                               workers;
+    private final Map<String, Double>                        arrivalRates;
+    private final Map<String, Supplier<Map<String, Object>>> inputSuppliers;
+    private final long                                       warmupMillis;
+    private final long                                       durationMillis;
+    private final Consumer<TaskflowConfig>                   configCustomizer;
+
+    private LoadGenerator(Builder builder) {
+        this.server = builder.server;
+        this.workers = builder.workers;
+        this.arrivalRates = builder.arrivalRates;
+        this.inputSuppliers = builder.inputSuppliers;
+        this.warmupMillis = builder.warmupMillis;
+        this.durationMillis = builder.durationMillis;
+        this.configCustomizer = builder.configCustomizer;
+    }
+
+    /**
+     * 启动客户端, 预热后按配置的速率产生任务并统计, 结束后关闭客户端
+     *
+     * @return 压测结果
+     */
+    public LoadReport run() throws InterruptedException {
+        TaskflowConfig config = server.newConfig();
+        configCustomizer.accept(config);
+        ApiClient client = new ApiClient(config);
+        try {
+            client.addWorker(workers.toArray());
+            client.start();
+            arrivalRates.forEach((taskType, rate) -> server.startArrivals(taskType, rate, inputSuppliers.get(taskType)));
+            if (warmupMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(warmupMillis);
+            }
+            server.resetLoadStats();
+            long start = System.nanoTime();
+            TimeUnit.MILLISECONDS.sleep(durationMillis);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            LatencyRecorder latency = server.getLatency();
+            LoadReport report = LoadReport.builder().completed(server.getCompletedCount()).durationMillis(elapsed)
+                .polls(server.getPollCount()).emptyPolls(server.getEmptyPollCount()).backlog(server.getBacklog())
+                .p50(latency.percentile(50)).p90(latency.percentile(90)).p99(latency.percentile(99))
+                .max(latency.max()).build();
+            LOGGER.info("Load test finished: {}", report);
+            return report;
+        } finally {
+            arrivalRates.keySet().forEach(server::stopArrivals);
+            client.shutdown();
+        }
+    }
+
+    /**
+     * 用于创建LoadGenerator实例的构建器
+     */
+    public static class Builder {
+        private final MockTaskflowServer                         server;
+        private final List<Object>                               workers          = new ArrayList<>();
+        private final Map<String, Double>                        arrivalRates     = new LinkedHashMap<>();
+        private final Map<String, Supplier<Map<String, Object>>> inputSuppliers   = new HashMap<>();
+        private long                                             warmupMillis     = TimeUnit.SECONDS.toMillis(2);
+        private long                                             durationMillis   = TimeUnit.SECONDS.toMillis(10);
+        private Consumer<TaskflowConfig>                         configCustomizer = config -> {
+        };
+
+        public Builder(MockTaskflowServer server) {
+            this.server = Preconditions.checkNotNull(server, "server cannot be null");
+        }
+
+        /**
+         * @param workers 工作节点实例(含{@code @WorkerTask}方法的对象)
+         * @return Builder实例
+         */
+        public Builder withWorkers(Object... workers) {
+            this.workers.addAll(Arrays.asList(workers));
+            return this;
+        }
+
+        /**
+         * @param taskType       任务类型
+         * @param tasksPerSecond 每秒到达的任务数
+         * @param inputSupplier  任务输入
+         * @return Builder实例
+         */
+        public Builder withArrivalRate(String taskType, double tasksPerSecond,
+                                       Supplier<Map<String, Object>> inputSupplier) {
+            this.arrivalRates.put(taskType, tasksPerSecond);
+            this.inputSuppliers.put(taskType, Preconditions.checkNotNull(inputSupplier));
+            return this;
+        }
+
+        /**
+         * @param warmup 预热时长, 预热期间的数据不计入结果
+         * @param unit   时间单位
+         * @return Builder实例
+         */
+        public Builder withWarmup(long warmup, TimeUnit unit) {
+            this.warmupMillis = unit.toMillis(warmup);
+            return this;
+        }
+
+        /**
+         * @param duration 统计时长
+         * @param unit     时间单位
+         * @return Builder实例
+         */
+        public Builder withDuration(long duration, TimeUnit unit) {
+            Preconditions.checkArgument(duration > 0, "统计时长必须大于0");
+            this.durationMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * @param configCustomizer 启动客户端前调整配置
+         * @return Builder实例
+         */
+        public Builder withConfig(Consumer<TaskflowConfig> configCustomizer) {
+            this.configCustomizer = Preconditions.checkNotNull(configCustomizer);
+            return this;
+        }
+
+        public LoadGenerator build() {
+            Preconditions.checkState(!workers.isEmpty(), "workers cannot be empty");
+            Preconditions.checkState(!arrivalRates.isEmpty(), "arrival rate is required");
+            return new LoadGenerator(this);
+        }
+    }
+}
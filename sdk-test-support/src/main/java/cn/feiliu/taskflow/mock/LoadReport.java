@@ -0,0 +1,59 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.mock;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 压测结果
+ *
+ * @author kevin.luan
+ * @since 2025-06-12
+ */
+@Getter
+@Builder
+public class LoadReport {
+    /*统计周期内完成的任务数*/
+    private final long   completed;
+    /*统计周期(毫秒)*/
+    private final long   durationMillis;
+    /*服务端收到的拉取请求数*/
+    private final long   polls;
+    /*未拉取到任务的请求数*/
+    private final long   emptyPolls;
+    /*统计结束时仍在排队的任务数*/
+    private final long   backlog;
+    /*任务入队到结果上报的延迟分位数(毫秒)*/
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    private final double max;
+
+    /**
+     * @return 每秒完成任务数
+     */
+    public double getThroughput() {
+        return durationMillis == 0 ? 0 : completed * 1000D / durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String
+            .format(
+                "completed=%d, duration=%dms, throughput=%.1f tasks/s, latency(ms) p50=%.2f p90=%.2f p99=%.2f max=%.2f, polls=%d, emptyPolls=%d, backlog=%d",
+                completed, durationMillis, getThroughput(), p50, p90, p99, max, polls, emptyPolls, backlog);
+    }
+}
@@ -0,0 +1,897 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.mock;
+
+import cn.feiliu.common.api.encoder.EncoderFactory;
+import cn.feiliu.common.api.encoder.JsonEncoder;
+import cn.feiliu.common.api.model.resp.DataResult;
+import cn.feiliu.taskflow.utils.TaskflowConfig;
+import cn.feiliu.taskflow.ws.BinaryMessageCodec;
+import cn.feiliu.taskflow.ws.MessageType;
+import cn.feiliu.taskflow.ws.msg.CreditPayload;
+import cn.feiliu.taskflow.ws.msg.SubscribePayload;
+import cn.feiliu.taskflow.ws.msg.WebSocketMessage;
+import okhttp3.HttpUrl;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.ByteString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 进程内的Taskflow模拟服务端, 用于SDK的集成测试与性能测试
+ * <p>
+ * 基于OkHttp MockWebServer实现SDK用到的接口:
+ * <ul>
+ *     <li>POST /auth/token</li>
+ *     <li>GET /taskdef/list, GET /taskdef/{name}, POST /taskdef/create, POST /taskdef/update</li>
+ *     <li>GET /tasks/poll/batch/{taskType}, GET /tasks/poll/{taskType}, POST /tasks/poll/multi, POST /tasks/update,
+ *     POST /tasks/update/batch</li>
+ *     <li>WebSocket /ws/taskflow: 连接确认、心跳响应, 任务入队时推送sub_task通知或直接推送任务(task_push), 可选二进制帧;
+ *     订阅了任务类型的会话按其额度(credit)推送, 额度用尽后不再通知</li>
+ * </ul>
+ * 可配置接口延迟与任务到达速率, 并统计任务从入队到结果上报的端到端延迟
+ *
+ * @author kevin.luan
+ * @since 2025-06-12
+ */
+public class MockTaskflowServer implements AutoCloseable {
+    private static final Logger                        LOGGER             = LoggerFactory
+                                                                              .getLogger(MockTaskflowServer.class);
+    public static final String                         API_PATH           = "/api";
+    public static final String                         WS_PATH            = "/ws/taskflow";
+    // 单条推送消息最多携带的任务数
+    private static final int                           MAX_PUSH_BATCH     = 32;
+    private static final Set<String>                   TERMINAL_STATUS    = new HashSet<>(Arrays.asList("COMPLETED",
+                                                                              "FAILED", "FAILED_WITH_TERMINAL_ERROR"));
+
+    private final MockWebServer                        server             = new MockWebServer();
+    private final JsonEncoder                          jsonEncoder        = EncoderFactory.getJsonEncoder();
+    // 每种任务类型的待拉取队列
+    private final Map<String, Queue<PendingTask>>      queues             = new ConcurrentHashMap<>();
+    // 已被拉取但尚未上报最终结果的任务
+    private final Map<String, PendingTask>             inFlight           = new ConcurrentHashMap<>();
+    // 客户端注册的任务定义, 按名称索引
+    private final Map<String, Map<String, Object>>     taskDefs           = new ConcurrentHashMap<>();
+    private final List<WebSocket>                      sessions           = new CopyOnWriteArrayList<>();
+    // 声明支持直接接收任务的会话
+    private final List<WebSocket>                      pushSessions       = new CopyOnWriteArrayList<>();
+    // 使用二进制帧通信的会话
+    private final Set<WebSocket>                       binarySessions     = ConcurrentHashMap.newKeySet();
+    // 发送过subscribe_v2的会话及其各任务类型的空闲容量, 未发送过的会话接收全部通知
+    private final Map<WebSocket, Map<String, Integer>> subscriptions      = new ConcurrentHashMap<>();
+    private final LatencyRecorder                      latency            = new LatencyRecorder();
+    private final AtomicLong                           sequence           = new AtomicLong();
+    private final LongAdder                            polls              = new LongAdder();
+    private final LongAdder                            emptyPolls         = new LongAdder();
+    private final LongAdder                            multiPolls         = new LongAdder();
+    private final LongAdder                            taskDefUpdates     = new LongAdder();
+    private final LongAdder                            updates            = new LongAdder();
+    private final LongAdder                            completed          = new LongAdder();
+    private final LongAdder                            tokens             = new LongAdder();
+    private final LongAdder                            leaseExtensions    = new LongAdder();
+    private final LongAdder                            batchUpdates       = new LongAdder();
+    private final LongAdder                            pushedTasks        = new LongAdder();
+    private final LongAdder                            socketResults      = new LongAdder();
+    private final LongAdder                            binaryFrames       = new LongAdder();
+    private final LongAdder                            skippedNotices     = new LongAdder();
+    private final Map<String, ScheduledFuture<?>>      arrivals           = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService             producer;
+    private volatile long                              pollLatencyMillis;
+    private volatile long                              updateLatencyMillis;
+    private volatile long                              taskDefLatencyMillis;
+    private volatile boolean                           webSocketEnabled   = true;
+    private volatile boolean                           batchUpdateEnabled = true;
+    private volatile boolean                           multiPollEnabled   = true;
+    private volatile boolean                           taskPushEnabled    = false;
+    private volatile boolean                           binaryEnabled      = false;
+    private volatile boolean                           pongEnabled        = true;
+
+    public MockTaskflowServer() {
+        this.producer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mock-taskflow-producer");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                // MockWebServer会保留所有请求记录, 压测时及时取出避免内存持续增长
+                try {
+                    server.takeRequest(0, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                try {
+                    return handle(request);
+                } catch (Exception e) {
+                    LOGGER.error("Mock server failed to handle {} {}", request.getMethod(), request.getPath(), e);
+                    return new MockResponse().setResponseCode(500).setBody(String.valueOf(e.getMessage()));
+                }
+            }
+        });
+    }
+
+    /**
+     * 启动服务(随机端口)
+     *
+     * @return 当前实例
+     */
+    public MockTaskflowServer start() throws IOException {
+        server.start();
+        LOGGER.info("Mock taskflow server started at {}", getBaseUrl());
+        return this;
+    }
+
+    /**
+     * @return HTTP接口地址, 对应{@link TaskflowConfig#getBaseUrl()}
+     */
+    public String getBaseUrl() {
+        return server.url(API_PATH).toString();
+    }
+
+    /**
+     * @return WebSocket地址, 对应{@link TaskflowConfig#getWebSocketUrl()}
+     */
+    public String getWebSocketUrl() {
+        HttpUrl url = server.url("/");
+        return "ws://" + url.host() + ":" + url.port();
+    }
+
+    /**
+     * 创建指向当前服务的客户端配置
+     *
+     * @return 客户端配置
+     */
+    public TaskflowConfig newConfig() {
+        TaskflowConfig config = new TaskflowConfig();
+        config.setBaseUrl(getBaseUrl());
+        config.setKeyId("mock-key");
+        config.setKeySecret("mock-secret");
+        config.setWebSocketUrl(webSocketEnabled ? getWebSocketUrl() : null);
+        return config;
+    }
+
+    /**
+     * 设置拉取接口的响应延迟
+     */
+    public MockTaskflowServer setPollLatency(long millis) {
+        this.pollLatencyMillis = millis;
+        return this;
+    }
+
+    /**
+     * 设置结果上报接口的响应延迟
+     */
+    public MockTaskflowServer setUpdateLatency(long millis) {
+        this.updateLatencyMillis = millis;
+        return this;
+    }
+
+    /**
+     * 设置任务定义接口的响应延迟, 模拟启动时注册缓慢
+     */
+    public MockTaskflowServer setTaskDefLatency(long millis) {
+        this.taskDefLatencyMillis = millis;
+        return this;
+    }
+
+    /**
+     * 是否在{@link #newConfig()}中启用WebSocket推送
+     */
+    public MockTaskflowServer setWebSocketEnabled(boolean webSocketEnabled) {
+        this.webSocketEnabled = webSocketEnabled;
+        return this;
+    }
+
+    /**
+     * 是否支持批量更新接口, 关闭后返回404
+     */
+    public MockTaskflowServer setBatchUpdateEnabled(boolean batchUpdateEnabled) {
+        this.batchUpdateEnabled = batchUpdateEnabled;
+        return this;
+    }
+
+    /**
+     * 是否支持合并拉取接口, 关闭后返回404
+     */
+    public MockTaskflowServer setMultiPollEnabled(boolean multiPollEnabled) {
+        this.multiPollEnabled = multiPollEnabled;
+        return this;
+    }
+
+    /**
+     * 是否通过WebSocket直接向声明支持的客户端推送任务, 关闭时只推送通知
+     */
+    public MockTaskflowServer setTaskPushEnabled(boolean taskPushEnabled) {
+        this.taskPushEnabled = taskPushEnabled;
+        return this;
+    }
+
+    /**
+     * 是否响应客户端的PING, 关闭后模拟半开连接
+     */
+    public MockTaskflowServer setPongEnabled(boolean pongEnabled) {
+        this.pongEnabled = pongEnabled;
+        return this;
+    }
+
+    /**
+     * 是否与声明支持的客户端使用二进制帧通信, 关闭时只使用JSON文本帧
+     */
+    public MockTaskflowServer setBinaryEnabled(boolean binaryEnabled) {
+        this.binaryEnabled = binaryEnabled;
+        return this;
+    }
+
+    /**
+     * 入队一个待执行任务, 并通过WebSocket通知客户端
+     *
+     * @param taskType  任务类型
+     * @param inputData 任务输入
+     * @return 任务ID
+     */
+    public String enqueue(String taskType, Map<String, Object> inputData) {
+        String taskId = doEnqueue(taskType, inputData);
+        notifyTask(taskType);
+        return taskId;
+    }
+
+    /**
+     * 通过一条通知消息同时通知多个任务类型, 不检查订阅容量
+     *
+     * @param taskTypes 任务类型
+     */
+    public void notifyTasks(String... taskTypes) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("taskNames", Arrays.asList(taskTypes));
+        WebSocketMessage message = new WebSocketMessage(MessageType.SUB_TASK.getValue(), "new tasks", data);
+        for (WebSocket session : sessions) {
+            send(session, message);
+        }
+    }
+
+    /**
+     * 以固定速率持续产生任务
+     *
+     * @param taskType       任务类型
+     * @param tasksPerSecond 每秒到达的任务数
+     * @param inputSupplier  任务输入
+     */
+    public void startArrivals(String taskType, double tasksPerSecond, Supplier<Map<String, Object>> inputSupplier) {
+        if (tasksPerSecond <= 0) {
+            throw new IllegalArgumentException("任务到达速率必须大于0");
+        }
+        final long tickMillis = 10;
+        final double perTick = tasksPerSecond * tickMillis / 1000D;
+        ScheduledFuture<?> future = producer.scheduleAtFixedRate(new Runnable() {
+            private double credit;
+
+            @Override
+            public void run() {
+                credit += perTick;
+                int count = (int) credit;
+                if (count > 0) {
+                    credit -= count;
+                    for (int i = 0; i < count; i++) {
+                        doEnqueue(taskType, inputSupplier.get());
+                    }
+                    notifyTask(taskType);
+                }
+            }
+        }, 0, tickMillis, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> previous = arrivals.put(taskType, future);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    /**
+     * 停止产生指定类型的任务
+     */
+    public void stopArrivals(String taskType) {
+        ScheduledFuture<?> future = arrivals.remove(taskType);
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * 清空压测统计: 延迟、拉取(含空拉取与合并拉取)、结果上报及完成数, 不影响队列中的任务;
+     * 令牌、续租、推送、任务定义等其余计数在服务端生命周期内累计, 不在此清空
+     */
+    public void resetLoadStats() {
+        latency.reset();
+        polls.reset();
+        emptyPolls.reset();
+        multiPolls.reset();
+        updates.reset();
+        completed.reset();
+    }
+
+    public LatencyRecorder getLatency() {
+        return latency;
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getPollCount() {
+        return polls.sum();
+    }
+
+    public long getEmptyPollCount() {
+        return emptyPolls.sum();
+    }
+
+    /**
+     * @return 一次拉取多个任务类型的请求数
+     */
+    public long getMultiPollCount() {
+        return multiPolls.sum();
+    }
+
+    /**
+     * @return 客户端发送的任务定义更新请求数
+     */
+    public long getTaskDefUpdateCount() {
+        return taskDefUpdates.sum();
+    }
+
+    public long getUpdateCount() {
+        return updates.sum();
+    }
+
+    public long getTokenCount() {
+        return tokens.sum();
+    }
+
+    /**
+     * @return 收到的续租(IN_PROGRESS且callbackAfterSeconds大于0)次数
+     */
+    public long getLeaseExtensionCount() {
+        return leaseExtensions.sum();
+    }
+
+    /**
+     * @return 通过WebSocket推送的任务数
+     */
+    public long getPushedTaskCount() {
+        return pushedTasks.sum();
+    }
+
+    /**
+     * @return 通过WebSocket上报的结果数
+     */
+    public long getSocketResultCount() {
+        return socketResults.sum();
+    }
+
+    /**
+     * @return 因会话没有空闲容量而未发送的通知数
+     */
+    public long getSkippedNotificationCount() {
+        return skippedNotices.sum();
+    }
+
+    /**
+     * @return 各会话该任务类型的剩余额度之和, 没有会话订阅时为-1
+     */
+    public int getSubscribedCapacity(String taskType) {
+        int total = -1;
+        for (Map<String, Integer> capacities : subscriptions.values()) {
+            Integer capacity = capacities.get(taskType);
+            if (capacity != null) {
+                total = Math.max(total, 0) + capacity;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return 收到客户端的二进制帧数
+     */
+    public long getBinaryFrameCount() {
+        return binaryFrames.sum();
+    }
+
+    /**
+     * @return 批量更新接口的调用次数
+     */
+    public long getBatchUpdateCount() {
+        return batchUpdates.sum();
+    }
+
+    /**
+     * @return 队列中等待被拉取的任务数
+     */
+    public long getBacklog() {
+        long total = 0;
+        for (Queue<PendingTask> queue : queues.values()) {
+            total += queue.size();
+        }
+        return total;
+    }
+
+    /**
+     * @return 已被拉取尚未完成的任务数
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * @return 客户端注册的任务定义名称
+     */
+    public Set<String> getTaskDefNames() {
+        return Collections.unmodifiableSet(taskDefs.keySet());
+    }
+
+    /**
+     * @return 当前WebSocket连接数
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * 关闭当前所有WebSocket连接, 模拟服务端重启
+     */
+    public void disconnectSessions() {
+        for (WebSocket session : sessions) {
+            session.close(1012, "service restart");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        producer.shutdownNow();
+        for (WebSocket session : sessions) {
+            session.close(1001, "server shutdown");
+        }
+        server.shutdown();
+    }
+
+    private String doEnqueue(String taskType, Map<String, Object> inputData) {
+        String taskId = "mock-task-" + sequence.incrementAndGet();
+        PendingTask task = new PendingTask(taskId, taskType, inputData, System.nanoTime());
+        queues.computeIfAbsent(taskType, k -> new ConcurrentLinkedQueue<>()).add(task);
+        return taskId;
+    }
+
+    private void notifyTask(String taskType) {
+        if (taskPushEnabled && !pushSessions.isEmpty()) {
+            pushTasks(taskType);
+        } else {
+            sendSubTask(taskType);
+        }
+    }
+
+    private void pushTasks(String taskType) {
+        WebSocket session = null;
+        int capacity = 0;
+        int offset = (int) (sequence.get() % pushSessions.size());
+        for (int i = 0; i < pushSessions.size() && capacity <= 0; i++) {
+            session = pushSessions.get((offset + i) % pushSessions.size());
+            capacity = capacityOf(session, taskType);
+        }
+        if (capacity <= 0) {
+            skippedNotices.increment();
+            return;
+        }
+        Queue<PendingTask> queue = queues.get(taskType);
+        List<Map<String, Object>> tasks = new ArrayList<>();
+        PendingTask task;
+        int limit = Math.min(MAX_PUSH_BATCH, capacity);
+        while (queue != null && tasks.size() < limit && (task = queue.poll()) != null) {
+            task.pollCount++;
+            inFlight.put(task.taskId, task);
+            tasks.add(task.toMap(null));
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        pushedTasks.add(tasks.size());
+        Map<String, Integer> capacities = subscriptions.get(session);
+        if (capacities != null) {
+            capacities.computeIfPresent(taskType, (k, credits) -> credits == Integer.MAX_VALUE ? credits : Math.max(0,
+                credits - tasks.size()));
+        }
+        send(session, new WebSocketMessage(MessageType.TASK_PUSH.getValue(), "push tasks", Collections.singletonMap(
+            "tasks", tasks)));
+    }
+
+    private void sendSubTask(String taskType) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("taskNames", Collections.singletonList(taskType));
+        WebSocketMessage message = new WebSocketMessage(MessageType.SUB_TASK.getValue(), "new task", data);
+        for (WebSocket session : sessions) {
+            if (capacityOf(session, taskType) > 0) {
+                send(session, message);
+            } else {
+                skippedNotices.increment();
+            }
+        }
+    }
+
+    private int capacityOf(WebSocket session, String taskType) {
+        Map<String, Integer> capacities = subscriptions.get(session);
+        if (capacities == null) {
+            return Integer.MAX_VALUE;
+        }
+        return capacities.getOrDefault(taskType, 0);
+    }
+
+    private void subscribe(WebSocket session, SubscribePayload payload) {
+        Map<String, Integer> capacities = subscriptions.computeIfAbsent(session, k -> new ConcurrentHashMap<>());
+        for (SubscribePayload.Subscription subscription : payload.getSubscriptions()) {
+            Integer capacity = subscription.getCapacity();
+            capacities.put(subscription.getTaskName(), capacity == null ? Integer.MAX_VALUE : capacity);
+            // 容量恢复时补发积压任务的通知
+            if (capacity == null || capacity > 0) {
+                notifyBacklog(subscription.getTaskName());
+            }
+        }
+    }
+
+    private void notifyBacklog(String taskType) {
+        Queue<PendingTask> queue = queues.get(taskType);
+        if (queue != null && !queue.isEmpty()) {
+            notifyTask(taskType);
+        }
+    }
+
+    private void send(WebSocket session, WebSocketMessage message) {
+        if (binarySessions.contains(session)) {
+            session.send(BinaryMessageCodec.encode(message));
+        } else {
+            session.send(jsonEncoder.encode(message));
+        }
+    }
+
+    private static boolean hasCapability(String capabilities, String capability) {
+        return capabilities != null && Arrays.asList(capabilities.split(",")).contains(capability);
+    }
+
+    @SuppressWarnings("unchecked")
+    private MockResponse handle(RecordedRequest request) throws InterruptedException {
+        HttpUrl url = request.getRequestUrl();
+        String path = url == null ? "" : url.encodedPath();
+        if (path.equals(WS_PATH)) {
+            String capabilities = url.queryParameter("capabilities");
+            boolean taskPush = hasCapability(capabilities, MessageType.TASK_PUSH.getValue());
+            boolean binary = binaryEnabled && hasCapability(capabilities, BinaryMessageCodec.CAPABILITY);
+            MockResponse response = new MockResponse().withWebSocketUpgrade(new ServerListener(taskPush, binary));
+            String extensions = request.getHeader("Sec-WebSocket-Extensions");
+            if (extensions != null && extensions.contains("permessage-deflate")) {
+                // 接受客户端提出的permessage-deflate压缩
+                response.setHeader("Sec-WebSocket-Extensions", "permessage-deflate");
+            }
+            return response;
+        }
+        if (!path.startsWith(API_PATH + "/")) {
+            return notFound(path);
+        }
+        path = path.substring(API_PATH.length());
+        String method = request.getMethod();
+        if ("POST".equals(method)) {
+            switch (path) {
+                case "/auth/token":
+                    tokens.increment();
+                    Map<String, Object> token = new HashMap<>();
+                    token.put("accessToken", "mock-token-" + tokens.sum());
+                    return ok(token);
+                case "/taskdef/create":
+                case "/taskdef/update":
+                    sleep(taskDefLatencyMillis);
+                    if (path.equals("/taskdef/update")) {
+                        taskDefUpdates.increment();
+                    }
+                    Map<String, Object> def = decodeBody(request);
+                    taskDefs.put(String.valueOf(def.get("name")), def);
+                    return ok(def);
+                case "/tasks/update":
+                    sleep(updateLatencyMillis);
+                    return ok(update(decodeBody(request)));
+                case "/tasks/poll/multi":
+                    if (!multiPollEnabled) {
+                        return notFound(path);
+                    }
+                    return ok(multiPoll(decodeBody(request)));
+                case "/tasks/update/batch":
+                    if (!batchUpdateEnabled) {
+                        return notFound(path);
+                    }
+                    batchUpdates.increment();
+                    sleep(updateLatencyMillis);
+                    List<String> taskIds = new ArrayList<>();
+                    for (Object body : jsonEncoder.decode(request.getBody().readUtf8(), List.class)) {
+                        taskIds.add(update((Map<String, Object>) body));
+                    }
+                    return ok(taskIds);
+                default:
+                    return notFound(path);
+            }
+        }
+        if (path.startsWith("/taskdef/")) {
+            sleep(taskDefLatencyMillis);
+        }
+        if (path.equals("/taskdef/list")) {
+            List<Map<String, Object>> list = new ArrayList<>();
+            for (String name : taskDefs.keySet()) {
+                list.add(Collections.singletonMap("name", name));
+            }
+            return ok(list);
+        }
+        if (path.startsWith("/tasks/poll/batch/")) {
+            String count = url.queryParameter("count");
+            return ok(poll(path.substring("/tasks/poll/batch/".length()), url.queryParameter("workerId"),
+                count == null ? 1 : Integer.parseInt(count)));
+        }
+        if (path.startsWith("/tasks/poll/")) {
+            List<Map<String, Object>> tasks = poll(path.substring("/tasks/poll/".length()),
+                url.queryParameter("workerId"), 1);
+            return ok(tasks.isEmpty() ? null : tasks.get(0));
+        }
+        if (path.startsWith("/taskdef/")) {
+            String name = path.substring("/taskdef/".length());
+            Map<String, Object> def = taskDefs.get(name);
+            return def != null ? ok(def) : notFound(path);
+        }
+        return notFound(path);
+    }
+
+    private List<Map<String, Object>> poll(String taskType, String workerId, int count) throws InterruptedException {
+        polls.increment();
+        sleep(pollLatencyMillis);
+        List<Map<String, Object>> result = take(taskType, workerId, count);
+        if (result.isEmpty()) {
+            emptyPolls.increment();
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, List<Map<String, Object>>> multiPoll(Map<String, Object> body) throws InterruptedException {
+        polls.increment();
+        multiPolls.increment();
+        sleep(pollLatencyMillis);
+        String workerId = (String) body.get("workerId");
+        Map<String, List<Map<String, Object>>> result = new HashMap<>();
+        for (Map<String, Object> poll : (List<Map<String, Object>>) body.get("polls")) {
+            String taskType = String.valueOf(poll.get("taskType"));
+            List<Map<String, Object>> tasks = take(taskType, workerId, ((Number) poll.get("count")).intValue());
+            if (!tasks.isEmpty()) {
+                result.put(taskType, tasks);
+            }
+        }
+        if (result.isEmpty()) {
+            emptyPolls.increment();
+        }
+        return result;
+    }
+
+    private List<Map<String, Object>> take(String taskType, String workerId, int count) {
+        Queue<PendingTask> queue = queues.get(taskType);
+        List<Map<String, Object>> result = new ArrayList<>();
+        PendingTask task;
+        while (queue != null && result.size() < count && (task = queue.poll()) != null) {
+            task.pollCount++;
+            inFlight.put(task.taskId, task);
+            result.add(task.toMap(workerId));
+        }
+        return result;
+    }
+
+    private String update(Map<String, Object> body) {
+        updates.increment();
+        String taskId = String.valueOf(body.get("taskId"));
+        String status = String.valueOf(body.get("status"));
+        if (TERMINAL_STATUS.contains(status)) {
+            PendingTask task = inFlight.remove(taskId);
+            if (task != null) {
+                latency.record(System.nanoTime() - task.enqueuedNanos);
+                completed.increment();
+            }
+        } else {
+            // IN_PROGRESS: callbackAfterSeconds为0表示客户端释放任务, 重新入队; 否则视为续租
+            Object callback = body.get("callbackAfterSeconds");
+            if (callback == null || ((Number) callback).longValue() == 0) {
+                PendingTask task = inFlight.remove(taskId);
+                if (task != null) {
+                    queues.computeIfAbsent(task.taskType, k -> new ConcurrentLinkedQueue<>()).add(task);
+                    notifyTask(task.taskType);
+                }
+            } else {
+                leaseExtensions.increment();
+            }
+        }
+        return taskId;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> decodeBody(RecordedRequest request) {
+        String body = request.getBody().readUtf8();
+        return body.isEmpty() ? new HashMap<>() : jsonEncoder.decode(body, Map.class);
+    }
+
+    private MockResponse ok(Object data) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(
+            jsonEncoder.encode(DataResult.ok(data)));
+    }
+
+    private static MockResponse notFound(String path) {
+        return new MockResponse().setResponseCode(404).setBody("Not Found: " + path);
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    /**
+     * 服务端WebSocket会话处理
+     */
+    private class ServerListener extends WebSocketListener {
+        // 客户端是否声明支持接收推送任务
+        private final boolean taskPush;
+        // 客户端是否声明支持二进制帧
+        private final boolean binary;
+
+        ServerListener(boolean taskPush, boolean binary) {
+            this.taskPush = taskPush;
+            this.binary = binary;
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket, Response response) {
+            sessions.add(webSocket);
+            if (taskPush) {
+                pushSessions.add(webSocket);
+            }
+            if (binary) {
+                binarySessions.add(webSocket);
+            }
+            send(webSocket, new WebSocketMessage(MessageType.CONNECTION.getValue(), "connected", null));
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, String text) {
+            handle(webSocket, jsonEncoder.decode(text, WebSocketMessage.class));
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, ByteString bytes) {
+            binaryFrames.increment();
+            handle(webSocket, BinaryMessageCodec.decode(bytes));
+        }
+
+        private void handle(WebSocket webSocket, WebSocketMessage message) {
+            if (message.isMessageType(MessageType.PING)) {
+                if (!pongEnabled) {
+                    return;
+                }
+                send(webSocket, new WebSocketMessage(MessageType.PONG.getValue(), "pong", null));
+            } else if (message.isMessageType(MessageType.TASK_RESULT)) {
+                socketResults.increment();
+                update(message.getData());
+            } else if (message.isMessageType(MessageType.TASK_ACK)) {
+                // 客户端未接收的任务重新入队; 已订阅的会话视为该任务类型无空闲容量, 等待其重新上报容量后再推送,
+                // 未订阅的会话只发送通知由客户端通过HTTP拉取
+                Object rejected = message.getData().get("rejectedTaskIds");
+                Map<String, Integer> capacities = subscriptions.get(webSocket);
+                Set<String> taskTypes = new HashSet<>();
+                for (Object taskId : rejected == null ? Collections.emptyList() : (List<?>) rejected) {
+                    PendingTask task = inFlight.remove(String.valueOf(taskId));
+                    if (task != null) {
+                        queues.computeIfAbsent(task.taskType, k -> new ConcurrentLinkedQueue<>()).add(task);
+                        taskTypes.add(task.taskType);
+                    }
+                }
+                for (String taskType : taskTypes) {
+                    if (capacities != null && capacities.containsKey(taskType)) {
+                        capacities.put(taskType, 0);
+                    } else {
+                        sendSubTask(taskType);
+                    }
+                }
+            } else if (message.isMessageType(MessageType.SUBSCRIBE_V2)) {
+                subscribe(webSocket, message.getData(SubscribePayload.class));
+            } else if (message.isMessageType(MessageType.CREDIT)) {
+                Map<String, Integer> capacities = subscriptions.get(webSocket);
+                CreditPayload payload = message.getData(CreditPayload.class);
+                if (capacities != null) {
+                    payload.getCredits().forEach((taskType, credit) -> {
+                        if (capacities.computeIfPresent(taskType, (k, credits) -> credits == Integer.MAX_VALUE ? credits
+                            : credits + credit) != null) {
+                            notifyBacklog(taskType);
+                        }
+                    });
+                }
+            } else if (message.isMessageType(MessageType.UNSUBSCRIBE)) {
+                Map<String, Integer> capacities = subscriptions.get(webSocket);
+                Object taskNames = message.getData().get("taskNames");
+                if (capacities != null && taskNames != null) {
+                    ((List<?>) taskNames).forEach(taskName -> capacities.remove(String.valueOf(taskName)));
+                }
+            }
+        }
+
+        @Override
+        public void onClosing(WebSocket webSocket, int code, String reason) {
+            sessions.remove(webSocket);
+            pushSessions.remove(webSocket);
+            binarySessions.remove(webSocket);
+            subscriptions.remove(webSocket);
+            webSocket.close(code, reason);
+        }
+
+        @Override
+        public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+            sessions.remove(webSocket);
+            pushSessions.remove(webSocket);
+            binarySessions.remove(webSocket);
+            subscriptions.remove(webSocket);
+        }
+    }
+
+    /**
+     * 服务端保存的任务
+     */
+    private static class PendingTask {
+        final String              taskId;
+        final String              taskType;
+        final Map<String, Object> inputData;
+        final long                enqueuedNanos;
+        int                       pollCount;
+
+        PendingTask(String taskId, String taskType, Map<String, Object> inputData, long enqueuedNanos) {
+            this.taskId = taskId;
+            this.taskType = taskType;
+            this.inputData = inputData == null ? Collections.emptyMap() : inputData;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        Map<String, Object> toMap(String workerId) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("taskId", taskId);
+            map.put("taskType", taskType);
+            map.put("taskDefName", taskType);
+            map.put("workflowInstanceId", "mock-workflow-" + taskId);
+            map.put("status", "IN_PROGRESS");
+            map.put("inputData", inputData);
+            map.put("pollCount", pollCount);
+            map.put("workerId", workerId);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator;
+
+import cn.feiliu.taskflow.client.ApiClient;
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
+import cn.feiliu.taskflow.common.dto.tasks.TaskExecResult;
+import cn.feiliu.taskflow.executor.task.Worker;
+import cn.feiliu.taskflow.mock.MockTaskflowServer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-14
+ */
+public class LeaseExtensionServiceTest {
+    private static final Worker WORKER = new Worker() {
+                                           @Override
+                                           public String getTaskDefName() {
+                                               return "slow";
+                                           }
+
+                                           @Override
+                                           public TaskExecResult execute(ExecutingTask task) {
+                                               return new TaskExecResult(task);
+                                           }
+
+                                           @Override
+                                           public Optional<String[]> getInputNames() {
+                                               return Optional.empty();
+                                           }
+
+                                           @Override
+                                           public Optional<String[]> getOutputNames() {
+                                               return Optional.empty();
+                                           }
+
+                                           @Override
+                                           public String getTag() {
+                                               return "test";
+                                           }
+
+                                           @Override
+                                           public String getDescription() {
+                                               return "test";
+                                           }
+                                       };
+
+    @Test
+    public void testBatchExtension() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().setWebSocketEnabled(false).start()) {
+            runExtension(server);
+            Assert.assertTrue(server.getBatchUpdateCount() > 0);
+        }
+    }
+
+    @Test
+    public void testFallbackWhenBatchNotSupported() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().setWebSocketEnabled(false)
+            .setBatchUpdateEnabled(false).start()) {
+            runExtension(server);
+            Assert.assertEquals(0, server.getBatchUpdateCount());
+        }
+    }
+
+    private void runExtension(MockTaskflowServer server) throws InterruptedException {
+        ApiClient apiClient = new ApiClient(server.newConfig());
+        LeaseExtensionService service = new LeaseExtensionService(apiClient, 1, 5, new PollEventLogger());
+        try {
+            server.enqueue("slow", Collections.emptyMap());
+            server.enqueue("slow", Collections.emptyMap());
+            List<ExecutingTask> tasks = apiClient.getApis().getTaskClient()
+                .batchPollTasksInDomain("slow", null, "worker", 2, 100);
+            Assert.assertEquals(2, tasks.size());
+            tasks.forEach(task -> service.register(WORKER, task));
+            Assert.assertEquals(2, service.getActiveCount());
+            Thread.sleep(2500);
+            Assert.assertTrue(server.getLeaseExtensionCount() >= 2);
+            // 任务结束后不再续租
+            tasks.forEach(service::unregister);
+            long extensions = server.getLeaseExtensionCount();
+            Thread.sleep(1500);
+            Assert.assertEquals(extensions, server.getLeaseExtensionCount());
+            Assert.assertEquals(2, server.getInFlightCount());
+        } finally {
+            service.shutdown();
+            apiClient.shutdown();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator;
+
+import cn.feiliu.taskflow.automator.scheduling.PollStatus;
+import cn.feiliu.taskflow.automator.tracing.TaskTracer;
+import cn.feiliu.taskflow.client.ApiClient;
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
+import cn.feiliu.taskflow.common.dto.tasks.TaskExecResult;
+import cn.feiliu.taskflow.common.enums.TaskUpdateStatus;
+import cn.feiliu.taskflow.common.exceptions.ApiException;
+import cn.feiliu.taskflow.executor.task.Worker;
+import cn.feiliu.taskflow.mock.MockTaskflowServer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-30
+ */
+public class TaskPollExecutorTest {
+
+    /**
+     * 执行时阻塞到{@link #release()}的工作节点
+     */
+    private static class BlockingWorker implements Worker {
+        private final String         taskDefName;
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        BlockingWorker(String taskDefName) {
+            this.taskDefName = taskDefName;
+        }
+
+        void release() {
+            latch.countDown();
+        }
+
+        @Override
+        public String getTaskDefName() {
+            return taskDefName;
+        }
+
+        @Override
+        public TaskExecResult execute(ExecutingTask task) throws Throwable {
+            latch.await(10, TimeUnit.SECONDS);
+            TaskExecResult result = new TaskExecResult(task);
+            result.setStatus(TaskUpdateStatus.COMPLETED);
+            return result;
+        }
+
+        @Override
+        public Optional<String[]> getInputNames() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<String[]> getOutputNames() {
+            return Optional.empty();
+        }
+
+        @Override
+        public String getTag() {
+            return "test";
+        }
+
+        @Override
+        public String getDescription() {
+            return "test";
+        }
+    }
+
+    @Test
+    public void testPushedTasksRejectedWithoutPermits() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().setWebSocketEnabled(false).start()) {
+            ApiClient apiClient = new ApiClient(server.newConfig());
+            TaskPollExecutor executor = newExecutor(apiClient, 1);
+            BlockingWorker worker = new BlockingWorker("push");
+            try {
+                List<ExecutingTask> tasks = lease(server, apiClient, "push", 2);
+                // 只有一个许可, 第二个任务不接收, 由服务端重新入队
+                List<ExecutingTask> rejected = executor.executePushed(worker, tasks);
+                Assert.assertEquals(Collections.singletonList(tasks.get(1)), rejected);
+                Assert.assertEquals(0, executor.getAvailableThreads(worker));
+
+                worker.release();
+                Assert.assertTrue(await(() -> executor.getAvailableThreads(worker) == 1));
+                Assert.assertEquals(1, server.getCompletedCount());
+            } finally {
+                worker.release();
+                executor.shutdown(1);
+                apiClient.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testPushedResultFallsBackToHttp() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().setWebSocketEnabled(false).start()) {
+            ApiClient apiClient = new ApiClient(server.newConfig());
+            TaskPollExecutor executor = newExecutor(apiClient, 2);
+            BlockingWorker worker = new BlockingWorker("push");
+            List<TaskExecResult> sent = new CopyOnWriteArrayList<>();
+            try {
+                worker.release();
+                // WebSocket发送成功时不再通过HTTP上报
+                executor.setPushResultSender(result -> sent.add(result));
+                executor.executePushed(worker, lease(server, apiClient, "push", 1));
+                Assert.assertTrue(await(() -> sent.size() == 1));
+                Assert.assertEquals(0, server.getUpdateCount());
+
+                // WebSocket不可用时改用HTTP上报
+                executor.setPushResultSender(result -> false);
+                executor.executePushed(worker, lease(server, apiClient, "push", 1));
+                Assert.assertTrue(await(() -> server.getCompletedCount() == 1));
+                Assert.assertEquals(1, sent.size());
+            } finally {
+                executor.shutdown(1);
+                apiClient.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testMultiPollPermitSplit() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().setWebSocketEnabled(false).start()) {
+            ApiClient apiClient = new ApiClient(server.newConfig());
+            TaskPollExecutor executor = newExecutor(apiClient, 3);
+            BlockingWorker a = new BlockingWorker("a");
+            BlockingWorker b = new BlockingWorker("b");
+            try {
+                for (int i = 0; i < 3; i++) {
+                    server.enqueue("a", Collections.emptyMap());
+                    server.enqueue("b", Collections.emptyMap());
+                }
+                // 共享的3个许可按任务类型平分, 先拉取的类型多分一个
+                Map<String, PollStatus> statuses = executor.multiPollAndExecute(Arrays.asList(a, b));
+                Assert.assertEquals(PollStatus.HAS_TASK, statuses.get("a"));
+                Assert.assertEquals(PollStatus.HAS_TASK, statuses.get("b"));
+                Assert.assertEquals(0, executor.getAvailableThreads(a));
+                Assert.assertEquals(1, poll(apiClient, "a").size());
+                Assert.assertEquals(2, poll(apiClient, "b").size());
+
+                a.release();
+                b.release();
+                Assert.assertTrue(await(() -> executor.getAvailableThreads(a) == 3));
+                Assert.assertEquals(3, server.getCompletedCount());
+            } finally {
+                a.release();
+                b.release();
+                executor.shutdown(1);
+                apiClient.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testMultiPollReleasesUnusedPermits() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().setWebSocketEnabled(false).start()) {
+            ApiClient apiClient = new ApiClient(server.newConfig());
+            TaskPollExecutor executor = newExecutor(apiClient, 4);
+            BlockingWorker a = new BlockingWorker("a");
+            BlockingWorker b = new BlockingWorker("b");
+            try {
+                server.enqueue("a", Collections.emptyMap());
+                // 拉取到的任务少于分得的许可时, 多余的许可立即归还
+                Map<String, PollStatus> statuses = executor.multiPollAndExecute(Arrays.asList(a, b));
+                Assert.assertEquals(PollStatus.HAS_TASK, statuses.get("a"));
+                Assert.assertEquals(PollStatus.NO_TASK, statuses.get("b"));
+                Assert.assertEquals(3, executor.getAvailableThreads(a));
+
+                a.release();
+                Assert.assertTrue(await(() -> executor.getAvailableThreads(a) == 4));
+            } finally {
+                a.release();
+                executor.shutdown(1);
+                apiClient.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testMultiPollNotSupported() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().setWebSocketEnabled(false).setMultiPollEnabled(false)
+            .start()) {
+            ApiClient apiClient = new ApiClient(server.newConfig());
+            TaskPollExecutor executor = newExecutor(apiClient, 2);
+            BlockingWorker a = new BlockingWorker("a");
+            try {
+                executor.multiPollAndExecute(Collections.singletonList(a));
+                Assert.fail("expected ApiException");
+            } catch (ApiException e) {
+                Assert.assertEquals(404, e.getStatusCode());
+                // 请求失败时归还全部许可
+                Assert.assertEquals(2, executor.getAvailableThreads(a));
+            } finally {
+                executor.shutdown(1);
+                apiClient.shutdown();
+            }
+        }
+    }
+
+    private static TaskPollExecutor newExecutor(ApiClient apiClient, int threadCount) {
+        PollEventLogger eventLogger = new PollEventLogger();
+        return new TaskPollExecutor(apiClient, threadCount, 0, new HashMap<>(), "test-worker-%d", eventLogger,
+            TaskTracer.NOOP, new LeaseExtensionService(apiClient, 0, 60, eventLogger), 0, 30, ExecutionBackend.PLATFORM);
+    }
+
+    /**
+     * 入队并租用任务, 模拟服务端推送的任务
+     */
+    private static List<ExecutingTask> lease(MockTaskflowServer server, ApiClient apiClient, String taskType, int count) {
+        for (int i = 0; i < count; i++) {
+            server.enqueue(taskType, Collections.emptyMap());
+        }
+        List<ExecutingTask> tasks = apiClient.getApis().getTaskClient()
+            .batchPollTasksInDomain(taskType, null, "worker", count, 100);
+        Assert.assertEquals(count, tasks.size());
+        return tasks;
+    }
+
+    private static List<ExecutingTask> poll(ApiClient apiClient, String taskType) {
+        return apiClient.getApis().getTaskClient().batchPollTasksInDomain(taskType, null, "worker", 10, 100);
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.mock;
+
+import cn.feiliu.taskflow.mock.MockTaskflowServerTest.EchoWorker;
+import cn.feiliu.taskflow.mock.MockTaskflowServerTest.UpperWorker;
+import cn.feiliu.taskflow.utils.TaskflowConfig;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 以相同的负载分别运行服务端与客户端的各项特性组合, 校验任务均能完成且走了预期的通道
+ *
+ * @author kevin.luan
+ * @since 2025-06-30
+ */
+@RunWith(Parameterized.class)
+public class LoadScenarioTest {
+    @Parameterized.Parameter(0)
+    public String                                     name;
+    @Parameterized.Parameter(1)
+    public Consumer<MockTaskflowServer>               server;
+    @Parameterized.Parameter(2)
+    public Consumer<TaskflowConfig>                   config;
+    // 同一个服务端上依次运行的次数
+    @Parameterized.Parameter(3)
+    public int                                        runs;
+    @Parameterized.Parameter(4)
+    public BiConsumer<MockTaskflowServer, LoadReport> verifier;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> scenarios() {
+        return Arrays.asList(
+            scenario("taskPush", server -> server.setTaskPushEnabled(true), config -> {}, 1, (server, report) -> {
+                Assert.assertTrue(server.getPushedTaskCount() > 0);
+                Assert.assertTrue(server.getSocketResultCount() > 0);
+            }),
+            scenario("binaryFrames", server -> server.setTaskPushEnabled(true).setBinaryEnabled(true), config -> {},
+                1, (server, report) -> Assert.assertTrue(server.getBinaryFrameCount() > 0)),
+            scenario("multiPoll", server -> {}, config -> config.setMultiPoll(true), 1, (server, report) -> {
+                // 两种任务类型都通过合并请求拉取
+                Assert.assertTrue(server.getMultiPollCount() > 0);
+                Assert.assertEquals(server.getPollCount(), server.getMultiPollCount());
+            }),
+            scenario("multiPollFallback", server -> server.setMultiPollEnabled(false), config -> config.setMultiPoll(true),
+                1, (server, report) -> Assert.assertEquals(0, server.getMultiPollCount())),
+            scenario("unchangedTaskDefSkipped", server -> {}, config -> {}, 2, (server, report) -> {
+                Assert.assertTrue(server.getTaskDefNames().containsAll(Arrays.asList("echo", "upper")));
+                // 第二次启动时任务定义未变化, 不发送更新请求
+                Assert.assertEquals(0, server.getTaskDefUpdateCount());
+            }));
+    }
+
+    private static Object[] scenario(String name, Consumer<MockTaskflowServer> server, Consumer<TaskflowConfig> config,
+                                     int runs, BiConsumer<MockTaskflowServer, LoadReport> verifier) {
+        return new Object[] { name, server, config, runs, verifier };
+    }
+
+    @Test
+    public void testScenario() throws Exception {
+        MockTaskflowServer mockServer = new MockTaskflowServer();
+        server.accept(mockServer);
+        try (MockTaskflowServer started = mockServer.start()) {
+            LoadReport report = null;
+            for (int i = 0; i < runs; i++) {
+                report = new LoadGenerator.Builder(started).withWorkers(new EchoWorker(), new UpperWorker())
+                    .withConfig(config)
+                    .withArrivalRate("echo", 10, () -> Collections.singletonMap("text", "hello"))
+                    .withArrivalRate("upper", 10, () -> Collections.singletonMap("text", "hello"))
+                    .withWarmup(500, TimeUnit.MILLISECONDS).withDuration(2, TimeUnit.SECONDS).build().run();
+            }
+            Assert.assertTrue(report.toString(), report.getCompleted() > 0);
+            verifier.accept(started, report);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.mock;
+
+import cn.feiliu.taskflow.annotations.InputParam;
+import cn.feiliu.taskflow.annotations.OutputParam;
+import cn.feiliu.taskflow.annotations.WorkerTask;
+import cn.feiliu.taskflow.client.ApiClient;
+import cn.feiliu.taskflow.utils.TaskflowConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-12
+ */
+public class MockTaskflowServerTest {
+
+    public static class EchoWorker {
+        @OutputParam("result")
+        @WorkerTask(value = "echo", tag = "echo", description = "mock echo")
+        public String echo(@InputParam("text") String text) {
+            return text;
+        }
+    }
+
+    public static class UpperWorker {
+        @OutputParam("result")
+        @WorkerTask(value = "upper", tag = "upper", description = "mock upper")
+        public String upper(@InputParam("text") String text) {
+            return text.toUpperCase();
+        }
+    }
+
+    @Test
+    public void testLoadGenerator() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().setPollLatency(2).start()) {
+            LoadReport report = new LoadGenerator.Builder(server).withWorkers(new EchoWorker())
+                .withArrivalRate("echo", 200, () -> Collections.singletonMap("text", "hello"))
+                .withWarmup(500, TimeUnit.MILLISECONDS).withDuration(2, TimeUnit.SECONDS).build().run();
+            Assert.assertTrue(server.getTaskDefNames().contains("echo"));
+            Assert.assertTrue(server.getTokenCount() > 0);
+            Assert.assertTrue(report.toString(), report.getCompleted() > 0);
+            Assert.assertTrue(report.getP99() >= report.getP50());
+        }
+    }
+
+    @Test
+    public void testWheelTimerTrigger() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().start()) {
+            LoadReport report = new LoadGenerator.Builder(server).withWorkers(new EchoWorker())
+                .withConfig(config -> {
+                    config.setPushDispatch(false);
+                    workerConfig(config, "echo").setPollingInterval(30000);
+                })
+                .withArrivalRate("echo", 10, () -> Collections.singletonMap("text", "hello"))
+                .withWarmup(500, TimeUnit.MILLISECONDS).withDuration(2, TimeUnit.SECONDS).build().run();
+            // 定时轮询间隔远大于统计时长, 任务只能由通知触发拉取
+            Assert.assertTrue(report.toString(), report.getCompleted() > 0);
+            Assert.assertTrue(report.toString(), report.getP50() < 1000);
+        }
+    }
+
+    @Test
+    public void testMultiTypeTrigger() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().setPollLatency(1000).start()) {
+            TaskflowConfig config = server.newConfig();
+            config.setPushDispatch(false);
+            workerConfig(config, "echo").setPollingInterval(30000);
+            workerConfig(config, "upper").setPollingInterval(30000);
+            ApiClient client = new ApiClient(config);
+            try {
+                client.addWorker(new EchoWorker(), new UpperWorker());
+                client.start();
+                Assert.assertTrue(await(() -> server.getSessionCount() == 1, 5000));
+                // 等待连接建立后的首次拉取结束
+                Thread.sleep(1500);
+                long polls = server.getPollCount();
+
+                // 一条通知包含两个任务类型, 两个拉取并发执行
+                server.notifyTasks("echo", "upper");
+                Assert.assertTrue(await(() -> server.getPollCount() == polls + 2, 500));
+                // 拉取期间的重复通知按任务类型合并, 每种类型至多再拉取一次
+                for (int i = 0; i < 3; i++) {
+                    server.notifyTasks("echo", "upper");
+                }
+                Thread.sleep(2500);
+                Assert.assertTrue(String.valueOf(server.getPollCount() - polls), server.getPollCount() <= polls + 4);
+            } finally {
+                client.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testLazyStartup() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().setTaskDefLatency(2000).start()) {
+            TaskflowConfig config = server.newConfig();
+            config.setLazyStartup(true);
+            ApiClient client = new ApiClient(config);
+            try {
+                client.addWorker(new EchoWorker());
+                client.start();
+                // 注册在后台进行, 不阻塞启动和任务执行
+                Assert.assertFalse(client.getReadyFuture().isDone());
+                server.enqueue("echo", Collections.singletonMap("text", "hello"));
+                Assert.assertTrue(await(() -> server.getCompletedCount() == 1, 1500));
+                Assert.assertFalse(client.getReadyFuture().isDone());
+
+                client.getReadyFuture().get(10, TimeUnit.SECONDS);
+                Assert.assertTrue(client.isReady());
+                Assert.assertTrue(server.getTaskDefNames().contains("echo"));
+            } finally {
+                client.shutdown();
+            }
+        }
+    }
+
+    private static TaskflowConfig.WorkerConfig workerConfig(TaskflowConfig config, String taskName) {
+        return config.getWorkers().computeIfAbsent(taskName, k -> new TaskflowConfig.WorkerConfig());
+    }
+
+    private static boolean await(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
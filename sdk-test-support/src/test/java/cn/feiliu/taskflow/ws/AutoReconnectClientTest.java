@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws;
+
+import cn.feiliu.taskflow.mock.MockTaskflowServer;
+import okhttp3.OkHttpClient;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-18
+ */
+public class AutoReconnectClientTest {
+
+    @Test
+    public void testReconnectAfterServerRestart() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().start()) {
+            List<ConnectionState> states = new CopyOnWriteArrayList<>();
+            OkHttpClient httpClient = new OkHttpClient();
+            AutoReconnectClient client = new AutoReconnectClient(server.getWebSocketUrl(), "test-user", "mock-key",
+                "mock-secret", httpClient, message -> {
+                });
+            client.setReconnectPolicy(ReconnectPolicy.decorrelatedJitter(100, 1000));
+            client.addConnectionStateListener((previous, current) -> states.add(current));
+            try {
+                client.connect();
+                Assert.assertTrue(await(() -> server.getSessionCount() == 1));
+
+                long start = System.nanoTime();
+                server.disconnectSessions();
+                Assert.assertTrue(await(() -> states.lastIndexOf(ConnectionState.CONNECTED) > states
+                    .indexOf(ConnectionState.DISCONNECTED) && states.contains(ConnectionState.DISCONNECTED)));
+                // 第一次重连在base时间内发起, 不再固定等待5秒
+                Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+                Assert.assertTrue(await(() -> server.getSessionCount() == 1));
+                Assert.assertEquals(ConnectionState.CONNECTED, client.getConnectionState());
+            } finally {
+                client.stop();
+            }
+            Assert.assertEquals(ConnectionState.CLOSED, client.getConnectionState());
+            // 共享的调度线程池不随WebSocket连接关闭
+            Assert.assertFalse(httpClient.dispatcher().executorService().isShutdown());
+        }
+    }
+
+    @Test
+    public void testDeadPeerDetection() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().start()) {
+            List<ConnectionState> states = new CopyOnWriteArrayList<>();
+            AutoReconnectClient client = new AutoReconnectClient(server.getWebSocketUrl(), "test-user", "mock-key",
+                "mock-secret", message -> {
+                });
+            client.setReconnectPolicy(ReconnectPolicy.decorrelatedJitter(100, 1000)).enableHeartbeat(100, 2)
+                .addConnectionStateListener((previous, current) -> states.add(current));
+            try {
+                client.connect();
+                HeartbeatMonitor heartbeat = client.getHeartbeatMonitor();
+                Assert.assertTrue(await(() -> heartbeat.getLastRttMillis() >= 0));
+
+                // 服务端不再响应PING, 连接保持打开但已失效
+                server.setPongEnabled(false);
+                Assert.assertTrue(await(() -> heartbeat.getDeadPeerCount() > 0));
+                Assert.assertTrue(await(() -> states.contains(ConnectionState.DISCONNECTED)));
+                server.setPongEnabled(true);
+                Assert.assertTrue(await(() -> client.getConnectionState() == ConnectionState.CONNECTED));
+                Assert.assertTrue(await(() -> heartbeat.getMissedCount() == 0 && server.getSessionCount() == 1));
+            } finally {
+                client.stop();
+            }
+        }
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws;
+
+import cn.feiliu.taskflow.mock.MockTaskflowServer;
+import cn.feiliu.taskflow.ws.msg.TaskPushPayload;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-20
+ */
+public class SubscriptionManagerTest {
+
+    @Test
+    public void testCapacityHints() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().start()) {
+            AtomicInteger capacity = new AtomicInteger(4);
+            AtomicInteger notices = new AtomicInteger();
+            AutoReconnectClient client = new AutoReconnectClient(server.getWebSocketUrl(), "test-user", "mock-key",
+                "mock-secret", message -> {
+                    if (message.isMessageType(MessageType.SUB_TASK)) {
+                        notices.incrementAndGet();
+                    }
+                });
+            SubscriptionManager subscriptions = client.getSubscriptionManager();
+            subscriptions.setCapacitySupplier(taskName -> capacity.get());
+            subscriptions.subscribe(Collections.singletonList("echo"));
+            try {
+                client.connect();
+                Assert.assertTrue(await(() -> server.getSubscribedCapacity("echo") == 4));
+
+                // 没有空闲容量时服务端不再通知
+                capacity.set(0);
+                subscriptions.onCapacityChanged();
+                Assert.assertTrue(await(() -> server.getSubscribedCapacity("echo") == 0));
+                server.enqueue("echo", Collections.singletonMap("text", "hello"));
+                Assert.assertTrue(await(() -> server.getSkippedNotificationCount() == 1));
+                Assert.assertEquals(0, notices.get());
+
+                // 容量恢复后补发积压任务的通知
+                capacity.set(2);
+                subscriptions.onCapacityChanged();
+                Assert.assertTrue(await(() -> notices.get() == 1));
+                Assert.assertEquals(2, server.getSubscribedCapacity("echo"));
+
+                subscriptions.unsubscribe(Collections.singletonList("echo"));
+                Assert.assertTrue(await(() -> server.getSubscribedCapacity("echo") == -1));
+                Assert.assertTrue(subscriptions.getSubscriptions().isEmpty());
+            } finally {
+                client.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testLegacySubscribe() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().start()) {
+            AtomicInteger notices = new AtomicInteger();
+            AutoReconnectClient client = new AutoReconnectClient(server.getWebSocketUrl(), "test-user", "mock-key",
+                "mock-secret", message -> {
+                    if (message.isMessageType(MessageType.SUB_TASK)) {
+                        notices.incrementAndGet();
+                    }
+                });
+            try {
+                client.connect();
+                Assert.assertTrue(await(client::isConnected));
+                // WebSocketClient#subTask发送的旧格式订阅消息不携带容量, 服务端照常通知
+                Assert.assertTrue(client.sendMessage(MessageType.SUBSCRIBE.getValue(), "订阅消息",
+                    Collections.singletonMap("tasks", Collections.singletonList("echo"))));
+                Thread.sleep(100);
+                server.enqueue("echo", Collections.singletonMap("text", "hello"));
+                Assert.assertTrue(await(() -> notices.get() == 1));
+                Assert.assertEquals(0, server.getSkippedNotificationCount());
+            } finally {
+                client.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testCredits() throws Exception {
+        try (MockTaskflowServer server = new MockTaskflowServer().setTaskPushEnabled(true).start()) {
+            AtomicInteger pushed = new AtomicInteger();
+            AtomicReference<SubscriptionManager> ref = new AtomicReference<>();
+            AutoReconnectClient client = new AutoReconnectClient(server.getWebSocketUrl(), "test-user", "mock-key",
+                "mock-secret", message -> {
+                    if (message.isMessageType(MessageType.TASK_PUSH)) {
+                        int count = message.getData(TaskPushPayload.class).getTasks().size();
+                        ref.get().onPushed("echo", count);
+                        pushed.addAndGet(count);
+                    }
+                });
+            SubscriptionManager subscriptions = client.getSubscriptionManager();
+            ref.set(subscriptions);
+            subscriptions.setCapacitySupplier(taskName -> 1);
+            subscriptions.subscribe(Collections.singletonList("echo"));
+            try {
+                client.connect();
+                Assert.assertTrue(await(() -> server.getSubscribedCapacity("echo") == 1));
+                for (int i = 0; i < 3; i++) {
+                    server.enqueue("echo", Collections.singletonMap("text", "hello"));
+                }
+                // 额度用尽后服务端不再推送
+                Assert.assertTrue(await(() -> pushed.get() == 1));
+                Assert.assertTrue(await(() -> server.getSubscribedCapacity("echo") == 0));
+                Thread.sleep(200);
+                Assert.assertEquals(1, pushed.get());
+
+                // 许可释放后追加额度, 服务端继续推送积压的任务
+                subscriptions.onCapacityChanged();
+                Assert.assertTrue(await(() -> pushed.get() == 2));
+            } finally {
+                client.stop();
+            }
+        }
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
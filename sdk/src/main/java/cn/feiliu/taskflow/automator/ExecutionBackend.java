@@ -0,0 +1,70 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 任务执行线程类型
+ *
+ * @author kevin.luan
+ * @since 2025-06-27
+ */
+public enum ExecutionBackend {
+    /*平台线程*/
+    PLATFORM,
+    /*虚拟线程(JDK21+), 不支持时退回平台线程*/
+    VIRTUAL;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionBackend.class);
+
+    /**
+     * 创建执行线程工厂
+     *
+     * @param namingPattern            线程名称格式, 如{@code workflow-worker-%d}
+     * @param uncaughtExceptionHandler 未捕获异常处理器
+     * @return 线程工厂
+     */
+    public ThreadFactory newThreadFactory(String namingPattern, Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+        if (this == VIRTUAL) {
+            try {
+                return virtualThreadFactory(namingPattern.replace("%d", ""), uncaughtExceptionHandler);
+            } catch (ReflectiveOperationException e) {
+                LOGGER.warn("Virtual threads are not supported by this JVM, falling back to platform threads");
+            }
+        }
+        return new BasicThreadFactory.Builder().namingPattern(namingPattern)
+            .uncaughtExceptionHandler(uncaughtExceptionHandler).build();
+    }
+
+    /**
+     * 通过反射调用{@code Thread.ofVirtual()}, 在JDK8目标下编译
+     */
+    private static ThreadFactory virtualThreadFactory(String prefix, Thread.UncaughtExceptionHandler handler)
+                                                                                                             throws ReflectiveOperationException {
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        Class<?> builderClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+        Method name = builderClass.getMethod("name", String.class, long.class);
+        Method uncaughtExceptionHandler = builderClass.getMethod("uncaughtExceptionHandler",
+            Thread.UncaughtExceptionHandler.class);
+        builder = uncaughtExceptionHandler.invoke(name.invoke(builder, prefix, 0L), handler);
+        return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    }
+}
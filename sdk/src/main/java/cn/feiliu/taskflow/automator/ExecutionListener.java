@@ -0,0 +1,33 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator;
+
+/**
+ * 任务执行耗时监听器
+ *
+ * @author kevin.luan
+ * @since 2025-06-30
+ */
+@FunctionalInterface
+public interface ExecutionListener {
+
+    /**
+     * 任务执行结束(成功或失败), 在执行任务的线程中调用, 不应阻塞
+     *
+     * @param taskType 任务类型
+     * @param nanos    执行耗时(纳秒)
+     */
+    void onExecuted(String taskType, long nanos);
+}
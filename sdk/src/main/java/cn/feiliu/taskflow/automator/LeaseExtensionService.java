@@ -0,0 +1,256 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator;
+
+import cn.feiliu.taskflow.automator.PollEventLogger.Event;
+import cn.feiliu.taskflow.client.ApiClient;
+import cn.feiliu.taskflow.client.TaskClient;
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
+import cn.feiliu.taskflow.common.dto.tasks.TaskExecResult;
+import cn.feiliu.taskflow.common.enums.TaskUpdateStatus;
+import cn.feiliu.taskflow.common.exceptions.ApiException;
+import cn.feiliu.taskflow.executor.task.Worker;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 执行中任务的后台续租服务
+ * <p>
+ * 任务执行时间超过阈值后, 按阈值周期向服务端发送IN_PROGRESS状态及{@code callbackAfterSeconds}的更新,
+ * 避免长耗时任务被服务端判定超时而重新入队导致重复执行. 同一周期内所有到期的任务合并为一次批量更新,
+ * 服务端不支持批量接口(404)时退化为逐个更新
+ * <p>
+ * 发送续租更新期间持有任务的续租锁, {@link #unregister(ExecutingTask)}在该锁上等待正在发送的续租完成,
+ * 发送前再次确认任务仍在执行, 保证续租更新不会晚于任务的最终结果到达服务端
+ *
+ * @author kevin.luan
+ * @since 2025-06-14
+ */
+public class LeaseExtensionService {
+    private static final Logger            LOGGER         = LoggerFactory.getLogger(LeaseExtensionService.class);
+    private final ApiClient                apiClient;
+    private final PollEventLogger          eventLogger;
+    private final long                     thresholdNanos;
+    private final int                      extendSeconds;
+    // 任务ID到续租信息的映射
+    private final Map<String, Lease>       leases         = new ConcurrentHashMap<>();
+    // 续租线程, 未开启续租时为null
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean               batchSupported = true;
+
+    /**
+     * @param apiClient        API客户端
+     * @param thresholdSeconds 任务执行超过该时间(秒)后开始续租, 之后每隔该时间续租一次, 0表示不续租
+     * @param extendSeconds    每次续租的{@code callbackAfterSeconds}(秒)
+     * @param eventLogger      轮询事件日志
+     */
+    public LeaseExtensionService(ApiClient apiClient, int thresholdSeconds, int extendSeconds, PollEventLogger eventLogger) {
+        this.apiClient = apiClient;
+        this.eventLogger = eventLogger;
+        this.thresholdNanos = TimeUnit.SECONDS.toNanos(thresholdSeconds);
+        this.extendSeconds = extendSeconds;
+        if (thresholdSeconds > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                new BasicThreadFactory.Builder().namingPattern("taskflow-lease-%d").daemon(true).build());
+            this.scheduler.scheduleWithFixedDelay(this::extendDueLeases, 1, 1, TimeUnit.SECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return scheduler != null;
+    }
+
+    /**
+     * 开始跟踪一个执行中的任务
+     *
+     * @param worker 工作节点
+     * @param task   任务
+     */
+    void register(Worker worker, ExecutingTask task) {
+        if (scheduler != null) {
+            leases.put(task.getTaskId(), new Lease(worker, task, System.nanoTime() + thresholdNanos));
+        }
+    }
+
+    /**
+     * 停止跟踪任务, 须在提交最终结果之前调用
+     *
+     * @param task 任务
+     */
+    void unregister(ExecutingTask task) {
+        if (scheduler == null) {
+            return;
+        }
+        Lease lease = leases.remove(task.getTaskId());
+        if (lease != null) {
+            lease.lock.lock();
+            try {
+                lease.released = true;
+            } finally {
+                lease.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return 正在跟踪的任务数
+     */
+    public int getActiveCount() {
+        return leases.size();
+    }
+
+    /**
+     * 为所有到期的任务续租
+     */
+    void extendDueLeases() {
+        long now = System.nanoTime();
+        List<Lease> due = new ArrayList<>();
+        for (Lease lease : leases.values()) {
+            if (now - lease.nextExtendNanos >= 0) {
+                due.add(lease);
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        List<Lease> locked = lockLive(due);
+        try {
+            if (!locked.isEmpty()) {
+                extend(locked, now);
+            }
+        } finally {
+            for (Lease lease : locked) {
+                lease.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 锁定仍在执行的任务, 已结束的任务直接丢弃
+     *
+     * @param due 到期的任务
+     * @return 已加锁且仍在执行的任务
+     */
+    private List<Lease> lockLive(List<Lease> due) {
+        List<Lease> locked = new ArrayList<>(due.size());
+        for (Lease lease : due) {
+            lease.lock.lock();
+            if (lease.released) {
+                lease.lock.unlock();
+            } else {
+                locked.add(lease);
+            }
+        }
+        return locked;
+    }
+
+    private void extend(List<Lease> due, long now) {
+        TaskClient taskClient = apiClient.getApis().getTaskClient();
+        if (batchSupported && due.size() > 1) {
+            List<TaskExecResult> results = new ArrayList<>(due.size());
+            for (Lease lease : due) {
+                results.add(newResult(lease));
+            }
+            try {
+                taskClient.batchUpdateTasks(results);
+                for (Lease lease : due) {
+                    extended(lease, now);
+                }
+                return;
+            } catch (ApiException e) {
+                if (e.getStatusCode() != 404) {
+                    failed(due, e);
+                    return;
+                }
+                LOGGER.info("Batch task update is not supported by server, extending leases one by one");
+                batchSupported = false;
+            } catch (Exception e) {
+                failed(due, e);
+                return;
+            }
+        }
+        for (Lease lease : due) {
+            try {
+                taskClient.updateTask(newResult(lease));
+                extended(lease, now);
+            } catch (Exception e) {
+                failed(Collections.singletonList(lease), e);
+            }
+        }
+    }
+
+    /**
+     * 停止续租
+     */
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            leases.clear();
+        }
+    }
+
+    private TaskExecResult newResult(Lease lease) {
+        ExecutingTask task = lease.task;
+        TaskExecResult result = new TaskExecResult(task);
+        result.setWorkflowInstanceId(task.getWorkflowInstanceId());
+        result.setTaskId(task.getTaskId());
+        result.setWorkerId(lease.worker.getIdentity());
+        result.setStatus(TaskUpdateStatus.IN_PROGRESS);
+        result.setCallbackAfterSeconds(extendSeconds);
+        return result;
+    }
+
+    private void extended(Lease lease, long now) {
+        lease.nextExtendNanos = now + thresholdNanos;
+        eventLogger.record(Event.LEASE_EXTENDED, lease.worker.getTaskDefName(), "Extended lease of task: {} by {}s",
+            lease.task.getTaskId(), extendSeconds);
+    }
+
+    private void failed(List<Lease> leases, Exception e) {
+        for (Lease lease : leases) {
+            eventLogger.record(Event.LEASE_FAILED, lease.worker.getTaskDefName(),
+                "Failed to extend lease of task: {}, error: {}", lease.task.getTaskId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 执行中任务的续租信息
+     */
+    private static final class Lease {
+        final Worker        worker;
+        final ExecutingTask task;
+        // 发送续租与停止续租互斥
+        final ReentrantLock lock = new ReentrantLock();
+        volatile long       nextExtendNanos;
+        // 任务已结束, 受lock保护
+        boolean             released;
+
+        Lease(Worker worker, ExecutingTask task, long nextExtendNanos) {
+            this.worker = worker;
+            this.task = task;
+            this.nextExtendNanos = nextExtendNanos;
+        }
+    }
+}
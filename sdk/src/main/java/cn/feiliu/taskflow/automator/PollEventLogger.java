@@ -0,0 +1,323 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 轮询热点路径的事件日志
+ * <p>
+ * 每个事件只累加计数器, 逐条日志按任务类型和事件类型分别限流采样输出, 汇总日志按固定周期输出一条,
+ * 日志量不随任务吞吐量增长; 某个任务类型的大量失败不会挤占其他任务类型的采样日志
+ *
+ * @author kevin.luan
+ * @since 2025-06-10
+ */
+public class PollEventLogger {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PollEventLogger.class);
+
+    /**
+     * 轮询执行过程中的事件类型及其默认日志级别
+     */
+    public enum Event {
+        /*发起一次轮询*/
+        POLL(Level.DEBUG),
+        /*轮询未获取到任务*/
+        POLL_EMPTY(Level.DEBUG),
+        /*轮询失败*/
+        POLL_ERROR(Level.WARN),
+        /*开始执行任务*/
+        TASK_STARTED(Level.DEBUG),
+        /*任务执行完成*/
+        TASK_COMPLETED(Level.DEBUG),
+        /*任务执行失败*/
+        TASK_FAILED(Level.ERROR),
+        /*任务结果更新失败*/
+        UPDATE_FAILED(Level.ERROR),
+        /*收到服务端任务通知*/
+        TRIGGER(Level.DEBUG),
+        /*续租执行中的任务*/
+        LEASE_EXTENDED(Level.DEBUG),
+        /*续租失败*/
+        LEASE_FAILED(Level.WARN);
+
+        private final Level defaultLevel;
+
+        Event(Level defaultLevel) {
+            this.defaultLevel = defaultLevel;
+        }
+
+        public Level getDefaultLevel() {
+            return defaultLevel;
+        }
+    }
+
+    private static final Event[]              EVENTS              = Event.values();
+    // 各事件类型的日志级别
+    private final Level[]                     levels              = new Level[EVENTS.length];
+    // 各事件类型两次采样日志之间的最小间隔(纳秒)
+    private final long[]                      sampleIntervalNanos = new long[EVENTS.length];
+    // 按任务类型统计的事件计数器及采样状态
+    private final Map<String, TaskTypeEvents> counters            = new ConcurrentHashMap<>();
+    // 上一次汇总时的计数快照, 仅由获得汇总权的线程访问
+    private final Map<String, long[]>         lastSummary         = new HashMap<>();
+    private final AtomicLong                  nextSummaryNanos;
+    private volatile long                     summaryIntervalNanos;
+
+    public PollEventLogger() {
+        this(TimeUnit.MINUTES.toSeconds(1), 1);
+    }
+
+    /**
+     * @param summaryIntervalSeconds 汇总日志输出周期(秒)
+     * @param samplesPerSecond       每种事件每秒最多输出的采样日志条数
+     */
+    public PollEventLogger(long summaryIntervalSeconds, int samplesPerSecond) {
+        for (Event event : EVENTS) {
+            levels[event.ordinal()] = event.getDefaultLevel();
+            setSampleRate(event, samplesPerSecond);
+        }
+        this.summaryIntervalNanos = TimeUnit.SECONDS.toNanos(summaryIntervalSeconds);
+        this.nextSummaryNanos = new AtomicLong(System.nanoTime() + summaryIntervalNanos);
+    }
+
+    /**
+     * 设置事件的日志级别
+     *
+     * @param event 事件类型
+     * @param level 日志级别
+     * @return 当前实例
+     */
+    public PollEventLogger setLevel(Event event, Level level) {
+        levels[event.ordinal()] = Objects.requireNonNull(level, "level is null");
+        return this;
+    }
+
+    /**
+     * 设置事件每秒最多输出的采样日志条数
+     *
+     * @param event            事件类型
+     * @param samplesPerSecond 每秒条数, 小于1表示不输出逐条日志(只计数)
+     * @return 当前实例
+     */
+    public PollEventLogger setSampleRate(Event event, int samplesPerSecond) {
+        sampleIntervalNanos[event.ordinal()] = samplesPerSecond < 1 ? Long.MAX_VALUE : TimeUnit.SECONDS.toNanos(1)
+                                                                                       / samplesPerSecond;
+        return this;
+    }
+
+    /**
+     * 设置汇总日志输出周期
+     *
+     * @param seconds 周期(秒)
+     * @return 当前实例
+     */
+    public PollEventLogger setSummaryIntervalSeconds(long seconds) {
+        if (seconds < 1) {
+            throw new IllegalArgumentException("汇总日志周期不能小于1秒");
+        }
+        this.summaryIntervalNanos = TimeUnit.SECONDS.toNanos(seconds);
+        return this;
+    }
+
+    /**
+     * 记录一次事件(只累加计数)
+     *
+     * @param event    事件类型
+     * @param taskType 任务类型
+     */
+    public void record(Event event, String taskType) {
+        events(taskType).counters[event.ordinal()].increment();
+        maybeSummarize();
+    }
+
+    /**
+     * 记录事件并按采样率输出一条日志
+     */
+    public void record(Event event, String taskType, String format, Object arg) {
+        record(event, taskType);
+        if (shouldLog(event, taskType)) {
+            write(levels[event.ordinal()], format, arg);
+        }
+    }
+
+    /**
+     * 记录事件并按采样率输出一条日志
+     */
+    public void record(Event event, String taskType, String format, Object arg1, Object arg2) {
+        record(event, taskType);
+        if (shouldLog(event, taskType)) {
+            write(levels[event.ordinal()], format, arg1, arg2);
+        }
+    }
+
+    /**
+     * 记录事件并按采样率输出一条日志
+     */
+    public void record(Event event, String taskType, String format, Object arg1, Object arg2, Object arg3) {
+        record(event, taskType);
+        if (shouldLog(event, taskType)) {
+            write(levels[event.ordinal()], format, arg1, arg2, arg3);
+        }
+    }
+
+    /**
+     * 记录事件并按采样率输出一条日志
+     */
+    public void record(Event event, String taskType, String format, Object arg1, Object arg2, Object arg3, Object arg4) {
+        record(event, taskType);
+        if (shouldLog(event, taskType)) {
+            write(levels[event.ordinal()], format, arg1, arg2, arg3, arg4);
+        }
+    }
+
+    /**
+     * 获取事件累计次数
+     *
+     * @param event    事件类型
+     * @param taskType 任务类型
+     * @return 累计次数
+     */
+    public long getCount(Event event, String taskType) {
+        TaskTypeEvents events = counters.get(taskType);
+        return events == null ? 0 : events.counters[event.ordinal()].sum();
+    }
+
+    /**
+     * 获取所有出现过的任务类型
+     *
+     * @return 任务类型集合
+     */
+    public Set<String> getTaskTypes() {
+        return Collections.unmodifiableSet(counters.keySet());
+    }
+
+    /**
+     * 判断本次事件是否输出逐条日志: 先检查日志级别, 再按任务类型做无锁限流, 被丢弃的事件不产生任何分配
+     */
+    boolean shouldLog(Event event, String taskType) {
+        int index = event.ordinal();
+        if (!isEnabled(levels[index])) {
+            return false;
+        }
+        long interval = sampleIntervalNanos[index];
+        if (interval == Long.MAX_VALUE) {
+            return false;
+        }
+        AtomicLongArray nextSampleNanos = events(taskType).nextSampleNanos;
+        long now = System.nanoTime();
+        long next = nextSampleNanos.get(index);
+        return now - next >= 0 && nextSampleNanos.compareAndSet(index, next, now + interval);
+    }
+
+    private TaskTypeEvents events(String taskType) {
+        TaskTypeEvents events = counters.get(taskType);
+        if (events == null) {
+            events = counters.computeIfAbsent(taskType, k -> new TaskTypeEvents());
+        }
+        return events;
+    }
+
+    private void maybeSummarize() {
+        long now = System.nanoTime();
+        long next = nextSummaryNanos.get();
+        if (now - next < 0 || !nextSummaryNanos.compareAndSet(next, now + summaryIntervalNanos)) {
+            return;
+        }
+        synchronized (lastSummary) {
+            if (!LOGGER.isInfoEnabled()) {
+                return;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<String, TaskTypeEvents> entry : counters.entrySet()) {
+                long[] last = lastSummary.computeIfAbsent(entry.getKey(), k -> new long[EVENTS.length]);
+                StringBuilder line = new StringBuilder();
+                for (Event event : EVENTS) {
+                    long current = entry.getValue().counters[event.ordinal()].sum();
+                    long delta = current - last[event.ordinal()];
+                    last[event.ordinal()] = current;
+                    if (delta > 0) {
+                        line.append(' ').append(event.name().toLowerCase()).append('=').append(delta);
+                    }
+                }
+                if (line.length() > 0) {
+                    sb.append(" [").append(entry.getKey()).append(':').append(line).append(" ]");
+                }
+            }
+            if (sb.length() > 0) {
+                LOGGER.info("Poll stats in last {}s:{}", TimeUnit.NANOSECONDS.toSeconds(summaryIntervalNanos), sb);
+            }
+        }
+    }
+
+    /**
+     * 单个任务类型的事件计数器及各事件下一次允许输出采样日志的时间(纳秒)
+     */
+    private static final class TaskTypeEvents {
+        private final LongAdder[]     counters        = new LongAdder[EVENTS.length];
+        private final AtomicLongArray nextSampleNanos = new AtomicLongArray(EVENTS.length);
+
+        TaskTypeEvents() {
+            long now = System.nanoTime();
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = new LongAdder();
+                nextSampleNanos.set(i, now);
+            }
+        }
+    }
+
+    private static boolean isEnabled(Level level) {
+        switch (level) {
+            case ERROR:
+                return LOGGER.isErrorEnabled();
+            case WARN:
+                return LOGGER.isWarnEnabled();
+            case INFO:
+                return LOGGER.isInfoEnabled();
+            case DEBUG:
+                return LOGGER.isDebugEnabled();
+            default:
+                return LOGGER.isTraceEnabled();
+        }
+    }
+
+    private static void write(Level level, String format, Object... args) {
+        switch (level) {
+            case ERROR:
+                LOGGER.error(format, args);
+                break;
+            case WARN:
+                LOGGER.warn(format, args);
+                break;
+            case INFO:
+                LOGGER.info(format, args);
+                break;
+            case DEBUG:
+                LOGGER.debug(format, args);
+                break;
+            default:
+                LOGGER.trace(format, args);
+        }
+    }
+}
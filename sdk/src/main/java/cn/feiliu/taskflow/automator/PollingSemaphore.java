@@ -18,19 +18,33 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
 
 /**
  * 一个包装信号量的类,用于持有可用于轮询和执行任务的许可数量
+ * <p>
+ * 许可总数可在运行期调整: 扩容立即释放新增的许可; 缩容先扣减空闲许可, 不足部分在执行中的任务完成归还许可时抵扣,
+ * 期间可用许可数可能为负
  */
 class PollingSemaphore {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(PollingSemaphore.class);
-    private final Semaphore     semaphore;
+    private static final Logger      LOGGER           = LoggerFactory.getLogger(PollingSemaphore.class);
+    private final ResizableSemaphore semaphore;
+    // 许可总数
+    private volatile int             numSlots;
+    // 许可总数调整时的回调
+    private volatile Runnable        changeListener;
+    // 等待空闲许可的一次性回调
+    private final Queue<Runnable>    availableWaiters = new ConcurrentLinkedQueue<>();
+    // 等待归还许可的一次性回调
+    private final Queue<Runnable>    releaseWaiters   = new ConcurrentLinkedQueue<>();
 
     PollingSemaphore(int numSlots) {
         LOGGER.debug("Polling semaphore initialized with {} permits", numSlots);
-        semaphore = new Semaphore(numSlots);
+        semaphore = new ResizableSemaphore(numSlots);
+        this.numSlots = numSlots;
     }
 
     /**
@@ -63,6 +77,8 @@ class PollingSemaphore {
     void complete() {
         LOGGER.debug("Completed execution; releasing permit");
         semaphore.release();
+        runAll(releaseWaiters);
+        signalAvailable();
     }
 
     /**
@@ -73,6 +89,63 @@ class PollingSemaphore {
     void complete(int permits) {
         LOGGER.debug("Completed execution; releasing {} permits", permits);
         semaphore.release(permits);
+        runAll(releaseWaiters);
+        signalAvailable();
+    }
+
+    /**
+     * 设置许可总数调整时的回调, 回调在调整许可的线程中执行, 不应阻塞; 获取或归还许可时不执行
+     *
+     * @param changeListener 回调
+     */
+    void setChangeListener(Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    /**
+     * 注册一次性回调, 有空闲许可时执行: 当前已有空闲许可时立即在调用线程中执行, 否则在释放许可的线程中执行, 回调不应阻塞
+     *
+     * @param callback 回调
+     */
+    void onAvailable(Runnable callback) {
+        availableWaiters.offer(callback);
+        signalAvailable();
+    }
+
+    /**
+     * 注册一次性回调, 下一次归还许可时在归还许可的线程中执行, 回调不应阻塞
+     *
+     * @param callback 回调
+     * @return false表示当前没有占用中的许可, 不会再有许可归还, 回调未注册
+     */
+    boolean onRelease(Runnable callback) {
+        releaseWaiters.offer(callback);
+        // 注册后再检查, 检查前已归还的许可会执行该回调, remove返回false
+        return numSlots - semaphore.availablePermits() > 0 || !releaseWaiters.remove(callback);
+    }
+
+    private void signalAvailable() {
+        if (!availableWaiters.isEmpty() && semaphore.availablePermits() > 0) {
+            runAll(availableWaiters);
+        }
+    }
+
+    private static void runAll(Queue<Runnable> waiters) {
+        Runnable callback;
+        while ((callback = waiters.poll()) != null) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Permit callback failed", e);
+            }
+        }
+    }
+
+    private void fireChanged() {
+        Runnable listener = changeListener;
+        if (listener != null) {
+            listener.run();
+        }
     }
 
     /**
@@ -85,4 +158,50 @@ class PollingSemaphore {
         LOGGER.debug("Number of available permits: {}", available);
         return available;
     }
+
+    /**
+     * @return 许可总数
+     */
+    int totalThreads() {
+        return numSlots;
+    }
+
+    /**
+     * 调整许可总数, 不影响执行中的任务
+     *
+     * @param newSlots 新的许可总数
+     * @return 调整前的许可总数
+     */
+    synchronized int resize(int newSlots) {
+        if (newSlots < 1) {
+            throw new IllegalArgumentException("许可总数不能小于1");
+        }
+        int previous = numSlots;
+        if (newSlots > previous) {
+            semaphore.release(newSlots - previous);
+        } else if (newSlots < previous) {
+            semaphore.reducePermits(previous - newSlots);
+        }
+        numSlots = newSlots;
+        LOGGER.debug("Polling semaphore resized from {} to {} permits", previous, newSlots);
+        if (newSlots != previous) {
+            fireChanged();
+            signalAvailable();
+        }
+        return previous;
+    }
+
+    /**
+     * 开放{@link Semaphore#reducePermits(int)}以支持缩容
+     */
+    private static class ResizableSemaphore extends Semaphore {
+        ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator;
+
+import cn.feiliu.taskflow.automator.tracing.TaskSpan;
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
+import cn.feiliu.taskflow.executor.task.Worker;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * 单个任务类型的本地预取缓冲区
+ * <p>
+ * 在正在执行的任务之外最多再预取{@code maxDepth}个任务, 执行线程完成任务后直接从缓冲区取下一个,
+ * 无需等待一次网络往返. 预取深度按观测到的拉取耗时与执行耗时自适应, 取一次拉取往返期间全部执行线程能完成的任务数
+ *
+ * @author kevin.luan
+ * @since 2025-06-13
+ */
+class PrefetchBuffer {
+    // 耗时滑动平均的权重
+    private static final double                ALPHA           = 0.2D;
+    private final Worker                       worker;
+    // 该任务类型当前的执行线程数(许可总数), 运行期调整后立即生效
+    private final IntSupplier                  threads;
+    private final int                          maxDepth;
+    private final long                         maxHoldNanos;
+    private final ConcurrentLinkedDeque<Entry> entries         = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger                size            = new AtomicInteger();
+    // 同一任务类型同时只允许一个拉取请求
+    private final ReentrantLock                pollLock        = new ReentrantLock();
+    // 是否已有补充拉取在排队
+    private final AtomicBoolean                refilling       = new AtomicBoolean();
+    private volatile double                    avgExecuteNanos = -1;
+    private volatile double                    avgPollNanos    = -1;
+    private volatile long                      lastEmptyPollNanos;
+
+    /**
+     * @param worker         工作节点
+     * @param threads        该任务类型当前的执行线程数
+     * @param maxDepth       最大预取深度
+     * @param maxHoldSeconds 任务在缓冲区中的最长停留时间(秒)
+     */
+    PrefetchBuffer(Worker worker, IntSupplier threads, int maxDepth, int maxHoldSeconds) {
+        this.worker = worker;
+        this.threads = threads;
+        this.maxDepth = maxDepth;
+        this.maxHoldNanos = TimeUnit.SECONDS.toNanos(maxHoldSeconds);
+        this.lastEmptyPollNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+    }
+
+    Worker getWorker() {
+        return worker;
+    }
+
+    /**
+     * 当前的目标预取深度, 尚无观测数据时取执行线程数
+     *
+     * @return 目标深度, 取值[1, maxDepth]
+     */
+    int targetDepth() {
+        int threads = Math.max(1, this.threads.getAsInt());
+        double execute = avgExecuteNanos;
+        double poll = avgPollNanos;
+        if (execute <= 0 || poll < 0) {
+            return Math.min(threads, maxDepth);
+        }
+        double depth = Math.ceil(threads * poll / execute);
+        return (int) Math.max(1, Math.min(maxDepth, depth));
+    }
+
+    /**
+     * @return 距目标深度还可以预取的任务数
+     */
+    int remainingCapacity() {
+        return Math.max(0, targetDepth() - size.get());
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * 放入一个预取的任务, 缓冲区中的任务数不超过最大预取深度
+     *
+     * @param task      任务
+     * @param pollSpan  拉取该任务时的Span
+     * @param queueSpan 排队等待的Span, 任务被取出时结束
+     * @return false表示缓冲区已满, 任务未放入
+     */
+    boolean offer(ExecutingTask task, TaskSpan pollSpan, TaskSpan queueSpan) {
+        if (size.incrementAndGet() > maxDepth) {
+            size.decrementAndGet();
+            return false;
+        }
+        entries.offer(new Entry(task, pollSpan, queueSpan, System.nanoTime()));
+        return true;
+    }
+
+    /**
+     * 取出最早放入的任务
+     *
+     * @return 任务, 缓冲区为空时返回null
+     */
+    Entry poll() {
+        Entry entry = entries.poll();
+        if (entry != null) {
+            size.decrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * 移除停留时间超过上限的任务
+     *
+     * @param now 当前时间(纳秒)
+     * @return 被移除的任务
+     */
+    List<Entry> removeExpired(long now) {
+        List<Entry> expired = new ArrayList<>();
+        Iterator<Entry> it = entries.iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (isExpired(entry, now) && entries.removeFirstOccurrence(entry)) {
+                size.decrementAndGet();
+                expired.add(entry);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 移除所有任务
+     *
+     * @return 被移除的任务
+     */
+    List<Entry> removeAll() {
+        List<Entry> all = new ArrayList<>();
+        Entry entry;
+        while ((entry = poll()) != null) {
+            all.add(entry);
+        }
+        return all;
+    }
+
+    boolean isExpired(Entry entry, long now) {
+        return now - entry.bufferedNanos > maxHoldNanos;
+    }
+
+    boolean tryLockPoll() {
+        return pollLock.tryLock();
+    }
+
+    void unlockPoll() {
+        pollLock.unlock();
+    }
+
+    /**
+     * 标记发起补充拉取
+     *
+     * @return true表示当前没有排队中的补充拉取
+     */
+    boolean startRefill() {
+        return refilling.compareAndSet(false, true);
+    }
+
+    void endRefill() {
+        refilling.set(false);
+    }
+
+    void recordExecute(long nanos) {
+        avgExecuteNanos = ewma(avgExecuteNanos, nanos);
+    }
+
+    void recordPoll(long nanos, boolean empty) {
+        avgPollNanos = ewma(avgPollNanos, nanos);
+        if (empty) {
+            lastEmptyPollNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 最近一个轮询周期内拉取结果为空时不主动补充拉取, 交由调度器按轮询间隔拉取
+     */
+    boolean recentlyEmpty(long now) {
+        return now - lastEmptyPollNanos < TimeUnit.MILLISECONDS.toNanos(worker.getPollingInterval());
+    }
+
+    private static double ewma(double average, long sample) {
+        return average < 0 ? sample : average + ALPHA * (sample - average);
+    }
+
+    /**
+     * 缓冲区中的任务
+     */
+    static final class Entry {
+        final ExecutingTask task;
+        final TaskSpan      pollSpan;
+        final TaskSpan      queueSpan;
+        final long          bufferedNanos;
+
+        Entry(ExecutingTask task, TaskSpan pollSpan, TaskSpan queueSpan, long bufferedNanos) {
+            this.task = task;
+            this.pollSpan = pollSpan;
+            this.queueSpan = queueSpan;
+            this.bufferedNanos = bufferedNanos;
+        }
+    }
+}
@@ -15,15 +15,20 @@
 package cn.feiliu.taskflow.automator;
 
 import cn.feiliu.common.api.utils.CommonUtils;
+import cn.feiliu.taskflow.automator.PollEventLogger.Event;
 import cn.feiliu.taskflow.automator.scheduling.PollStatus;
+import cn.feiliu.taskflow.automator.tracing.TaskSpan;
+import cn.feiliu.taskflow.automator.tracing.TaskTracer;
 import cn.feiliu.taskflow.client.ApiClient;
 import cn.feiliu.taskflow.client.TaskClient;
 import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
 import cn.feiliu.taskflow.common.dto.tasks.TaskExecResult;
+import cn.feiliu.taskflow.common.exceptions.ApiException;
 import cn.feiliu.taskflow.common.enums.TaskStatus;
 import cn.feiliu.taskflow.common.enums.TaskUpdateStatus;
 import cn.feiliu.taskflow.executor.task.Worker;
 import cn.feiliu.taskflow.executor.task.WorkerWrapper;
+import cn.feiliu.taskflow.http.MultiPollRequest;
 import com.google.common.base.Stopwatch;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
@@ -31,10 +36,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
 
 /**
  * 管理工作节点用于执行任务和服务器通信(轮询和任务更新)的线程池
@@ -45,13 +48,38 @@ public class TaskPollExecutor {
     // API客户端
     protected final ApiClient apiClient;
     // 更新重试次数
-    private final int updateRetryCount;
+    private volatile int updateRetryCount;
+    // 更新重试前的休眠时间(毫秒)
+    private volatile int sleepWhenRetry;
+    // 拉取任务的长轮询等待时间(毫秒)
+    private volatile int pollTimeoutMillis = 100;
     // 执行服务线程池
     protected final ThreadPoolExecutor executorService;
     // 轮询信号量映射表
     private final Map<String, PollingSemaphore> pollingSemaphoreMap;
     // 任务类型到域的映射
     private final Map<String /*taskType*/, WorkerWrapper> workerMapping;
+    // 轮询热点路径事件日志
+    private final PollEventLogger eventLogger;
+    // 任务生命周期追踪
+    private final TaskTracer taskTracer;
+    // 执行中任务的续租服务
+    private final LeaseExtensionService leaseExtensionService;
+    // 按任务类型统计的运行时指标
+    private final WorkerRuntimeStats runtimeStats = new WorkerRuntimeStats();
+    // 每个任务类型的最大预取深度, 0表示不预取
+    private final int prefetchDepth;
+    // 预取任务在本地缓冲区的最长停留时间(秒)
+    private final int prefetchMaxHoldSeconds;
+    // 任务类型到预取缓冲区的映射
+    private final Map<String /*taskType*/, PrefetchBuffer> prefetchBuffers = new ConcurrentHashMap<>();
+    // 补充拉取与过期清理线程, 未开启预取时为null
+    private final ScheduledExecutorService prefetchExecutor;
+    private volatile boolean stopped = false;
+    // 通过WebSocket推送而来的任务, 结果优先通过WebSocket上报
+    private final Set<String> pushedTaskIds = ConcurrentHashMap.newKeySet();
+    // WebSocket结果上报通道, 返回false表示发送失败
+    private volatile Predicate<TaskExecResult> pushResultSender = result -> false;
     // 所有工作节点的标识
     protected static final String ALL_WORKERS = "all";
     @SuppressWarnings("FieldCanBeLocal")
@@ -64,20 +92,37 @@ public class TaskPollExecutor {
     /**
      * 构造函数
      *
-     * @param apiClient        API客户端
-     * @param threadCount      线程数
-     * @param updateRetryCount 更新重试次数
-     * @param workerNamePrefix 工作线程名称前缀
+     * @param apiClient              API客户端
+     * @param threadCount            线程数
+     * @param updateRetryCount       更新重试次数
+     * @param workerNamePrefix       工作线程名称前缀
+     * @param eventLogger            轮询事件日志
+     * @param taskTracer             任务生命周期追踪
+     * @param leaseExtensionService  执行中任务的续租服务
+     * @param prefetchDepth          每个任务类型的最大预取深度, 0表示不预取
+     * @param prefetchMaxHoldSeconds 预取任务在本地缓冲区的最长停留时间(秒), 超时后交还服务端
+     * @param executionBackend       任务执行线程类型
      */
     TaskPollExecutor(
             ApiClient apiClient,
             int threadCount,
             int updateRetryCount,
             Map<String /*taskType*/, WorkerWrapper> workerMapping,
-            String workerNamePrefix) {
+            String workerNamePrefix,
+            PollEventLogger eventLogger,
+            TaskTracer taskTracer,
+            LeaseExtensionService leaseExtensionService,
+            int prefetchDepth,
+            int prefetchMaxHoldSeconds,
+            ExecutionBackend executionBackend) {
         this.apiClient = apiClient;
         this.updateRetryCount = updateRetryCount;
         this.workerMapping = workerMapping;
+        this.eventLogger = eventLogger;
+        this.taskTracer = taskTracer;
+        this.leaseExtensionService = leaseExtensionService;
+        this.prefetchDepth = prefetchDepth;
+        this.prefetchMaxHoldSeconds = prefetchMaxHoldSeconds;
 
         this.pollingSemaphoreMap = new HashMap<>();
         int totalThreadCount = 0;
@@ -96,8 +141,16 @@ public class TaskPollExecutor {
         LOGGER.info("Initialized the TaskPollExecutor with {} threads", totalThreadCount);
         this.executorService = new ThreadPoolExecutor(0, totalThreadCount, 60L, TimeUnit.SECONDS,
                 new SynchronousQueue<>(),
-                new BasicThreadFactory.Builder().namingPattern(workerNamePrefix).uncaughtExceptionHandler(uncaughtExceptionHandler).build(),
+                executionBackend.newThreadFactory(workerNamePrefix, uncaughtExceptionHandler),
                 new ThreadPoolExecutor.CallerRunsPolicy());
+        if (prefetchDepth > 0) {
+            LOGGER.info("Task prefetch enabled, max depth: {}, max hold: {}s", prefetchDepth, prefetchMaxHoldSeconds);
+            this.prefetchExecutor = Executors.newScheduledThreadPool(2,
+                    new BasicThreadFactory.Builder().namingPattern("taskflow-prefetch-%d").daemon(true).build());
+            this.prefetchExecutor.scheduleWithFixedDelay(this::releaseExpiredTasks, 1, 1, TimeUnit.SECONDS);
+        } else {
+            this.prefetchExecutor = null;
+        }
     }
 
     /**
@@ -106,6 +159,16 @@ public class TaskPollExecutor {
      * @param timeout 超时时间(秒)
      */
     public void shutdown(int timeout) {
+        stopped = true;
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+            // 尚未执行的预取任务交还服务端, 由其他工作节点处理
+            for (PrefetchBuffer buffer : prefetchBuffers.values()) {
+                for (PrefetchBuffer.Entry entry : buffer.removeAll()) {
+                    releaseTask(buffer.getWorker(), entry, "shutdown");
+                }
+            }
+        }
         try {
             executorService.shutdown();
             if (executorService.awaitTermination(timeout, TimeUnit.SECONDS)) {
@@ -118,35 +181,55 @@ public class TaskPollExecutor {
             LOGGER.warn("shutdown interrupted, invoking shutdownNow");
             executorService.shutdownNow();
             Thread.currentThread().interrupt();
+        } finally {
+            leaseExtensionService.shutdown();
         }
     }
 
     /**
      * 执行具体任务
      *
-     * @param worker 工作节点
-     * @param task   待执行的任务
+     * @param worker   工作节点
+     * @param task     待执行的任务
+     * @param pollSpan 拉取该任务时的Span
      */
-    private void doExecuteTask(Worker worker, ExecutingTask task) {
+    private void doExecuteTask(Worker worker, ExecutingTask task, TaskSpan pollSpan) {
         Stopwatch stopwatch = Stopwatch.createStarted();
         TaskExecResult result = null;
-        try {
+        TaskSpan span = taskTracer.startTaskSpan(TaskTracer.SPAN_EXECUTE, pollSpan, task);
+        try (TaskSpan.Scope ignored = span.makeCurrent()) {
             LOGGER.debug("Executing taskId: {} of type: {}", task.getTaskId(), task.getTaskDefName());
-            result = worker.execute(task);
+            span.setAttribute(TaskTracer.ATTR_WORKER_ID, worker.getIdentity());
+            leaseExtensionService.register(worker, task);
+            try {
+                result = worker.execute(task);
+            } finally {
+                // 提交最终结果之前停止续租
+                leaseExtensionService.unregister(task);
+            }
             result.setWorkflowInstanceId(task.getWorkflowInstanceId());
             result.setTaskId(task.getTaskId());
             result.setWorkerId(worker.getIdentity());
+            eventLogger.record(Event.TASK_COMPLETED, worker.getTaskDefName());
         } catch (Throwable e) {
-            LOGGER.error("Unable to execute taskId: {} of type: {} ,error:{}", task.getTaskId(), task.getTaskDefName(), e);
+            span.recordException(e);
+            eventLogger.record(Event.TASK_FAILED, worker.getTaskDefName(),
+                    "Unable to execute taskId: {} of type: {} in worker: {}", task.getTaskId(), task.getTaskDefName(),
+                    worker.getIdentity(), e);
             if (result == null) {
                 task.setStatus(TaskStatus.FAILED);
                 result = new TaskExecResult(task);
             }
-            handleException(e, result, worker, task);
+            handleException(e, result, worker, task, pollSpan);
         } finally {
             stopwatch.stop();
+            runtimeStats.recordExecution(worker.getTaskDefName(), stopwatch.elapsed(TimeUnit.NANOSECONDS));
+            if (span.isRecording() && result != null && result.getStatus() != null) {
+                span.setAttribute(TaskTracer.ATTR_TASK_STATUS, result.getStatus().name());
+            }
+            span.end();
         }
-        updateTaskResult(updateRetryCount, task, result, worker);
+        updateTaskResult(updateRetryCount, task, result, worker, pollSpan);
     }
 
     /**
@@ -157,11 +240,8 @@ public class TaskPollExecutor {
      */
     private void finalizeTask(ExecutingTask task, Throwable throwable) {
         if (throwable != null) {
-            LOGGER.error(
-                    "Error processing task: {} of type: {}",
-                    task.getTaskId(),
-                    task.getTaskType(),
-                    throwable);
+            eventLogger.record(Event.TASK_FAILED, task.getTaskDefName(), "Error processing task: {} of type: {}",
+                    task.getTaskId(), task.getTaskType(), throwable);
         } else {
             LOGGER.debug(
                     "Task:{} of type:{} finished processing with status:{}",
@@ -178,20 +258,80 @@ public class TaskPollExecutor {
      * @param task   执行的任务
      * @param result 执行结果
      * @param worker 工作节点
+     * @param parent 父Span
      */
-    private void updateTaskResult(int count, ExecutingTask task, TaskExecResult result, Worker worker) {
+    private void updateTaskResult(int count, ExecutingTask task, TaskExecResult result, Worker worker, TaskSpan parent) {
         Runnable runnable = () -> {
             TaskClient taskClient = apiClient.getApis().getTaskClient();
             taskClient.updateTask(result);
         };
+        TaskSpan span = taskTracer.startTaskSpan(TaskTracer.SPAN_UPDATE_TASK, parent, task);
+        runtimeStats.updateStarted(task.getTaskDefName());
         try {
-            CommonUtils.retryOperation(runnable, count, "updateTask");
+            if (pushedTaskIds.remove(task.getTaskId()) && pushResultSender.test(result)) {
+                return;
+            }
+            retryUpdate(runnable, count);
         } catch (Exception e) {
+            span.recordException(e);
             worker.onErrorUpdate(task);
-            LOGGER.error("Failed to update result: {} for task: {} in worker: {}", result.toString(), task.getTaskDefName(), worker.getIdentity(), e);
+            eventLogger.record(Event.UPDATE_FAILED, task.getTaskDefName(), "Failed to update result: {} for task: {} in worker: {}",
+                    result, task.getTaskDefName(), worker.getIdentity(), e);
+        } finally {
+            runtimeStats.updateFinished(task.getTaskDefName());
+            span.end();
         }
     }
 
+    /**
+     * 执行结果上报, 失败后等待{@code sleepWhenRetry}毫秒再重试
+     *
+     * @param runnable 上报操作
+     * @param count    重试次数
+     */
+    private void retryUpdate(Runnable runnable, int count) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                runnable.run();
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= count) {
+                    throw e;
+                }
+                LOGGER.debug("updateTask failed, retrying {}/{}: {}", attempt + 1, count, e.getMessage());
+                int sleepMillis = sleepWhenRetry;
+                if (sleepMillis > 0) {
+                    try {
+                        Thread.sleep(sleepMillis);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 设置结果上报的重试策略, 对之后的上报生效
+     *
+     * @param updateRetryCount 重试次数
+     * @param sleepWhenRetry   重试前的休眠时间(毫秒)
+     */
+    void setUpdateRetry(int updateRetryCount, int sleepWhenRetry) {
+        this.updateRetryCount = updateRetryCount;
+        this.sleepWhenRetry = sleepWhenRetry;
+    }
+
+    /**
+     * 设置拉取任务的长轮询等待时间, 任务类型未单独配置时使用, 对之后的拉取生效
+     *
+     * @param pollTimeoutMillis 等待时间(毫秒)
+     */
+    void setPollTimeoutMillis(int pollTimeoutMillis) {
+        this.pollTimeoutMillis = pollTimeoutMillis;
+    }
+
     /**
      * 处理任务执行过程中的异常
      *
@@ -199,13 +339,15 @@ public class TaskPollExecutor {
      * @param result 执行结果
      * @param worker 工作节点
      * @param task   执行的任务
+     * @param parent 父Span
      */
-    private void handleException(Throwable t, TaskExecResult result, Worker worker, ExecutingTask task) {
-        LOGGER.error(String.format("Error while executing task %s", task.toString()), t);
+    private void handleException(Throwable t, TaskExecResult result, Worker worker, ExecutingTask task, TaskSpan parent) {
+        eventLogger.record(Event.TASK_FAILED, task.getTaskDefName(), "Error while executing task: {} in worker: {}",
+                task, worker.getIdentity(), t);
         result.setStatus(TaskUpdateStatus.FAILED);
         result.setReasonForIncompletion("Error while executing the task: " + t);
         result.log(CommonUtils.dumpFullStackTrace(t));
-        updateTaskResult(updateRetryCount, task, result, worker);
+        updateTaskResult(updateRetryCount, task, result, worker, parent);
     }
 
     /**
@@ -230,11 +372,50 @@ public class TaskPollExecutor {
      * @param worker 工作节点
      * @return 可用线程数
      */
-    private int getAvailableThreads(Worker worker) {
+    int getAvailableThreads(Worker worker) {
         PollingSemaphore pollingSemaphore = getPollingSemaphore(worker);
         return pollingSemaphore.availableThreads();
     }
 
+    /**
+     * 获取执行许可总数
+     *
+     * @param worker 工作节点
+     * @return 许可总数
+     */
+    int getTotalThreads(Worker worker) {
+        return getPollingSemaphore(worker).totalThreads();
+    }
+
+    /**
+     * 调整工作节点的执行许可总数, 执行线程池的最大线程数随所有许可总数同步调整
+     * <p>
+     * 缩容不中断执行中的任务, 超出新许可数的任务完成后不再拉取新任务; 过渡期间线程池饱和时由提交线程执行(CallerRuns)
+     *
+     * @param worker      工作节点, 共享许可的工作节点调整的是共享许可总数
+     * @param threadCount 新的许可总数
+     * @return 调整前的许可总数
+     */
+    synchronized int resizeConcurrency(Worker worker, int threadCount) {
+        int previous = getPollingSemaphore(worker).resize(threadCount);
+        int total = 0;
+        for (PollingSemaphore semaphore : pollingSemaphoreMap.values()) {
+            total += semaphore.totalThreads();
+        }
+        if (total != executorService.getMaximumPoolSize()) {
+            LOGGER.info("Resizing the TaskPollExecutor from {} to {} threads", executorService.getMaximumPoolSize(), total);
+            executorService.setMaximumPoolSize(total);
+        }
+        return previous;
+    }
+
+    /**
+     * @return 按任务类型统计的运行时指标
+     */
+    WorkerRuntimeStats getRuntimeStats() {
+        return runtimeStats;
+    }
+
     /**
      * 判断工作节点是否处于繁忙状态
      *
@@ -245,6 +426,27 @@ public class TaskPollExecutor {
         return getAvailableThreads(worker) <= 0;
     }
 
+    /**
+     * 注册一次性回调, 工作节点有空闲许可时执行, 用于替代繁忙时的定时重试
+     *
+     * @param worker   工作节点
+     * @param callback 回调, 当前已有空闲许可时在调用线程中立即执行, 否则在释放许可的线程中执行, 不应阻塞
+     */
+    public void onCapacityAvailable(Worker worker, Runnable callback) {
+        getPollingSemaphore(worker).onAvailable(callback);
+    }
+
+    /**
+     * 注册一次性回调, 工作节点下一次归还许可时执行
+     *
+     * @param worker   工作节点
+     * @param callback 回调, 在归还许可的线程中执行, 不应阻塞
+     * @return false表示当前没有执行中的任务, 回调未注册
+     */
+    boolean onCapacityReleased(Worker worker, Runnable callback) {
+        return getPollingSemaphore(worker).onRelease(callback);
+    }
+
     /**
      * 批量拉取任务并执行
      *
@@ -252,6 +454,9 @@ public class TaskPollExecutor {
      * @return 多任务执行结果的Future
      */
     PollStatus fastPollAndExecute(Worker worker) {
+        if (prefetchExecutor != null) {
+            return prefetchPollAndExecute(worker, getPrefetchBuffer(worker));
+        }
         String taskType = worker.getTaskDefName();
         PollingSemaphore pollingSemaphore = getPollingSemaphore(worker);
         String domain = workerMapping.get(taskType).domain();
@@ -259,27 +464,431 @@ public class TaskPollExecutor {
         if (availablePermitsOpt.isPresent()) {
             final int maxAmount = availablePermitsOpt.get();
             List<ExecutingTask> tasks;
+            TaskSpan pollSpan = taskTracer.startPoll(taskType, maxAmount);
             try {
                 tasks = getBatchTasks(worker, domain, maxAmount);
+                pollSpan.setAttribute("taskflow.poll.received", tasks.size());
                 if (tasks.isEmpty()) {
+                    eventLogger.record(Event.POLL_EMPTY, taskType);
                     pollingSemaphore.complete(maxAmount);
                     return PollStatus.NO_TASK;
                 }
             } catch (Exception e) {
-                LOGGER.error("Error when polling for tasks", e);
+                pollSpan.recordException(e);
+                eventLogger.record(Event.POLL_ERROR, taskType, "Error when polling for tasks of type: '{}'", taskType, e);
                 pollingSemaphore.complete(maxAmount);
                 return PollStatus.FAIL;
+            } finally {
+                pollSpan.end();
             }
             if (maxAmount > tasks.size()) {
                 pollingSemaphore.complete(maxAmount - tasks.size());
             }
-            submitTasks(worker, tasks, domain, pollingSemaphore);
+            submitTasks(worker, tasks, pollingSemaphore, pollSpan);
             return tasks.isEmpty() ? PollStatus.NO_TASK : PollStatus.HAS_TASK;
         } else {
             return PollStatus.NO_TASK;
         }
     }
 
+    /**
+     * 一次请求拉取多个任务类型的任务, 并分发到执行线程池异步执行
+     * <p>
+     * 每个任务类型的拉取数量取其空闲许可数, 共享信号量的任务类型平分空闲许可; 不使用预取缓冲区.
+     * 服务端返回超出拉取数量的任务立即交还服务端
+     *
+     * @param workers 待拉取的工作节点
+     * @return 各任务类型的拉取状态, 没有空闲许可的任务类型不在其中
+     * @throws ApiException 服务端不支持合并拉取(404), 已占用的许可均已归还
+     */
+    public Map<String, PollStatus> multiPollAndExecute(List<Worker> workers) {
+        Map<String, PollStatus> statuses = new HashMap<>();
+        if (stopped || workers.isEmpty()) {
+            return statuses;
+        }
+        Map<PollingSemaphore, List<Worker>> groups = new LinkedHashMap<>();
+        for (Worker worker : workers) {
+            groups.computeIfAbsent(getPollingSemaphore(worker), k -> new ArrayList<>()).add(worker);
+        }
+        MultiPollRequest request = new MultiPollRequest();
+        request.setWorkerId(workers.get(0).getIdentity());
+        request.setTimeout(pollTimeoutMillis);
+        Map<String, Integer> permits = new LinkedHashMap<>();
+        Map<String, Worker> polled = new HashMap<>();
+        for (Map.Entry<PollingSemaphore, List<Worker>> group : groups.entrySet()) {
+            int available = group.getKey().tryAcquireAvailablePermits().orElse(0);
+            List<Worker> members = group.getValue();
+            for (int i = 0; i < members.size() && available > 0; i++) {
+                Worker worker = members.get(i);
+                String taskType = worker.getTaskDefName();
+                int share = (available + members.size() - i - 1) / (members.size() - i);
+                WorkerWrapper wrapper = workerMapping.get(taskType);
+                if (wrapper != null) {
+                    share = wrapper.batchSize(share);
+                }
+                request.addPoll(taskType, wrapper == null ? null : wrapper.domain(), share);
+                permits.put(taskType, share);
+                polled.put(taskType, worker);
+                available -= share;
+                eventLogger.record(Event.POLL, taskType, "Polling tasks of type: '{}', count: {}", taskType, share);
+                runtimeStats.recordPoll(taskType);
+            }
+            if (available > 0) {
+                // 受单次拉取数限制未分配出去的许可
+                group.getKey().complete(available);
+            }
+        }
+        if (permits.isEmpty()) {
+            return statuses;
+        }
+        int total = permits.values().stream().mapToInt(Integer::intValue).sum();
+        TaskSpan pollSpan = taskTracer.startPoll(String.join(",", permits.keySet()), total);
+        Map<String, List<ExecutingTask>> result;
+        try {
+            result = apiClient.getApis().getTaskClient().multiPollTasks(request);
+        } catch (Exception e) {
+            pollSpan.recordException(e);
+            pollSpan.end();
+            permits.forEach((taskType, count) -> getPollingSemaphore(polled.get(taskType)).complete(count));
+            if (e instanceof ApiException && ((ApiException) e).getStatusCode() == 404) {
+                throw (ApiException) e;
+            }
+            permits.forEach((taskType, count) -> {
+                eventLogger.record(Event.POLL_ERROR, taskType, "Error when polling for tasks of type: '{}'", taskType, e);
+                statuses.put(taskType, PollStatus.FAIL);
+            });
+            return statuses;
+        }
+        permits.forEach((taskType, count) -> {
+            Worker worker = polled.get(taskType);
+            PollingSemaphore pollingSemaphore = getPollingSemaphore(worker);
+            List<ExecutingTask> tasks = result.getOrDefault(taskType, Collections.emptyList());
+            int used = 0;
+            for (ExecutingTask task : tasks) {
+                if (Objects.isNull(task) || StringUtils.isBlank(task.getTaskId())) {
+                    continue;
+                }
+                if (used < count) {
+                    used++;
+                    eventLogger.record(Event.TASK_STARTED, taskType, "Task execution started - taskId: {}, type: {}",
+                            task.getTaskId(), taskType);
+                    asyncExecutingTask(worker, task, pollingSemaphore, pollSpan);
+                } else {
+                    // 服务端多返回的任务已被租用, 没有许可执行, 交还服务端重新入队
+                    releaseTask(worker, task, pollSpan, "over-delivered");
+                }
+            }
+            if (count > used) {
+                pollingSemaphore.complete(count - used);
+            }
+            if (used == 0) {
+                eventLogger.record(Event.POLL_EMPTY, taskType);
+            }
+            statuses.put(taskType, used == 0 ? PollStatus.NO_TASK : PollStatus.HAS_TASK);
+        });
+        pollSpan.setAttribute("taskflow.poll.received", result.values().stream().mapToInt(List::size).sum());
+        pollSpan.end();
+        return statuses;
+    }
+
+    /**
+     * 获取工作节点对应的预取缓冲区
+     *
+     * @param worker 工作节点
+     * @return 预取缓冲区
+     */
+    private PrefetchBuffer getPrefetchBuffer(Worker worker) {
+        return prefetchBuffers.computeIfAbsent(worker.getTaskDefName(), taskType -> {
+            // 按许可总数计算预取深度, 运行期调整并发数后随之变化
+            PollingSemaphore pollingSemaphore = getPollingSemaphore(worker);
+            return new PrefetchBuffer(worker, pollingSemaphore::totalThreads, prefetchDepth, prefetchMaxHoldSeconds);
+        });
+    }
+
+    /**
+     * 预取模式下拉取并执行任务: 空闲线程优先消费缓冲区中的任务, 再按空闲线程数加缓冲区剩余容量拉取,
+     * 超出空闲线程数的任务放入缓冲区, 由执行线程完成当前任务后直接取用
+     *
+     * @param worker 工作节点
+     * @param buffer 预取缓冲区
+     * @return 拉取状态
+     */
+    private PollStatus prefetchPollAndExecute(Worker worker, PrefetchBuffer buffer) {
+        if (stopped || !buffer.tryLockPoll()) {
+            // 已有拉取请求在进行中, 其结果会驱动后续的补充拉取
+            return PollStatus.NO_TASK;
+        }
+        String taskType = worker.getTaskDefName();
+        PollingSemaphore pollingSemaphore = getPollingSemaphore(worker);
+        List<PrefetchBuffer.Entry> ready = new ArrayList<>();
+        int permits = pollingSemaphore.tryAcquireAvailablePermits().orElse(0);
+        PollStatus status;
+        try {
+            PrefetchBuffer.Entry entry;
+            while (ready.size() < permits && (entry = takeBuffered(buffer)) != null) {
+                ready.add(entry);
+            }
+            status = ready.isEmpty() ? PollStatus.NO_TASK : PollStatus.HAS_TASK;
+            int maxAmount = permits - ready.size() + buffer.remainingCapacity();
+            if (maxAmount > 0) {
+                TaskSpan pollSpan = taskTracer.startPoll(taskType, maxAmount);
+                List<ExecutingTask> tasks = Collections.emptyList();
+                long start = System.nanoTime();
+                try {
+                    String domain = workerMapping.containsKey(taskType) ? workerMapping.get(taskType).domain() : null;
+                    tasks = getBatchTasks(worker, domain, maxAmount);
+                    pollSpan.setAttribute("taskflow.poll.received", tasks.size());
+                    buffer.recordPoll(System.nanoTime() - start, tasks.isEmpty());
+                    if (tasks.isEmpty()) {
+                        eventLogger.record(Event.POLL_EMPTY, taskType);
+                    }
+                } catch (Exception e) {
+                    pollSpan.recordException(e);
+                    eventLogger.record(Event.POLL_ERROR, taskType, "Error when polling for tasks of type: '{}'", taskType, e);
+                    if (ready.isEmpty()) {
+                        status = PollStatus.FAIL;
+                    }
+                } finally {
+                    pollSpan.end();
+                }
+                for (ExecutingTask task : tasks) {
+                    if (Objects.isNull(task) || StringUtils.isBlank(task.getTaskId())) {
+                        continue;
+                    }
+                    TaskSpan queueSpan = taskTracer.startTaskSpan(TaskTracer.SPAN_QUEUE_WAIT, pollSpan, task);
+                    if (ready.size() < permits) {
+                        ready.add(new PrefetchBuffer.Entry(task, pollSpan, queueSpan, System.nanoTime()));
+                    } else if (!buffer.offer(task, pollSpan, queueSpan)) {
+                        releaseTask(worker, new PrefetchBuffer.Entry(task, pollSpan, queueSpan, System.nanoTime()),
+                            "overflow");
+                    }
+                    status = PollStatus.HAS_TASK;
+                }
+            }
+        } finally {
+            buffer.unlockPoll();
+            if (permits > ready.size()) {
+                pollingSemaphore.complete(permits - ready.size());
+            }
+        }
+        // 释放拉取锁之后再提交, 避免线程池饱和时由当前线程执行任务而长时间占用拉取锁
+        for (PrefetchBuffer.Entry entry : ready) {
+            submitPrefetched(worker, buffer, pollingSemaphore, entry);
+        }
+        return status;
+    }
+
+    /**
+     * 在执行线程中执行任务, 完成后继续执行缓冲区中的任务直到缓冲区为空, 期间一直持有同一个许可
+     *
+     * @param worker           工作节点
+     * @param buffer           预取缓冲区
+     * @param pollingSemaphore 轮询信号量
+     * @param first            第一个要执行的任务
+     */
+    private void submitPrefetched(Worker worker, PrefetchBuffer buffer, PollingSemaphore pollingSemaphore,
+                                  PrefetchBuffer.Entry first) {
+        try {
+            executorService.execute(() -> {
+                PrefetchBuffer.Entry entry = first;
+                while (entry != null) {
+                    try {
+                        while (entry != null) {
+                            executePrefetched(worker, buffer, entry);
+                            entry = stopped ? null : takeBuffered(buffer);
+                            if (entry != null) {
+                                maybeRefill(worker, buffer);
+                            }
+                        }
+                    } finally {
+                        pollingSemaphore.complete();
+                    }
+                    // 释放许可前缓冲区可能又被并发的拉取填充
+                    if (!stopped && buffer.size() > 0 && pollingSemaphore.canPoll()) {
+                        entry = takeBuffered(buffer);
+                        if (entry == null) {
+                            pollingSemaphore.complete();
+                        }
+                    }
+                }
+                maybeRefill(worker, buffer);
+            });
+        } catch (RejectedExecutionException e) {
+            // 线程池已关闭
+            pollingSemaphore.complete();
+            releaseTask(worker, first, "rejected");
+        }
+    }
+
+    /**
+     * 执行一个预取的任务
+     *
+     * @param worker 工作节点
+     * @param buffer 预取缓冲区
+     * @param entry  缓冲区中的任务
+     */
+    private void executePrefetched(Worker worker, PrefetchBuffer buffer, PrefetchBuffer.Entry entry) {
+        entry.queueSpan.end();
+        ExecutingTask task = entry.task;
+        eventLogger.record(Event.TASK_STARTED, worker.getTaskDefName(), "Task execution started - taskId: {}, type: {}",
+                task.getTaskId(), worker.getTaskDefName());
+        long start = System.nanoTime();
+        try {
+            doExecuteTask(worker, task, entry.pollSpan);
+            finalizeTask(task, null);
+        } catch (Throwable t) {
+            task.setStatus(TaskStatus.FAILED);
+            handleException(t, new TaskExecResult(task), worker, task, entry.pollSpan);
+            finalizeTask(task, t);
+        } finally {
+            buffer.recordExecute(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 从缓冲区取出下一个未过期的任务, 过期的任务交还服务端
+     *
+     * @param buffer 预取缓冲区
+     * @return 任务, 缓冲区为空时返回null
+     */
+    private PrefetchBuffer.Entry takeBuffered(PrefetchBuffer buffer) {
+        long now = System.nanoTime();
+        PrefetchBuffer.Entry entry;
+        while ((entry = buffer.poll()) != null) {
+            if (!buffer.isExpired(entry, now)) {
+                return entry;
+            }
+            releaseTask(buffer.getWorker(), entry, "expired");
+        }
+        return null;
+    }
+
+    /**
+     * 缓冲区低于目标深度的一半时异步补充拉取, 最近一次拉取为空时交由调度器按轮询间隔拉取
+     *
+     * @param worker 工作节点
+     * @param buffer 预取缓冲区
+     */
+    private void maybeRefill(Worker worker, PrefetchBuffer buffer) {
+        if (stopped || buffer.size() * 2 > buffer.targetDepth() || buffer.recentlyEmpty(System.nanoTime())
+            || !buffer.startRefill()) {
+            return;
+        }
+        try {
+            prefetchExecutor.execute(() -> {
+                try {
+                    PollingSemaphore pollingSemaphore = getPollingSemaphore(worker);
+                    // 拉取期间有线程空闲下来时继续把缓冲区中的任务分给空闲线程
+                    while (prefetchPollAndExecute(worker, buffer) == PollStatus.HAS_TASK && buffer.size() > 0
+                           && pollingSemaphore.availableThreads() > 0) {
+                        LOGGER.debug("Dispatching buffered tasks of type: {}", worker.getTaskDefName());
+                    }
+                } finally {
+                    buffer.endRefill();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            buffer.endRefill();
+        }
+    }
+
+    /**
+     * 定期清理在缓冲区中停留过久的任务
+     */
+    private void releaseExpiredTasks() {
+        long now = System.nanoTime();
+        for (PrefetchBuffer buffer : prefetchBuffers.values()) {
+            try {
+                for (PrefetchBuffer.Entry entry : buffer.removeExpired(now)) {
+                    releaseTask(buffer.getWorker(), entry, "expired");
+                }
+            } catch (Throwable t) {
+                LOGGER.error("Failed to release expired tasks of type: {}", buffer.getWorker().getTaskDefName(), t);
+            }
+        }
+    }
+
+    /**
+     * 将未执行的预取任务交还服务端
+     *
+     * @param worker 工作节点
+     * @param entry  缓冲区中的任务
+     * @param reason 交还原因
+     */
+    private void releaseTask(Worker worker, PrefetchBuffer.Entry entry, String reason) {
+        entry.queueSpan.end();
+        releaseTask(worker, entry.task, entry.pollSpan, reason);
+    }
+
+    /**
+     * 将已拉取但不会执行的任务交还服务端: 以IN_PROGRESS状态且callbackAfterSeconds为0更新任务, 服务端立即将其重新入队
+     *
+     * @param worker   工作节点
+     * @param task     任务
+     * @param pollSpan 拉取该任务时的Span
+     * @param reason   交还原因
+     */
+    private void releaseTask(Worker worker, ExecutingTask task, TaskSpan pollSpan, String reason) {
+        LOGGER.info("Releasing task: {} of type: {}, reason: {}", task.getTaskId(), task.getTaskDefName(), reason);
+        TaskExecResult result = new TaskExecResult(task);
+        result.setWorkflowInstanceId(task.getWorkflowInstanceId());
+        result.setTaskId(task.getTaskId());
+        result.setWorkerId(worker.getIdentity());
+        result.setStatus(TaskUpdateStatus.IN_PROGRESS);
+        result.setCallbackAfterSeconds(0);
+        updateTaskResult(updateRetryCount, task, result, worker, pollSpan);
+    }
+
+    /**
+     * 设置推送任务的结果上报通道
+     *
+     * @param pushResultSender 通过WebSocket发送结果, 返回false时改用HTTP上报
+     */
+    void setPushResultSender(Predicate<TaskExecResult> pushResultSender) {
+        this.pushResultSender = Objects.requireNonNull(pushResultSender);
+    }
+
+    /**
+     * 设置许可总数调整时的回调
+     *
+     * @param capacityListener 回调, 在调整许可的线程中执行
+     */
+    void setCapacityListener(Runnable capacityListener) {
+        pollingSemaphoreMap.values().forEach(semaphore -> semaphore.setChangeListener(capacityListener));
+    }
+
+    /**
+     * 执行服务端通过WebSocket推送的任务, 每个任务占用一个许可, 没有空闲许可的任务不接收
+     *
+     * @param worker 工作节点
+     * @param tasks  推送的任务
+     * @return 未接收的任务
+     */
+    List<ExecutingTask> executePushed(Worker worker, List<ExecutingTask> tasks) {
+        String taskType = worker.getTaskDefName();
+        PollingSemaphore pollingSemaphore = getPollingSemaphore(worker);
+        List<ExecutingTask> rejected = new ArrayList<>();
+        TaskSpan pollSpan = null;
+        for (ExecutingTask task : tasks) {
+            if (stopped || !pollingSemaphore.canPoll()) {
+                rejected.add(task);
+                continue;
+            }
+            if (pollSpan == null) {
+                pollSpan = taskTracer.startPoll(taskType, tasks.size());
+                pollSpan.setAttribute("taskflow.poll.pushed", tasks.size());
+            }
+            pushedTaskIds.add(task.getTaskId());
+            eventLogger.record(Event.TASK_STARTED, taskType, "Pushed task execution started - taskId: {}, type: {}",
+                    task.getTaskId(), taskType);
+            asyncExecutingTask(worker, task, pollingSemaphore, pollSpan);
+        }
+        if (pollSpan != null) {
+            pollSpan.end();
+        }
+        return rejected;
+    }
+
     /**
      * 批量获取任务
      *
@@ -290,9 +899,16 @@ public class TaskPollExecutor {
      * @throws Exception 获取失败时抛出异常
      */
     private List<ExecutingTask> getBatchTasks(Worker worker, String domain, int maxAmount) throws Exception {
-        LOGGER.info("Polling tasks of type: '{}'", worker.getTaskDefName());
+        WorkerWrapper wrapper = workerMapping.get(worker.getTaskDefName());
+        int timeout = pollTimeoutMillis;
+        if (wrapper != null) {
+            maxAmount = wrapper.batchSize(maxAmount);
+            timeout = wrapper.pollTimeoutMillis(timeout);
+        }
+        eventLogger.record(Event.POLL, worker.getTaskDefName(), "Polling tasks of type: '{}', count: {}",
+                worker.getTaskDefName(), maxAmount);
+        runtimeStats.recordPoll(worker.getTaskDefName());
         String workerId = worker.getIdentity();
-        int timeout = 100;
         String taskName = worker.getTaskDefName();
         TaskClient taskClient = apiClient.getApis().getTaskClient();
         return taskClient.batchPollTasksInDomain(taskName, domain, workerId, maxAmount, timeout);
@@ -303,37 +919,28 @@ public class TaskPollExecutor {
      *
      * @param worker           工作节点
      * @param tasks            任务列表
-     * @param domain           域
      * @param pollingSemaphore 轮询信号量
-     * @return 任务执行Future列表
+     * @param pollSpan         拉取该批任务时的Span
      */
-    private void submitTasks(Worker worker, List<ExecutingTask> tasks, String domain, PollingSemaphore pollingSemaphore) {
+    private void submitTasks(Worker worker, List<ExecutingTask> tasks, PollingSemaphore pollingSemaphore, TaskSpan pollSpan) {
         String taskType = worker.getTaskDefName();
         if (tasks.size() == 1) {
             ExecutingTask task = tasks.get(0);
             if (Objects.nonNull(task) && StringUtils.isNotBlank(task.getTaskId())) {
-                if (LOGGER.isInfoEnabled()) {
-                    LOGGER.info("Task execution started - taskId: {}, type: {}, worker: {}, timestamp: {}",
-                            task.getTaskId(), taskType, worker.getIdentity(), System.currentTimeMillis());
-                }
-                syncExecutingTask(worker, task, pollingSemaphore);
+                eventLogger.record(Event.TASK_STARTED, taskType, "Task execution started - taskId: {}, type: {}",
+                        task.getTaskId(), taskType);
+                syncExecutingTask(worker, task, pollingSemaphore, pollSpan);
             } else {
                 pollingSemaphore.complete();
             }
         } else {
             List<CompletableFuture<ExecutingTask>> futures = new ArrayList<>();
             for (ExecutingTask task : tasks) {
-                try {
-                    if (Objects.nonNull(task) && StringUtils.isNotBlank(task.getTaskId())) {
-                        if (LOGGER.isInfoEnabled()) {
-                            LOGGER.info("Task execution started - taskId: {}, type: {}, worker: {}, timestamp: {}",
-                                    task.getTaskId(), taskType, worker.getIdentity(), System.currentTimeMillis());
-                        }
-                        futures.add(asyncExecutingTask(worker, task, pollingSemaphore));
-                    } else {
-                        pollingSemaphore.complete();
-                    }
-                } finally {
+                if (Objects.nonNull(task) && StringUtils.isNotBlank(task.getTaskId())) {
+                    eventLogger.record(Event.TASK_STARTED, taskType, "Task execution started - taskId: {}, type: {}",
+                            task.getTaskId(), taskType);
+                    futures.add(asyncExecutingTask(worker, task, pollingSemaphore, pollSpan));
+                } else {
                     pollingSemaphore.complete();
                 }
             }
@@ -347,16 +954,20 @@ public class TaskPollExecutor {
      * @param worker           工作节点
      * @param task             待执行的任务
      * @param pollingSemaphore 轮询信号量
+     * @param pollSpan         拉取该任务时的Span
      * @return 任务执行Future
      */
-    private CompletableFuture<ExecutingTask> asyncExecutingTask(Worker worker, ExecutingTask task, PollingSemaphore pollingSemaphore) {
+    private CompletableFuture<ExecutingTask> asyncExecutingTask(Worker worker, ExecutingTask task, PollingSemaphore pollingSemaphore,
+                                                                TaskSpan pollSpan) {
+        TaskSpan queueSpan = taskTracer.startTaskSpan(TaskTracer.SPAN_QUEUE_WAIT, pollSpan, task);
         CompletableFuture<ExecutingTask> future = CompletableFuture.supplyAsync(() -> {
+            queueSpan.end();
             try {
-                doExecuteTask(worker, task);
+                doExecuteTask(worker, task, pollSpan);
             } catch (Throwable t) {
                 task.setStatus(TaskStatus.FAILED);
                 TaskExecResult result = new TaskExecResult(task);
-                handleException(t, result, worker, task);
+                handleException(t, result, worker, task, pollSpan);
             } finally {
                 pollingSemaphore.complete();
             }
@@ -371,14 +982,15 @@ public class TaskPollExecutor {
      * @param worker
      * @param task
      * @param pollingSemaphore
+     * @param pollSpan
      */
-    private void syncExecutingTask(Worker worker, ExecutingTask task, PollingSemaphore pollingSemaphore) {
+    private void syncExecutingTask(Worker worker, ExecutingTask task, PollingSemaphore pollingSemaphore, TaskSpan pollSpan) {
         try {
-            doExecuteTask(worker, task);
+            doExecuteTask(worker, task, pollSpan);
         } catch (Throwable t) {
             task.setStatus(TaskStatus.FAILED);
             TaskExecResult result = new TaskExecResult(task);
-            handleException(t, result, worker, task);
+            handleException(t, result, worker, task, pollSpan);
         } finally {
             pollingSemaphore.complete();
         }
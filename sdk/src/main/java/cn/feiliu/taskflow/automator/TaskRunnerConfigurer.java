@@ -15,9 +15,14 @@
 package cn.feiliu.taskflow.automator;
 
 import cn.feiliu.taskflow.automator.scheduling.PollStatus;
+import cn.feiliu.taskflow.automator.scheduling.MultiPollWorkerScheduling;
+import cn.feiliu.taskflow.automator.scheduling.PushWorkerScheduling;
 import cn.feiliu.taskflow.automator.scheduling.WheelTimerWorkerScheduling;
 import cn.feiliu.taskflow.automator.scheduling.WorkerScheduling;
+import cn.feiliu.taskflow.automator.tracing.TaskTracer;
 import cn.feiliu.taskflow.client.ApiClient;
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
+import cn.feiliu.taskflow.common.dto.tasks.TaskExecResult;
 import cn.feiliu.taskflow.executor.task.Worker;
 import cn.feiliu.taskflow.executor.task.WorkerWrapper;
 import com.google.common.base.Preconditions;
@@ -25,10 +30,9 @@ import io.netty.util.TimerTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import static cn.feiliu.common.api.utils.CommonUtils.f;
 
@@ -41,17 +45,19 @@ public class TaskRunnerConfigurer {
     private static final String                      INVALID_THREAD_COUNT      = "Invalid worker thread count specified, use either shared thread pool or config thread count per task";
     private static final String                      MISSING_TASK_THREAD_COUNT = "Missing task thread count config for %s";
 
-    private final WorkerScheduling                   workerScheduling          = new WheelTimerWorkerScheduling();
+    private final WorkerScheduling                   workerScheduling;
+    protected final PollEventLogger                  eventLogger;                                                                                                                       // 轮询事件日志
     protected final ApiClient                        apiClient;
     protected final List<Worker>                     workers                   = new LinkedList<>();
-    private final int                                sleepWhenRetry;                                                                                                                    // 重试前休眠时间
-    protected final int                              updateRetryCount;                                                                                                                  // 更新重试次数
+    private volatile int                             sleepWhenRetry;                                                                                                                    // 重试前休眠时间
+    protected volatile int                           updateRetryCount;                                                                                                                  // 更新重试次数
     protected final int                              threadCount;                                                                                                                       // 线程数
     protected final int                              shutdownGracePeriodSeconds;                                                                                                        // 优雅关闭等待时间(秒)
     protected final String                           workerNamePrefix;                                                                                                                  // 工作线程名称前缀
     private Map<String /*taskType*/, WorkerWrapper> workerMapping             = new HashMap<>();
 
     protected final TaskPollExecutor                 taskPollExecutor;                                                                                                                  // 任务轮询执行器
+    protected final LeaseExtensionService            leaseExtensionService;                                                                                                             // 执行中任务的续租服务
 
     /**
      * @see Builder
@@ -84,7 +90,24 @@ public class TaskRunnerConfigurer {
         this.workerNamePrefix = builder.workerNamePrefix;
         this.workerMapping = builder.workerMapping;
         this.shutdownGracePeriodSeconds = builder.shutdownGracePeriodSeconds;
-        this.taskPollExecutor = new TaskPollExecutor(apiClient, threadCount, updateRetryCount, workerMapping, workerNamePrefix);
+        this.eventLogger = builder.eventLogger;
+        PollEventLogger schedulingLogger = builder.eventLogger;
+        boolean push = builder.pushDispatch && apiClient.getConfig().isSupportWebsocket();
+        // 按任务类型拉取的调度器, 也是服务端不支持合并拉取时的回退
+        Supplier<WorkerScheduling> perTaskType = () -> push ? new PushWorkerScheduling(schedulingLogger)
+            : new WheelTimerWorkerScheduling(schedulingLogger);
+        if (builder.multiPoll) {
+            this.workerScheduling = new MultiPollWorkerScheduling(eventLogger, perTaskType);
+        } else {
+            this.workerScheduling = perTaskType.get();
+        }
+        this.leaseExtensionService = new LeaseExtensionService(apiClient, builder.leaseExtendThresholdSeconds,
+            builder.leaseExtendSeconds, eventLogger);
+        this.taskPollExecutor = new TaskPollExecutor(apiClient, threadCount, updateRetryCount, workerMapping,
+            workerNamePrefix, eventLogger, builder.taskTracer, leaseExtensionService, builder.prefetchDepth,
+            builder.prefetchMaxHoldSeconds, builder.executionBackend);
+        this.taskPollExecutor.setUpdateRetry(updateRetryCount, sleepWhenRetry);
+        this.taskPollExecutor.setPollTimeoutMillis(builder.pollTimeoutMillis);
     }
 
     /**
@@ -92,14 +115,24 @@ public class TaskRunnerConfigurer {
      */
     public static class Builder {
 
-        private String                                   workerNamePrefix           = "workflow-worker-%d";
-        private int                                      sleepWhenRetry             = 500;
-        private int                                      updateRetryCount           = 3;
-        private int                                      threadCount                = -1;
-        private int                                      shutdownGracePeriodSeconds = 10;
+        private String                                   workerNamePrefix            = "workflow-worker-%d";
+        private int                                      sleepWhenRetry              = 500;
+        private int                                      updateRetryCount            = 3;
+        private int                                      threadCount                 = -1;
+        private int                                      shutdownGracePeriodSeconds  = 10;
         private final Iterable<Worker>                   workers;
         private final ApiClient                          apiClient;
-        private Map<String /*taskType*/, WorkerWrapper> workerMapping              = new HashMap<>();
+        private Map<String /*taskType*/, WorkerWrapper> workerMapping               = new HashMap<>();
+        private PollEventLogger                          eventLogger                 = new PollEventLogger();
+        private TaskTracer                               taskTracer                  = TaskTracer.NOOP;
+        private int                                      prefetchDepth               = 0;
+        private int                                      prefetchMaxHoldSeconds      = 30;
+        private int                                      leaseExtendThresholdSeconds = 0;
+        private int                                      leaseExtendSeconds          = 60;
+        private boolean                                  pushDispatch                = true;
+        private boolean                                  multiPoll                   = false;
+        private int                                      pollTimeoutMillis           = 100;
+        private ExecutionBackend                         executionBackend            = ExecutionBackend.PLATFORM;
 
         public Builder(ApiClient apiClient, Iterable<Worker> workers) {
             Preconditions.checkNotNull(apiClient, "apiClient cannot be null");
@@ -165,6 +198,113 @@ public class TaskRunnerConfigurer {
             return this;
         }
 
+        /**
+         * @param eventLogger 轮询事件日志, 可用于调整各事件的日志级别、采样率与汇总周期
+         * @return Builder实例
+         */
+        public Builder withEventLogger(PollEventLogger eventLogger) {
+            this.eventLogger = Preconditions.checkNotNull(eventLogger, "eventLogger cannot be null");
+            return this;
+        }
+
+        /**
+         * @param taskTracer 任务生命周期追踪, 默认不追踪
+         * @return Builder实例
+         * @see cn.feiliu.taskflow.automator.tracing.TaskTracers#create(double)
+         */
+        public Builder withTaskTracer(TaskTracer taskTracer) {
+            this.taskTracer = Preconditions.checkNotNull(taskTracer, "taskTracer cannot be null");
+            return this;
+        }
+
+        /**
+         * 开启任务预取: 每个任务类型在执行中的任务之外最多再拉取{@code prefetchDepth}个任务放入本地缓冲区,
+         * 执行线程完成任务后直接从缓冲区取下一个. 实际深度按拉取耗时与执行耗时自适应
+         *
+         * @param prefetchDepth 最大预取深度, 0表示不预取(默认)
+         * @return Builder实例
+         */
+        public Builder withPrefetchDepth(int prefetchDepth) {
+            if (prefetchDepth < 0) {
+                throw new IllegalArgumentException("预取深度不能小于0");
+            }
+            this.prefetchDepth = prefetchDepth;
+            return this;
+        }
+
+        /**
+         * @param prefetchMaxHoldSeconds 预取任务在本地缓冲区的最长停留时间(秒), 超时后交还服务端, 默认30秒
+         * @return Builder实例
+         */
+        public Builder withPrefetchMaxHoldSeconds(int prefetchMaxHoldSeconds) {
+            if (prefetchMaxHoldSeconds < 1) {
+                throw new IllegalArgumentException("预取任务最长停留时间不能小于1秒");
+            }
+            this.prefetchMaxHoldSeconds = prefetchMaxHoldSeconds;
+            return this;
+        }
+
+        /**
+         * 长耗时任务的自动续租: 任务执行超过{@code thresholdSeconds}后, 每隔{@code thresholdSeconds}向服务端发送一次
+         * IN_PROGRESS状态的更新, 同一周期内到期的任务合并为一次批量调用
+         *
+         * @param thresholdSeconds 开始续租的执行时长及续租周期(秒), 0表示不续租, 默认0(不续租)
+         * @param extendSeconds    每次续租的callbackAfterSeconds(秒), 应大于续租周期, 默认60秒
+         * @return Builder实例
+         */
+        public Builder withLeaseExtension(int thresholdSeconds, int extendSeconds) {
+            if (thresholdSeconds < 0) {
+                throw new IllegalArgumentException("续租阈值不能小于0");
+            }
+            if (thresholdSeconds > 0 && extendSeconds <= thresholdSeconds) {
+                throw new IllegalArgumentException("续租时长必须大于续租周期");
+            }
+            this.leaseExtendThresholdSeconds = thresholdSeconds;
+            this.leaseExtendSeconds = extendSeconds;
+            return this;
+        }
+
+        /**
+         * @param pushDispatch 开启WebSocket时是否由服务端推送驱动任务拉取(默认开启), 开启后仅在连接断开时定时轮询;
+         *                     关闭则沿用定时轮询调度
+         * @return Builder实例
+         */
+        public Builder withPushDispatch(boolean pushDispatch) {
+            this.pushDispatch = pushDispatch;
+            return this;
+        }
+
+        /**
+         * @param multiPoll 是否一次请求拉取所有任务类型的任务(默认关闭, 需服务端支持), 开启后请求数不随任务类型数增长,
+         *                  优先于pushDispatch且不使用预取
+         * @return Builder实例
+         */
+        public Builder withMultiPoll(boolean multiPoll) {
+            this.multiPoll = multiPoll;
+            return this;
+        }
+
+        /**
+         * @param pollTimeoutMillis 拉取任务的长轮询等待时间(毫秒), 任务类型可通过{@link WorkerWrapper}单独覆盖
+         * @return Builder实例
+         */
+        public Builder withPollTimeoutMillis(int pollTimeoutMillis) {
+            if (pollTimeoutMillis < 0) {
+                throw new IllegalArgumentException("长轮询等待时间不能小于0");
+            }
+            this.pollTimeoutMillis = pollTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * @param executionBackend 任务执行线程类型, 默认平台线程
+         * @return Builder实例
+         */
+        public Builder withExecutionBackend(ExecutionBackend executionBackend) {
+            this.executionBackend = Objects.requireNonNull(executionBackend, "executionBackend is null");
+            return this;
+        }
+
         /**
          * 构建TaskRunnerConfigurer实例
          *
@@ -203,6 +343,27 @@ public class TaskRunnerConfigurer {
         return updateRetryCount;
     }
 
+    /**
+     * 运行期调整结果上报的重试策略, 对之后的上报生效
+     *
+     * @param updateRetryCount 重试次数
+     * @param sleepWhenRetry   重试前休眠的毫秒数
+     */
+    public void setUpdateRetry(int updateRetryCount, int sleepWhenRetry) {
+        this.updateRetryCount = updateRetryCount;
+        this.sleepWhenRetry = sleepWhenRetry;
+        taskPollExecutor.setUpdateRetry(updateRetryCount, sleepWhenRetry);
+    }
+
+    /**
+     * 运行期调整拉取任务的长轮询等待时间, 对之后的拉取生效
+     *
+     * @param pollTimeoutMillis 等待时间(毫秒)
+     */
+    public void setPollTimeoutMillis(int pollTimeoutMillis) {
+        taskPollExecutor.setPollTimeoutMillis(pollTimeoutMillis);
+    }
+
     /**
      * @return 工作线程名称使用的前缀
      */
@@ -232,14 +393,165 @@ public class TaskRunnerConfigurer {
         });
     }
 
+    /**
+     * 执行服务端通过WebSocket推送的任务
+     *
+     * @param tasks 推送的任务
+     * @return 因无空闲线程或无对应工作节点而未接收的任务
+     */
+    public List<ExecutingTask> executePushedTasks(List<ExecutingTask> tasks) {
+        Map<String, List<ExecutingTask>> tasksByType = new LinkedHashMap<>();
+        for (ExecutingTask task : tasks) {
+            tasksByType.computeIfAbsent(task.getTaskDefName(), k -> new ArrayList<>()).add(task);
+        }
+        List<ExecutingTask> rejected = new ArrayList<>();
+        for (Map.Entry<String, List<ExecutingTask>> entry : tasksByType.entrySet()) {
+            Optional<Worker> worker = workers.stream().filter(w -> w.getTaskDefName().equals(entry.getKey())).findFirst();
+            if (worker.isPresent()) {
+                rejected.addAll(taskPollExecutor.executePushed(worker.get(), entry.getValue()));
+            } else {
+                LOGGER.warn("No worker found for pushed tasks of type: {}", entry.getKey());
+                rejected.addAll(entry.getValue());
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * 设置推送任务的结果上报通道
+     *
+     * @param pushResultSender 通过WebSocket发送结果, 返回false时改用HTTP上报
+     */
+    public void setPushResultSender(Predicate<TaskExecResult> pushResultSender) {
+        taskPollExecutor.setPushResultSender(pushResultSender);
+    }
+
+    /**
+     * 获取任务类型当前可接收的任务数(空闲许可数)
+     *
+     * @param taskType 任务类型
+     * @return 空闲许可数, 无对应工作节点时为0
+     */
+    public int getAvailableCapacity(String taskType) {
+        for (Worker worker : workers) {
+            if (worker.getTaskDefName().equals(taskType)) {
+                return Math.max(0, taskPollExecutor.getAvailableThreads(worker));
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 获取每个任务类型的运行时指标快照
+     *
+     * @return 按任务类型排列的指标快照
+     */
+    public List<WorkerRuntimeStats.Snapshot> getWorkerStats() {
+        List<WorkerRuntimeStats.Snapshot> snapshots = new ArrayList<>();
+        for (Worker worker : workers) {
+            String taskType = worker.getTaskDefName();
+            WorkerRuntimeStats.Snapshot snapshot = taskPollExecutor.getRuntimeStats().snapshot(taskType);
+            int permits = taskPollExecutor.getTotalThreads(worker);
+            snapshot.setPermits(permits);
+            snapshot.setPermitsInUse(Math.max(0, permits - taskPollExecutor.getAvailableThreads(worker)));
+            snapshot.setUpdateFailures(eventLogger.getCount(PollEventLogger.Event.UPDATE_FAILED, taskType));
+            snapshots.add(snapshot);
+        }
+        return snapshots;
+    }
+
+    /**
+     * 运行期调整任务类型的并发数(执行许可总数), 执行线程池同步扩缩容, 执行中的任务不受影响
+     *
+     * @param taskType    任务类型
+     * @param threadCount 新的并发数, 不小于1
+     * @return 调整前的并发数
+     * @throws IllegalArgumentException 任务类型不存在或并发数小于1
+     */
+    public int setConcurrency(String taskType, int threadCount) {
+        Worker worker = findWorker(taskType);
+        int previous = taskPollExecutor.resizeConcurrency(worker, threadCount);
+        if (previous != threadCount) {
+            LOGGER.info("Concurrency of task type '{}' changed from {} to {}", taskType, previous, threadCount);
+        }
+        return previous;
+    }
+
+    /**
+     * @param taskType 任务类型
+     * @return 任务类型当前的并发数(执行许可总数)
+     * @throws IllegalArgumentException 任务类型不存在
+     */
+    public int getConcurrency(String taskType) {
+        return taskPollExecutor.getTotalThreads(findWorker(taskType));
+    }
+
+    private Worker findWorker(String taskType) {
+        for (Worker worker : workers) {
+            if (worker.getTaskDefName().equals(taskType)) {
+                return worker;
+            }
+        }
+        throw new IllegalArgumentException(f("Unknown task type: %s", taskType));
+    }
+
+    /**
+     * 添加任务执行耗时监听器
+     *
+     * @param listener 监听器, 在执行任务的线程中回调, 不应阻塞
+     */
+    public void addExecutionListener(ExecutionListener listener) {
+        taskPollExecutor.getRuntimeStats().addExecutionListener(listener);
+    }
+
+    /**
+     * 设置许可总数调整时的回调, 获取或归还许可时不执行, 归还许可使用{@link #onCapacityReleased(String, Runnable)}
+     *
+     * @param capacityListener 回调, 在调整许可的线程中执行, 不应阻塞
+     */
+    public void setCapacityListener(Runnable capacityListener) {
+        taskPollExecutor.setCapacityListener(capacityListener);
+    }
+
+    /**
+     * 注册一次性回调, 任务类型下一次归还许可时执行
+     *
+     * @param taskType 任务类型
+     * @param callback 回调, 在归还许可的线程中执行, 不应阻塞
+     * @return false表示没有执行中的任务或任务类型不存在, 回调未注册
+     */
+    public boolean onCapacityReleased(String taskType, Runnable callback) {
+        for (Worker worker : workers) {
+            if (worker.getTaskDefName().equals(taskType)) {
+                return taskPollExecutor.onCapacityReleased(worker, callback);
+            }
+        }
+        return false;
+    }
+
     /**
      * 在进程终止期间,在应用程序的PreDestroy块中调用此方法,以实现工作线程的优雅关闭
      */
     public void shutdown() {
         workerScheduling.shutdown(shutdownGracePeriodSeconds);
+        taskPollExecutor.shutdown(shutdownGracePeriodSeconds);
     }
 
     public WorkerScheduling getWorkerScheduling() {
         return workerScheduling;
     }
+
+    /**
+     * @return 执行中任务的续租服务
+     */
+    public LeaseExtensionService getLeaseExtensionService() {
+        return leaseExtensionService;
+    }
+
+    /**
+     * @return 轮询事件日志
+     */
+    public PollEventLogger getEventLogger() {
+        return eventLogger;
+    }
 }
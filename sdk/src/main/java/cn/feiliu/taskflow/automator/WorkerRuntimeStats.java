@@ -0,0 +1,207 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator;
+
+import lombok.Data;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按任务类型统计的工作节点运行时指标
+ * <p>
+ * 热点路径只做无锁累加: 拉取次数按秒分桶计算最近一分钟的拉取速率, 执行耗时写入固定大小的环形采样区,
+ * 读取快照时再排序计算分位数; 结果更新中(含重试)的任务数即结果上报积压
+ *
+ * @author kevin.luan
+ * @since 2025-06-26
+ */
+public class WorkerRuntimeStats {
+    // 拉取速率的统计窗口(秒)
+    static final int                      RATE_WINDOW_SECONDS = 60;
+    // 每个任务类型保留的执行耗时采样数
+    static final int                      LATENCY_SAMPLES     = 1024;
+    private final Map<String, TypeStats>  stats               = new ConcurrentHashMap<>();
+    private final List<ExecutionListener> listeners           = new CopyOnWriteArrayList<>();
+
+    /**
+     * 记录一次拉取
+     *
+     * @param taskType 任务类型
+     */
+    public void recordPoll(String taskType) {
+        get(taskType).recordPoll(currentSecond());
+    }
+
+    /**
+     * 记录一次任务执行耗时
+     *
+     * @param taskType 任务类型
+     * @param nanos    执行耗时(纳秒)
+     */
+    public void recordExecution(String taskType, long nanos) {
+        get(taskType).recordExecution(nanos);
+        for (ExecutionListener listener : listeners) {
+            listener.onExecuted(taskType, nanos);
+        }
+    }
+
+    /**
+     * 添加执行耗时监听器, 每次记录执行耗时后回调
+     *
+     * @param listener 监听器
+     */
+    public void addExecutionListener(ExecutionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 开始上报任务结果
+     *
+     * @param taskType 任务类型
+     */
+    public void updateStarted(String taskType) {
+        get(taskType).pendingUpdates.incrementAndGet();
+    }
+
+    /**
+     * 任务结果上报结束(成功或放弃)
+     *
+     * @param taskType 任务类型
+     */
+    public void updateFinished(String taskType) {
+        get(taskType).pendingUpdates.decrementAndGet();
+    }
+
+    /**
+     * 获取任务类型的指标快照, 许可相关字段由调用方填充
+     *
+     * @param taskType 任务类型
+     * @return 指标快照
+     */
+    public Snapshot snapshot(String taskType) {
+        return get(taskType).snapshot(taskType, currentSecond());
+    }
+
+    private TypeStats get(String taskType) {
+        TypeStats typeStats = stats.get(taskType);
+        if (typeStats == null) {
+            typeStats = stats.computeIfAbsent(taskType, k -> new TypeStats());
+        }
+        return typeStats;
+    }
+
+    private static long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+    }
+
+    private static class TypeStats {
+        // 按秒分桶的拉取次数及对应的秒数
+        private final AtomicLongArray pollBuckets    = new AtomicLongArray(RATE_WINDOW_SECONDS);
+        private final AtomicLongArray bucketSeconds  = new AtomicLongArray(RATE_WINDOW_SECONDS);
+        private final LongAdder       polls          = new LongAdder();
+        // 执行耗时环形采样区(纳秒)
+        private final AtomicLongArray latencies      = new AtomicLongArray(LATENCY_SAMPLES);
+        private final AtomicLong      executions     = new AtomicLong();
+        private final AtomicInteger   pendingUpdates = new AtomicInteger();
+
+        void recordPoll(long second) {
+            int index = (int) (second % RATE_WINDOW_SECONDS);
+            long bucketSecond = bucketSeconds.get(index);
+            if (bucketSecond != second && bucketSeconds.compareAndSet(index, bucketSecond, second)) {
+                pollBuckets.set(index, 0);
+            }
+            pollBuckets.incrementAndGet(index);
+            polls.increment();
+        }
+
+        void recordExecution(long nanos) {
+            long count = executions.getAndIncrement();
+            latencies.set((int) (count % LATENCY_SAMPLES), nanos);
+        }
+
+        Snapshot snapshot(String taskType, long second) {
+            Snapshot snapshot = new Snapshot();
+            snapshot.setTaskType(taskType);
+            long windowPolls = 0;
+            for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+                if (second - bucketSeconds.get(i) < RATE_WINDOW_SECONDS) {
+                    windowPolls += pollBuckets.get(i);
+                }
+            }
+            snapshot.setPollCount(polls.sum());
+            snapshot.setPollRate((double) windowPolls / RATE_WINDOW_SECONDS);
+            long count = executions.get();
+            int size = (int) Math.min(count, LATENCY_SAMPLES);
+            long[] samples = new long[size];
+            for (int i = 0; i < size; i++) {
+                samples[i] = latencies.get(i);
+            }
+            Arrays.sort(samples);
+            snapshot.setExecutionCount(count);
+            snapshot.setLatencyP50Millis(percentile(samples, 0.50));
+            snapshot.setLatencyP90Millis(percentile(samples, 0.90));
+            snapshot.setLatencyP99Millis(percentile(samples, 0.99));
+            snapshot.setLatencyMaxMillis(percentile(samples, 1.0));
+            snapshot.setPendingUpdates(Math.max(0, pendingUpdates.get()));
+            return snapshot;
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            long nanos = sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * 任务类型的指标快照
+     */
+    @Data
+    public static class Snapshot {
+        /*任务类型*/
+        private String taskType;
+        /*执行许可总数, 未按任务类型配置线程数时为所有任务类型共享的许可数*/
+        private int    permits;
+        /*已占用的执行许可数*/
+        private int    permitsInUse;
+        /*累计拉取次数*/
+        private long   pollCount;
+        /*最近一分钟的平均拉取速率(次/秒)*/
+        private double pollRate;
+        /*累计执行次数*/
+        private long   executionCount;
+        /*最近执行耗时的分位数(毫秒)*/
+        private double latencyP50Millis;
+        private double latencyP90Millis;
+        private double latencyP99Millis;
+        private double latencyMaxMillis;
+        /*正在上报(含重试)的任务结果数*/
+        private int    pendingUpdates;
+        /*累计结果上报失败次数*/
+        private long   updateFailures;
+    }
+}
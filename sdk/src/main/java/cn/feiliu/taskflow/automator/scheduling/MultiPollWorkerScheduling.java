@@ -0,0 +1,257 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator.scheduling;
+
+import cn.feiliu.taskflow.automator.PollEventLogger;
+import cn.feiliu.taskflow.automator.PollEventLogger.Event;
+import cn.feiliu.taskflow.automator.TaskPollExecutor;
+import cn.feiliu.taskflow.automator.WorkerProcess;
+import cn.feiliu.taskflow.common.exceptions.ApiException;
+import cn.feiliu.taskflow.executor.task.Worker;
+import cn.feiliu.taskflow.utils.TaskflowConfig;
+import cn.feiliu.taskflow.ws.msg.SubTaskPayload;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 多任务类型合并拉取的工作者调度器
+ * <p>
+ * 所有任务类型的拉取信号由同一个拉取线程消费, 同一时刻待拉取的任务类型合并为一次请求, 每个任务类型的拉取数量取其空闲许可数,
+ * 拉取到的任务按类型分发到执行线程池; 没有空闲许可的任务类型挂起, 在释放许可时重新加入待拉取集合.
+ * 请求数只与进程数相关, 不随任务类型数增长. 兜底的定时轮询只在WebSocket断开时执行.
+ * 拉取失败时按轮询间隔指数退避重试; 服务端不支持合并拉取(404)时改用按任务类型拉取的调度器
+ *
+ * @author kevin.luan
+ * @since 2025-06-22
+ */
+@Slf4j
+public class MultiPollWorkerScheduling implements WorkerScheduling {
+    // 拉取失败后重试的最大间隔
+    private static final long                MAX_RETRY_DELAY_MILLIS = 30000;
+    private final PollEventLogger            eventLogger;
+    // 服务端不支持合并拉取时改用的调度器
+    private final Supplier<WorkerScheduling> fallbackFactory;
+    private volatile WorkerScheduling        fallback;
+    // 各任务类型连续拉取失败的次数, 只在拉取线程中访问
+    private final Map<String, Integer>       failures               = new HashMap<>();
+    private TaskflowConfig                   config;
+    private WorkerProcess                    workerProcess;
+    private final Map<String, Worker>        workers                = new LinkedHashMap<>();
+    // 等待拉取的任务类型, 重复的信号会被合并
+    private final Set<String>                pending                = ConcurrentHashMap.newKeySet();
+    // 因没有空闲许可而挂起的任务类型
+    private final Set<String>                parked                 = ConcurrentHashMap.newKeySet();
+    // 唤醒空闲的拉取线程
+    private final Semaphore                  wakeup                 = new Semaphore(0);
+    private volatile BooleanSupplier         pushConnected          = () -> false;
+    private volatile boolean                 isStop                 = false;
+    private ExecutorService                  poller;
+    private ScheduledExecutorService         safetyPoller;
+
+    /**
+     * @param eventLogger     轮询事件日志
+     * @param fallbackFactory 服务端不支持合并拉取时改用的按任务类型拉取的调度器
+     */
+    public MultiPollWorkerScheduling(PollEventLogger eventLogger, Supplier<WorkerScheduling> fallbackFactory) {
+        this.eventLogger = eventLogger;
+        this.fallbackFactory = Objects.requireNonNull(fallbackFactory);
+    }
+
+    @Override
+    public void initWorker(TaskflowConfig config, List<Worker> list) {
+        this.config = config;
+        for (Worker worker : list) {
+            log.info("worker name:{}", worker.getTaskDefName());
+            workers.put(worker.getTaskDefName(), worker);
+        }
+    }
+
+    @Override
+    public void start(TaskPollExecutor taskPollExecutor, WorkerProcess workerProcess) {
+        this.workerProcess = workerProcess;
+        poller = Executors.newSingleThreadExecutor(
+            new BasicThreadFactory.Builder().namingPattern("taskflow-multi-poller-%d").daemon(true).build());
+        safetyPoller = Executors.newSingleThreadScheduledExecutor(
+            new BasicThreadFactory.Builder().namingPattern("taskflow-safety-poll-%d").daemon(true).build());
+        poller.execute(() -> consume(taskPollExecutor));
+        for (Worker worker : workers.values()) {
+            long interval = worker.getPollingInterval();
+            safetyPoller.scheduleWithFixedDelay(() -> {
+                if (!pushConnected.getAsBoolean()) {
+                    signal(worker.getTaskDefName());
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+            // 启动时拉取一次
+            signal(worker.getTaskDefName());
+        }
+    }
+
+    /**
+     * 设置推送通道是否可用, 可用时不执行兜底的定时轮询
+     *
+     * @param pushConnected 推送通道状态
+     */
+    @Override
+    public void setPushConnected(BooleanSupplier pushConnected) {
+        this.pushConnected = pushConnected;
+        WorkerScheduling current = fallback;
+        if (current != null) {
+            current.setPushConnected(pushConnected);
+        }
+    }
+
+    @Override
+    public void shutdown(int timeout) {
+        this.isStop = true;
+        if (safetyPoller != null) {
+            safetyPoller.shutdownNow();
+        }
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+        WorkerScheduling current = fallback;
+        if (current != null) {
+            current.shutdown(timeout);
+        }
+    }
+
+    @Override
+    public void triggerTask(SubTaskPayload payload) {
+        WorkerScheduling current = fallback;
+        if (current != null) {
+            current.triggerTask(payload);
+            return;
+        }
+        for (String taskName : payload.getTaskNames()) {
+            if (workers.containsKey(taskName)) {
+                eventLogger.record(Event.TRIGGER, taskName, "Trigger TaskName: {}", taskName);
+                signal(taskName);
+            }
+        }
+    }
+
+    private void signal(String taskName) {
+        if (!isStop && fallback == null && pending.add(taskName)) {
+            wakeup.release();
+        }
+    }
+
+    private void consume(TaskPollExecutor taskPollExecutor) {
+        while (!isStop) {
+            try {
+                wakeup.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            wakeup.drainPermits();
+            List<Worker> batch = new ArrayList<>();
+            for (String taskName : new ArrayList<>(pending)) {
+                pending.remove(taskName);
+                Worker worker = workers.get(taskName);
+                if (taskPollExecutor.isBusy(worker)) {
+                    park(taskPollExecutor, worker);
+                } else {
+                    batch.add(worker);
+                }
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            Map<String, PollStatus> statuses = new HashMap<>();
+            try {
+                statuses = taskPollExecutor.multiPollAndExecute(batch);
+            } catch (ApiException e) {
+                if (e.getStatusCode() == 404) {
+                    fallBack(taskPollExecutor);
+                    return;
+                }
+                for (Worker worker : batch) {
+                    statuses.put(worker.getTaskDefName(), PollStatus.FAIL);
+                }
+                log.error("Failed to poll tasks of types: {}", statuses.keySet(), e);
+            } catch (Throwable t) {
+                for (Worker worker : batch) {
+                    statuses.put(worker.getTaskDefName(), PollStatus.FAIL);
+                }
+                log.error("Failed to poll tasks of types: {}", statuses.keySet(), t);
+            }
+            for (Worker worker : batch) {
+                String taskName = worker.getTaskDefName();
+                PollStatus status = statuses.get(taskName);
+                if (status != PollStatus.FAIL) {
+                    failures.remove(taskName);
+                }
+                if (status == PollStatus.HAS_TASK) {
+                    // 可能还有任务
+                    signal(taskName);
+                } else if (status == null) {
+                    // 许可已被占用
+                    park(taskPollExecutor, worker);
+                } else if (status == PollStatus.FAIL) {
+                    int failed = failures.merge(taskName, 1, Integer::sum);
+                    retryLater(taskName, retryDelay(worker.getPollingInterval(), failed));
+                }
+            }
+        }
+    }
+
+    /**
+     * 挂起没有空闲许可的任务类型, 释放许可时重新投递信号, 同一任务类型最多挂起一次
+     */
+    private void park(TaskPollExecutor taskPollExecutor, Worker worker) {
+        String taskName = worker.getTaskDefName();
+        if (parked.add(taskName)) {
+            taskPollExecutor.onCapacityAvailable(worker, () -> {
+                parked.remove(taskName);
+                signal(taskName);
+            });
+        }
+    }
+
+    /**
+     * 服务端不支持合并拉取, 停止本调度器的拉取线程和兜底轮询, 由按任务类型拉取的调度器接管所有工作节点
+     */
+    private void fallBack(TaskPollExecutor taskPollExecutor) {
+        log.warn("Multi-poll is not supported by server, falling back to polling each task type separately");
+        WorkerScheduling scheduling = fallbackFactory.get();
+        scheduling.initWorker(config, new ArrayList<>(workers.values()));
+        scheduling.setPushConnected(pushConnected);
+        fallback = scheduling;
+        pending.clear();
+        safetyPoller.shutdownNow();
+        scheduling.start(taskPollExecutor, workerProcess);
+    }
+
+    /**
+     * 连续失败时按轮询间隔指数退避, 不超过{@link #MAX_RETRY_DELAY_MILLIS}
+     */
+    static long retryDelay(long pollingInterval, int failures) {
+        return Math.min(MAX_RETRY_DELAY_MILLIS, pollingInterval << Math.min(failures - 1, 16));
+    }
+
+    private void retryLater(String taskName, long delayMillis) {
+        try {
+            safetyPoller.schedule(() -> signal(taskName), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Scheduler stopped, drop retry of type: {}", taskName);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator.scheduling;
+
+import cn.feiliu.taskflow.automator.PollEventLogger;
+import cn.feiliu.taskflow.automator.PollEventLogger.Event;
+import cn.feiliu.taskflow.automator.TaskPollExecutor;
+import cn.feiliu.taskflow.automator.WorkerProcess;
+import cn.feiliu.taskflow.executor.task.Worker;
+import cn.feiliu.taskflow.utils.TaskflowConfig;
+import cn.feiliu.taskflow.ws.msg.SubTaskPayload;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 推送优先的工作者调度器
+ * <p>
+ * 服务端的任务通知只向无锁的信号队列投递一个信号, 由拉取线程池消费; 同一任务类型在排队或拉取中时重复的信号会被合并.
+ * 拉取到任务后立即继续拉取, 直到队列为空; 执行器繁忙时信号挂起, 在释放许可时重新投递. 兜底的定时轮询只在WebSocket断开时执行
+ *
+ * @author kevin.luan
+ * @since 2025-06-15
+ */
+@Slf4j
+public class PushWorkerScheduling implements WorkerScheduling {
+    private static final int          IDLE          = 0;
+    private static final int          QUEUED        = 1;
+    private static final int          RUNNING       = 2;
+    // 拉取期间又收到了信号, 结束后需要再拉取一次
+    private static final int          RUNNING_DIRTY = 3;
+    private final PollEventLogger     eventLogger;
+    // 待拉取的任务类型信号队列
+    private final Queue<Signal>       signals       = new ConcurrentLinkedQueue<>();
+    // 唤醒空闲的拉取线程
+    private final Semaphore           wakeup        = new Semaphore(0);
+    private final Map<String, Signal> signalMap     = new ConcurrentHashMap<>();
+    private volatile BooleanSupplier  pushConnected = () -> false;
+    private volatile boolean          isStop        = false;
+    private ExecutorService           pollers;
+    private ScheduledExecutorService  safetyPoller;
+
+    public PushWorkerScheduling(PollEventLogger eventLogger) {
+        this.eventLogger = eventLogger;
+    }
+
+    @Override
+    public void initWorker(TaskflowConfig config, List<Worker> workers) {
+        for (Worker worker : workers) {
+            log.info("worker name:{}", worker.getTaskDefName());
+            signalMap.put(worker.getTaskDefName(), new Signal(worker));
+        }
+    }
+
+    @Override
+    public void start(TaskPollExecutor taskPollExecutor, WorkerProcess workerProcess) {
+        // 拉取线程可能同步执行任务, 每个任务类型一个线程以免相互阻塞
+        int threads = Math.max(1, signalMap.size());
+        pollers = Executors.newFixedThreadPool(threads,
+            new BasicThreadFactory.Builder().namingPattern("taskflow-poller-%d").daemon(true).build());
+        safetyPoller = Executors.newSingleThreadScheduledExecutor(
+            new BasicThreadFactory.Builder().namingPattern("taskflow-safety-poll-%d").daemon(true).build());
+        for (int i = 0; i < threads; i++) {
+            pollers.execute(() -> consume(taskPollExecutor, workerProcess));
+        }
+        for (Signal signal : signalMap.values()) {
+            long interval = signal.worker.getPollingInterval();
+            safetyPoller.scheduleWithFixedDelay(() -> {
+                if (!pushConnected.getAsBoolean()) {
+                    signal(signal);
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+            // 启动时拉取一次
+            signal(signal);
+        }
+    }
+
+    /**
+     * 设置推送通道是否可用, 可用时不执行兜底的定时轮询
+     *
+     * @param pushConnected 推送通道状态
+     */
+    @Override
+    public void setPushConnected(BooleanSupplier pushConnected) {
+        this.pushConnected = pushConnected;
+    }
+
+    @Override
+    public void shutdown(int timeout) {
+        this.isStop = true;
+        if (safetyPoller != null) {
+            safetyPoller.shutdownNow();
+        }
+        if (pollers != null) {
+            pollers.shutdownNow();
+        }
+    }
+
+    @Override
+    public void triggerTask(SubTaskPayload payload) {
+        for (String taskName : payload.getTaskNames()) {
+            Signal signal = signalMap.get(taskName);
+            if (signal != null) {
+                eventLogger.record(Event.TRIGGER, taskName, "Trigger TaskName: {}", taskName);
+                signal(signal);
+            }
+        }
+    }
+
+    /**
+     * 投递任务类型信号, 已在排队或拉取中的信号会被合并
+     */
+    private void signal(Signal signal) {
+        while (!isStop) {
+            int state = signal.state.get();
+            if (state == IDLE) {
+                if (signal.state.compareAndSet(IDLE, QUEUED)) {
+                    signals.offer(signal);
+                    wakeup.release();
+                    return;
+                }
+            } else if (state == RUNNING) {
+                if (signal.state.compareAndSet(RUNNING, RUNNING_DIRTY)) {
+                    return;
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void consume(TaskPollExecutor taskPollExecutor, WorkerProcess workerProcess) {
+        while (!isStop) {
+            Signal signal;
+            try {
+                wakeup.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if ((signal = signals.poll()) == null) {
+                continue;
+            }
+            signal.state.set(RUNNING);
+            PollStatus status = PollStatus.NO_TASK;
+            boolean busy = false;
+            try {
+                if (taskPollExecutor.isBusy(signal.worker)) {
+                    busy = true;
+                } else {
+                    status = workerProcess.process(null, signal.worker);
+                }
+            } catch (Throwable t) {
+                log.error("Failed to poll tasks of type: {}", signal.worker.getTaskDefName(), t);
+            }
+            if (status == PollStatus.HAS_TASK || !signal.state.compareAndSet(RUNNING, IDLE)) {
+                // 可能还有任务或拉取期间收到了新的通知
+                signal.state.set(IDLE);
+                signal(signal);
+            } else if (busy) {
+                park(taskPollExecutor, signal);
+            } else if (status == PollStatus.FAIL) {
+                retryLater(signal, signal.worker.getPollingInterval());
+            }
+        }
+    }
+
+    /**
+     * 挂起繁忙任务类型的信号, 有空闲许可时重新投递, 同一信号最多挂起一次
+     */
+    private void park(TaskPollExecutor taskPollExecutor, Signal signal) {
+        if (signal.parked.compareAndSet(false, true)) {
+            taskPollExecutor.onCapacityAvailable(signal.worker, () -> {
+                signal.parked.set(false);
+                signal(signal);
+            });
+        }
+    }
+
+    private void retryLater(Signal signal, long delayMillis) {
+        try {
+            safetyPoller.schedule(() -> signal(signal), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Scheduler stopped, drop retry of type: {}", signal.worker.getTaskDefName());
+        }
+    }
+
+    /**
+     * 任务类型的调度信号
+     */
+    private static final class Signal {
+        final Worker        worker;
+        final AtomicInteger state  = new AtomicInteger(IDLE);
+        // 已挂起等待空闲许可
+        final AtomicBoolean parked = new AtomicBoolean();
+
+        Signal(Worker worker) {
+            this.worker = worker;
+        }
+    }
+}
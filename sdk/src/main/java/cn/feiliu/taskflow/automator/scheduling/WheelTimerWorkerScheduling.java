@@ -14,6 +14,8 @@
  */
 package cn.feiliu.taskflow.automator.scheduling;
 
+import cn.feiliu.taskflow.automator.PollEventLogger;
+import cn.feiliu.taskflow.automator.PollEventLogger.Event;
 import cn.feiliu.taskflow.automator.TaskPollExecutor;
 import cn.feiliu.taskflow.automator.WorkerProcess;
 import cn.feiliu.taskflow.executor.task.Worker;
@@ -25,31 +27,50 @@ import io.netty.util.Timeout;
 import io.netty.util.Timer;
 import io.netty.util.TimerTask;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 /**
  * 基于时间轮算法的工作者调度器
  * 使用Netty的HashedWheelTimer实现定时任务调度
+ * <p>
+ * 定时器到期和服务端通知都只投递拉取信号, 拉取在独立的线程池中并发执行; 同一任务类型同时只有一个拉取,
+ * 拉取期间收到的通知合并为结束后的一次补充拉取
  *
  * @author SHOUSHEN.LUAN
  * @since 2024-03-12
  */
 @Slf4j
 public class WheelTimerWorkerScheduling implements WorkerScheduling {
+    private static final int            IDLE          = 0;
+    private static final int            RUNNING       = 1;
+    // 拉取期间又收到了信号, 结束后需要再拉取一次
+    private static final int            RUNNING_DIRTY = 2;
     // 时间轮定时器实例
-    final Timer                         timer  = new HashedWheelTimer();
+    final Timer                         timer         = new HashedWheelTimer();
     // 工作者列表
     private List<Worker>                workers;
     // 调度器停止标志
-    volatile static boolean             isStop = false;
+    private volatile boolean            isStop        = false;
     // 工作者与其对应定时任务的映射关系
     private Map<String, WorkerSchedule> workerTaskMap;
+    // 工作者与其拉取任务的映射关系
+    private final Map<String, PollTask> pollTasks     = new ConcurrentHashMap<>();
     private TaskflowConfig              config;
+    private final PollEventLogger       eventLogger;
+    private volatile TaskPollExecutor   taskPollExecutor;
+    private ExecutorService             pollers;
+    // 推送通道是否可用, 不可用时按正常轮询间隔拉取
+    private volatile BooleanSupplier    pushConnected = () -> true;
+
+    public WheelTimerWorkerScheduling(PollEventLogger eventLogger) {
+        this.eventLogger = eventLogger;
+    }
 
     /**
      * 打印所有工作者的名称,用于调试
@@ -78,25 +99,14 @@ public class WheelTimerWorkerScheduling implements WorkerScheduling {
      */
     @Override
     public void start(TaskPollExecutor taskPollExecutor, WorkerProcess workerProcess) {
+        this.taskPollExecutor = taskPollExecutor;
+        // 拉取线程可能同步执行任务, 每个任务类型一个线程以免相互阻塞
+        this.pollers = Executors.newFixedThreadPool(Math.max(1, workers.size()), new BasicThreadFactory.Builder()
+            .namingPattern("taskflow-poller-%d").daemon(true).build());
         for (Worker worker : workers) {
-            addIfAbsent(new TimerTask() {
-                @Override
-                public void run(Timeout timeout) throws Exception {
-                    CompletableFuture.runAsync(() -> {
-                        workerTaskMap.remove(worker.getTaskDefName());
-                        if (taskPollExecutor.isBusy(worker)) {
-                            addIfAbsent(this, worker, false);
-                        } else {
-                            PollStatus status = workerProcess.process(this, worker);
-                            if (status == PollStatus.HAS_TASK) {
-                                addIfAbsent(this, worker, true);
-                            } else {
-                                addIfAbsent(this, worker, false);
-                            }
-                        }
-                    });
-                }
-            }, worker, false);
+            PollTask pollTask = new PollTask(worker, workerProcess);
+            pollTasks.put(worker.getTaskDefName(), pollTask);
+            addIfAbsent(pollTask, worker, false);
         }
     }
 
@@ -113,7 +123,7 @@ public class WheelTimerWorkerScheduling implements WorkerScheduling {
                 Timeout timeout;
                 if (now) {
                     timeout = timer.newTimeout(timerTask, 1, TimeUnit.MILLISECONDS);
-                } else if (config.isSupportWebsocket()) {
+                } else if (config.isSupportWebsocket() && pushConnected.getAsBoolean()) {
                     timeout = timer.newTimeout(timerTask, TimeUnit.SECONDS.toMillis(30), TimeUnit.MILLISECONDS);
                 } else {
                     timeout = timer.newTimeout(timerTask, worker.getPollingInterval(), TimeUnit.MILLISECONDS);
@@ -123,6 +133,11 @@ public class WheelTimerWorkerScheduling implements WorkerScheduling {
         }
     }
 
+    @Override
+    public void setPushConnected(BooleanSupplier pushConnected) {
+        this.pushConnected = pushConnected;
+    }
+
     /**
      * 关闭调度器
      *
@@ -132,20 +147,105 @@ public class WheelTimerWorkerScheduling implements WorkerScheduling {
     public void shutdown(int timeout) {
         this.isStop = true;
         this.timer.stop();
+        if (pollers != null) {
+            pollers.shutdownNow();
+        }
     }
 
+    /**
+     * 触发任务拉取, 只投递信号不阻塞调用线程, 多个任务类型并发拉取
+     *
+     * @param payload 任务通知
+     */
     @Override
     public void triggerTask(SubTaskPayload payload) {
         for (String taskName : payload.getTaskNames()) {
-            WorkerSchedule schedule = workerTaskMap.get(taskName);
+            PollTask pollTask = pollTasks.get(taskName);
+            if (pollTask == null) {
+                continue;
+            }
+            if (taskPollExecutor.isBusy(pollTask.worker)) {
+                // 没有空闲许可时拉取不到任务, 许可释放后追加的额度会让服务端重新通知
+                log.debug("Skip trigger of busy worker: {}", taskName);
+                continue;
+            }
+            eventLogger.record(Event.TRIGGER, taskName, "Trigger TaskName: {}", taskName);
+            WorkerSchedule schedule = workerTaskMap.remove(taskName);
             if (schedule != null) {
-                try {
-                    log.info("Trigger TaskName: {}", taskName);
-                    schedule.triggerExecute();
-                } catch (Exception e) {
-                    log.error("triggerTask '{}' ,error:{},", taskName, e.getMessage(), e);
+                schedule.cancel();
+            }
+            pollTask.signal();
+        }
+    }
+
+    /**
+     * 单个任务类型的拉取任务
+     */
+    private final class PollTask implements TimerTask {
+        final Worker                worker;
+        private final WorkerProcess workerProcess;
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+
+        PollTask(Worker worker, WorkerProcess workerProcess) {
+            this.worker = worker;
+            this.workerProcess = workerProcess;
+        }
+
+        @Override
+        public void run(Timeout timeout) {
+            workerTaskMap.remove(worker.getTaskDefName());
+            signal();
+        }
+
+        /**
+         * 投递拉取信号, 已在拉取中的信号会被合并
+         */
+        void signal() {
+            while (!isStop) {
+                int current = state.get();
+                if (current == IDLE) {
+                    if (state.compareAndSet(IDLE, RUNNING)) {
+                        submit();
+                        return;
+                    }
+                } else if (current == RUNNING) {
+                    if (state.compareAndSet(RUNNING, RUNNING_DIRTY)) {
+                        return;
+                    }
+                } else {
+                    return;
                 }
             }
         }
+
+        private void submit() {
+            try {
+                pollers.execute(this::poll);
+            } catch (RejectedExecutionException e) {
+                state.set(IDLE);
+                log.debug("Scheduler stopped, drop poll of type: {}", worker.getTaskDefName());
+            }
+        }
+
+        private void poll() {
+            PollStatus status = PollStatus.NO_TASK;
+            boolean busy = false;
+            try {
+                if (taskPollExecutor.isBusy(worker)) {
+                    busy = true;
+                } else {
+                    status = workerProcess.process(this, worker);
+                }
+            } catch (Throwable t) {
+                log.error("Failed to poll tasks of type: {}", worker.getTaskDefName(), t);
+            }
+            if (!busy && state.compareAndSet(RUNNING_DIRTY, RUNNING)) {
+                // 拉取期间收到了新的通知
+                submit();
+            } else {
+                state.set(IDLE);
+                addIfAbsent(this, worker, status == PollStatus.HAS_TASK);
+            }
+        }
     }
 }
@@ -39,12 +39,9 @@ class WorkerSchedule {
     }
 
     /**
-     * 触发执行
-     *
-     * @throws Exception
+     * 取消尚未到期的定时任务
      */
-    public void triggerExecute() throws Exception {
+    public void cancel() {
         timeout.cancel();
-        timeout.task().run(timeout);
     }
 }
@@ -21,6 +21,7 @@ import cn.feiliu.taskflow.utils.TaskflowConfig;
 import cn.feiliu.taskflow.ws.msg.SubTaskPayload;
 
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * 工作调度器
@@ -51,9 +52,17 @@ public interface WorkerScheduling {
     void shutdown(int timeout);
 
     /**
-     * 触发任务更新
+     * 触发任务更新, 在WebSocket消息线程中调用, 实现不应阻塞
      *
      * @param payload
      */
     void triggerTask(SubTaskPayload payload);
+
+    /**
+     * 设置推送通道(WebSocket)是否可用, 调度器可据此决定是否需要定时轮询
+     *
+     * @param pushConnected 推送通道状态
+     */
+    default void setPushConnected(BooleanSupplier pushConnected) {
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator.tracing;
+
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基于OpenTelemetry的任务追踪实现
+ *
+ * @author kevin.luan
+ * @since 2025-06-11
+ */
+public class OpenTelemetryTaskTracer implements TaskTracer {
+    static final String  INSTRUMENTATION = "cn.feiliu.taskflow.sdk";
+    private final Tracer tracer;
+    private final double sampleRatio;
+
+    /**
+     * @param tracer      OpenTelemetry追踪器
+     * @param sampleRatio 拉取批次的采样比例, 取值[0, 1]
+     */
+    public OpenTelemetryTaskTracer(Tracer tracer, double sampleRatio) {
+        if (sampleRatio < 0 || sampleRatio > 1) {
+            throw new IllegalArgumentException("采样比例取值范围为[0, 1]");
+        }
+        this.tracer = tracer;
+        this.sampleRatio = sampleRatio;
+    }
+
+    /**
+     * 使用{@link GlobalOpenTelemetry}中注册的追踪器
+     *
+     * @param sampleRatio 拉取批次的采样比例
+     * @return 追踪器
+     */
+    static OpenTelemetryTaskTracer fromGlobal(double sampleRatio) {
+        return new OpenTelemetryTaskTracer(GlobalOpenTelemetry.getTracer(INSTRUMENTATION), sampleRatio);
+    }
+
+    @Override
+    public TaskSpan startPoll(String taskType, int maxAmount) {
+        if (sampleRatio < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRatio) {
+            return TaskSpan.NOOP;
+        }
+        Span span = tracer.spanBuilder(SPAN_BATCH_POLL).setSpanKind(SpanKind.CLIENT)
+            .setAttribute(ATTR_TASK_TYPE, taskType).setAttribute(ATTR_POLL_COUNT, (long) maxAmount).startSpan();
+        return wrap(span);
+    }
+
+    @Override
+    public TaskSpan startTaskSpan(String name, TaskSpan parent, ExecutingTask task) {
+        if (!(parent instanceof OtelSpan)) {
+            return TaskSpan.NOOP;
+        }
+        SpanKind kind = SPAN_UPDATE_TASK.equals(name) ? SpanKind.CLIENT : SpanKind.INTERNAL;
+        Span span = tracer.spanBuilder(name).setParent(Context.current().with(((OtelSpan) parent).span))
+            .setSpanKind(kind).startSpan();
+        span.setAttribute(ATTR_TASK_TYPE, nullToEmpty(task.getTaskDefName()));
+        span.setAttribute(ATTR_TASK_ID, nullToEmpty(task.getTaskId()));
+        span.setAttribute(ATTR_WORKFLOW_ID, nullToEmpty(task.getWorkflowInstanceId()));
+        span.setAttribute(ATTR_RETRY_COUNT, task.getRetryCount());
+        return wrap(span);
+    }
+
+    private static TaskSpan wrap(Span span) {
+        return span.isRecording() ? new OtelSpan(span) : TaskSpan.NOOP;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static final class OtelSpan implements TaskSpan {
+        private final Span span;
+
+        OtelSpan(Span span) {
+            this.span = span;
+        }
+
+        @Override
+        public boolean isRecording() {
+            return true;
+        }
+
+        @Override
+        public TaskSpan setAttribute(String key, String value) {
+            span.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public TaskSpan setAttribute(String key, long value) {
+            span.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public TaskSpan recordException(Throwable t) {
+            span.recordException(t);
+            span.setStatus(StatusCode.ERROR);
+            return this;
+        }
+
+        @Override
+        public Scope makeCurrent() {
+            TaskSpan.Scope local = TaskSpan.super.makeCurrent();
+            io.opentelemetry.context.Scope otel = span.makeCurrent();
+            return () -> {
+                otel.close();
+                local.close();
+            };
+        }
+
+        @Override
+        public void end() {
+            span.end();
+        }
+
+        @Override
+        public String getTraceId() {
+            return span.getSpanContext().getTraceId();
+        }
+
+        @Override
+        public String getSpanId() {
+            return span.getSpanContext().getSpanId();
+        }
+    }
+}
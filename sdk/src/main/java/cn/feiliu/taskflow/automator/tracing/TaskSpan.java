@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator.tracing;
+
+/**
+ * 任务链路中的一个Span
+ * <p>
+ * 未被采样或未启用追踪时为{@link #NOOP}, 所有方法均为空操作
+ *
+ * @author kevin.luan
+ * @since 2025-06-11
+ */
+public interface TaskSpan {
+    TaskSpan NOOP = new TaskSpan() {
+    };
+
+    /**
+     * 获取当前线程正在执行的Span
+     *
+     * @return 当前Span, 不存在时返回{@link #NOOP}
+     */
+    static TaskSpan current() {
+        TaskSpan span = CurrentSpanHolder.CURRENT.get();
+        return span == null ? NOOP : span;
+    }
+
+    /**
+     * @return 是否被采样记录
+     */
+    default boolean isRecording() {
+        return false;
+    }
+
+    default TaskSpan setAttribute(String key, String value) {
+        return this;
+    }
+
+    default TaskSpan setAttribute(String key, long value) {
+        return this;
+    }
+
+    /**
+     * 记录异常并将Span标记为错误
+     */
+    default TaskSpan recordException(Throwable t) {
+        return this;
+    }
+
+    /**
+     * 将当前Span设置为线程上下文, 使业务代码中的追踪埋点自动关联到该Span
+     *
+     * @return 作用域, 使用完毕后必须关闭
+     */
+    default Scope makeCurrent() {
+        TaskSpan previous = CurrentSpanHolder.CURRENT.get();
+        CurrentSpanHolder.CURRENT.set(this);
+        return () -> CurrentSpanHolder.CURRENT.set(previous);
+    }
+
+    default void end() {
+    }
+
+    /**
+     * @return 链路ID, 未采样时为空字符串
+     */
+    default String getTraceId() {
+        return "";
+    }
+
+    /**
+     * @return SpanID, 未采样时为空字符串
+     */
+    default String getSpanId() {
+        return "";
+    }
+
+    /**
+     * Span作用域
+     */
+    interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator.tracing;
+
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
+
+/**
+ * 任务生命周期追踪: 批量拉取 -> 排队等待 -> 执行 -> 更新结果
+ * <p>
+ * 采样在拉取时决定, 同一批次内任务的Span均挂在该次拉取的Span之下; 未被采样的批次返回{@link TaskSpan#NOOP},
+ * 后续环节不再产生任何开销
+ *
+ * @author kevin.luan
+ * @since 2025-06-11
+ * @see TaskTracers#create(double)
+ */
+public interface TaskTracer {
+    String     SPAN_BATCH_POLL  = "taskflow.batchPoll";
+    String     SPAN_QUEUE_WAIT  = "taskflow.queueWait";
+    String     SPAN_EXECUTE     = "taskflow.execute";
+    String     SPAN_UPDATE_TASK = "taskflow.updateTask";
+
+    String     ATTR_TASK_TYPE   = "taskflow.task.type";
+    String     ATTR_TASK_ID     = "taskflow.task.id";
+    String     ATTR_WORKFLOW_ID = "taskflow.workflow.instance.id";
+    String     ATTR_WORKER_ID   = "taskflow.worker.id";
+    String     ATTR_POLL_COUNT  = "taskflow.poll.count";
+    String     ATTR_RETRY_COUNT = "taskflow.task.retry.count";
+    String     ATTR_TASK_STATUS = "taskflow.task.status";
+
+    TaskTracer NOOP             = new TaskTracer() {
+                                    @Override
+                                    public TaskSpan startPoll(String taskType, int maxAmount) {
+                                        return TaskSpan.NOOP;
+                                    }
+
+                                    @Override
+                                    public TaskSpan startTaskSpan(String name, TaskSpan parent, ExecutingTask task) {
+                                        return TaskSpan.NOOP;
+                                    }
+                                };
+
+    /**
+     * 开始一次批量拉取, 在此处做采样决定
+     *
+     * @param taskType  任务类型
+     * @param maxAmount 最大拉取数量
+     * @return 拉取Span
+     */
+    TaskSpan startPoll(String taskType, int maxAmount);
+
+    /**
+     * 开始单个任务的某个环节
+     *
+     * @param name   环节名称, 如{@link #SPAN_EXECUTE}
+     * @param parent 父Span, 未被采样时直接返回{@link TaskSpan#NOOP}
+     * @param task   任务
+     * @return 环节Span
+     */
+    TaskSpan startTaskSpan(String name, TaskSpan parent, ExecutingTask task);
+}
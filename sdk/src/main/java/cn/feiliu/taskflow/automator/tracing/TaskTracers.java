@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link TaskTracer}工厂, OpenTelemetry为可选依赖, 类路径中不存在时返回{@link TaskTracer#NOOP}
+ *
+ * @author kevin.luan
+ * @since 2025-06-11
+ */
+public final class TaskTracers {
+    private static final Logger  LOGGER = LoggerFactory.getLogger(TaskTracers.class);
+    private static final boolean OPEN_TELEMETRY_PRESENT;
+
+    static {
+        boolean present;
+        try {
+            Class.forName("io.opentelemetry.api.GlobalOpenTelemetry", false, TaskTracers.class.getClassLoader());
+            present = true;
+        } catch (Throwable e) {
+            present = false;
+        }
+        OPEN_TELEMETRY_PRESENT = present;
+    }
+
+    private TaskTracers() {
+    }
+
+    /**
+     * @return 类路径中是否存在OpenTelemetry API
+     */
+    public static boolean isOpenTelemetryPresent() {
+        return OPEN_TELEMETRY_PRESENT;
+    }
+
+    /**
+     * 基于GlobalOpenTelemetry创建追踪器
+     *
+     * @param sampleRatio 拉取批次的采样比例, 取值[0, 1], 小于等于0表示关闭追踪
+     * @return 追踪器
+     */
+    public static TaskTracer create(double sampleRatio) {
+        if (sampleRatio <= 0 || !OPEN_TELEMETRY_PRESENT) {
+            return TaskTracer.NOOP;
+        }
+        LOGGER.info("OpenTelemetry tracing enabled, sample ratio: {}", sampleRatio);
+        return OpenTelemetryTaskTracer.fromGlobal(sampleRatio);
+    }
+}
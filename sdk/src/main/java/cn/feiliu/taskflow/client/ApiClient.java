@@ -15,6 +15,8 @@
 package cn.feiliu.taskflow.client;
 
 import cn.feiliu.common.api.model.resp.DataResult;
+import cn.feiliu.taskflow.automator.ExecutionListener;
+import cn.feiliu.taskflow.automator.WorkerRuntimeStats;
 import cn.feiliu.taskflow.common.exceptions.ApiException;
 import cn.feiliu.taskflow.core.TaskEngine;
 import cn.feiliu.taskflow.core.TokenManager;
@@ -26,6 +28,7 @@ import cn.feiliu.taskflow.http.types.ResponseTypeHandler;
 import cn.feiliu.taskflow.http.types.TypeFactory;
 import cn.feiliu.taskflow.utils.ClientHelper;
 import cn.feiliu.taskflow.utils.TaskflowConfig;
+import cn.feiliu.taskflow.ws.ConnectionState;
 import lombok.Getter;
 import lombok.SneakyThrows;
 import okhttp3.*;
@@ -35,7 +38,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * API客户端类，用于处理HTTP请求和响应
@@ -75,14 +80,26 @@ public final class ApiClient {
      * 构造函数
      */
     public ApiClient(TaskflowConfig config) {
+        config.validate();
         this.config = config;
         config.setBaseUrl(normalizePath(config.getBaseUrl()));
-        this.httpClient = new OkHttpClient().newBuilder().retryOnConnectionFailure(true).build();
+        this.httpClient = new OkHttpClient()
+            .newBuilder()
+            .retryOnConnectionFailure(true)
+            .connectionPool(
+                new ConnectionPool(config.getHttpMaxIdleConnections(), config.getHttpKeepAliveSeconds(),
+                    TimeUnit.SECONDS)).connectTimeout(config.getHttpConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+            .readTimeout(config.getHttpReadTimeoutMillis(), TimeUnit.MILLISECONDS)
+            .writeTimeout(config.getHttpWriteTimeoutMillis(), TimeUnit.MILLISECONDS).build();
         this.verifyingSsl = true;
         this.apis = new TaskflowApis(this);
         this.tokenManager = new TokenManager(this.apis.getAuthClient(), config.getKeyId(), config.getKeySecret());
         //所有的对象初始化完成后，最后执行初始调度执行
-        this.tokenManager.shouldStartSchedulerAndInitializeToken();
+        if (config.isLazyStartup()) {
+            this.tokenManager.shouldStartSchedulerAndInitializeTokenAsync();
+        } else {
+            this.tokenManager.shouldStartSchedulerAndInitializeToken();
+        }
         this.taskEngine = new TaskEngine(this);
     }
 
@@ -158,10 +175,11 @@ public final class ApiClient {
     }
 
     /**
-     * 关闭客户端，释放资源
+     * 关闭客户端，停止工作节点并释放资源
      */
     @SneakyThrows
     public void shutdown() {
+        taskEngine.shutdown();
         tokenManager.close();
     }
 
@@ -496,4 +514,83 @@ public final class ApiClient {
         return this;
     }
 
+    /**
+     * 任务定义注册完成后完成, 注册失败时异常完成; 非延迟启动模式下{@link #start()}返回时已完成
+     *
+     * @return 就绪状态
+     */
+    public CompletableFuture<Void> getReadyFuture() {
+        return this.taskEngine.getReadyFuture();
+    }
+
+    /**
+     * @return 是否已完成任务定义注册
+     */
+    public boolean isReady() {
+        CompletableFuture<Void> ready = getReadyFuture();
+        return ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    /**
+     * 运行期应用配置中可安全刷新的部分: 结果上报重试策略、长轮询等待时间以及任务类型的线程数、拉取间隔、单次拉取数和长轮询等待时间;
+     * 任务域、HTTP连接池等其余配置需重启后生效
+     *
+     * @param updated 新的配置
+     * @throws IllegalArgumentException 配置不合法, 此时不应用任何变更
+     */
+    public void applyRuntimeConfig(TaskflowConfig updated) {
+        updated.validate();
+        this.taskEngine.applyRuntimeConfig(updated);
+    }
+
+    /**
+     * 运行期调整任务类型的并发数(执行许可总数), 执行线程池同步扩缩容; 缩容不中断执行中的任务
+     *
+     * @param taskType    任务类型
+     * @param threadCount 新的并发数, 不小于1
+     * @return 调整前的并发数
+     */
+    public int setConcurrency(String taskType, int threadCount) {
+        return this.taskEngine.setConcurrency(taskType, threadCount);
+    }
+
+    /**
+     * @return 每个任务类型当前的并发数, 未启动时为空
+     */
+    public Map<String, Integer> getConcurrency() {
+        return this.taskEngine.getConcurrency();
+    }
+
+    /**
+     * 获取每个任务类型的运行时指标快照: 许可占用、拉取速率、执行耗时分位数及结果上报积压
+     *
+     * @return 指标快照, 未启动时为空
+     */
+    public List<WorkerRuntimeStats.Snapshot> getWorkerStats() {
+        return this.taskEngine.getWorkerStats();
+    }
+
+    /**
+     * 添加任务执行耗时监听器, 每个任务执行结束后回调, 可用于将耗时记录到外部指标系统
+     *
+     * @param listener 监听器, 在执行任务的线程中回调, 不应阻塞
+     */
+    public void addExecutionListener(ExecutionListener listener) {
+        this.taskEngine.addExecutionListener(listener);
+    }
+
+    /**
+     * @return WebSocket连接状态, 未启用WebSocket或尚未启动时为null
+     */
+    public ConnectionState getWebSocketState() {
+        return this.taskEngine.getConnectionState();
+    }
+
+    /**
+     * @return 下一次刷新令牌的时间(毫秒), 并非令牌本身的过期时间; 0表示尚未获取令牌
+     */
+    public long getTokenRefreshAtMillis() {
+        return tokenManager.getTokenRefreshAtMillis();
+    }
+
 }
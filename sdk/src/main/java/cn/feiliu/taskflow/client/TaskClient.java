@@ -19,6 +19,7 @@ import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
 import cn.feiliu.taskflow.common.dto.tasks.TaskExecResult;
 import cn.feiliu.taskflow.common.dto.tasks.TaskLog;
 import cn.feiliu.taskflow.common.enums.TaskUpdateStatus;
+import cn.feiliu.taskflow.http.MultiPollRequest;
 import cn.feiliu.taskflow.http.TaskResourceApi;
 
 import java.util.HashMap;
@@ -101,6 +102,16 @@ public class TaskClient {
         return taskResourceApi.batchPoll(taskType, workerId, domain, count, timeoutInMillisecond);
     }
 
+    /**
+     * 一次请求拉取多个任务类型的任务
+     *
+     * @param request 各任务类型的拉取数量
+     * @return 按任务类型分组的任务
+     */
+    public Map<String, List<ExecutingTask>> multiPollTasks(MultiPollRequest request) {
+        return taskResourceApi.multiPoll(request);
+    }
+
     /**
      * 更新任务执行结果
      *
@@ -110,6 +121,15 @@ public class TaskClient {
         taskResourceApi.updateTask(taskResult);
     }
 
+    /**
+     * 批量更新任务执行结果
+     *
+     * @param taskResults 任务执行结果列表
+     */
+    public void batchUpdateTasks(List<TaskExecResult> taskResults) {
+        taskResourceApi.batchUpdateTasks(taskResults);
+    }
+
     /**
      * 根据给定的工作流id和任务引用名称更新任务状态和输出
      *
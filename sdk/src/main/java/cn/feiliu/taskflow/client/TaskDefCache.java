@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.client;
+
+import cn.feiliu.taskflow.executor.task.Worker;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Properties;
+
+/**
+ * 任务定义指纹缓存
+ * <p>
+ * 按工作节点声明的名称、输入、输出、标签、描述及开放状态计算SHA-256指纹, 保存在本地文件中;
+ * 指纹与上次同步成功时一致的任务定义在重启时无需再访问服务端. 缓存读写失败只影响是否跳过, 不影响启动
+ *
+ * @author kevin.luan
+ * @since 2025-06-23
+ */
+public class TaskDefCache {
+    private static final Logger logger       = LoggerFactory.getLogger(TaskDefCache.class);
+    private final Path          file;
+    // 服务端地址, 同一缓存文件可被多个环境共用
+    private final String        scope;
+    private final Properties    fingerprints = new Properties();
+
+    public TaskDefCache(String file, String scope) {
+        this.file = Paths.get(file);
+        this.scope = scope;
+        load();
+    }
+
+    /**
+     * @return 工作节点声明的任务定义与上次同步成功时是否一致
+     */
+    public boolean isUnchanged(Worker worker) {
+        return fingerprint(worker).equals(fingerprints.getProperty(key(worker)));
+    }
+
+    /**
+     * 记录同步成功的任务定义指纹并写回缓存文件
+     *
+     * @param workers 同步成功的工作节点
+     */
+    public synchronized void save(Collection<Worker> workers) {
+        boolean changed = false;
+        for (Worker worker : workers) {
+            changed |= !fingerprint(worker).equals(fingerprints.setProperty(key(worker), fingerprint(worker)));
+        }
+        if (!changed) {
+            return;
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                fingerprints.store(out, "taskflow task definition fingerprints");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("写入任务定义指纹缓存失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 计算工作节点声明的任务定义指纹, 输入参数与顺序无关
+     */
+    static String fingerprint(Worker worker) {
+        String[] inputs = worker.getInputNames().orElse(new String[0]).clone();
+        Arrays.sort(inputs);
+        StringBuilder sb = new StringBuilder("v1");
+        append(sb, worker.getTaskDefName());
+        append(sb, String.join(",", inputs));
+        append(sb, String.join(",", worker.getOutputNames().orElse(new String[0])));
+        append(sb, worker.getTag());
+        append(sb, worker.getDescription());
+        append(sb, String.valueOf(worker.isOpen()));
+        return Hashing.sha256().hashString(sb.toString(), StandardCharsets.UTF_8).toString();
+    }
+
+    private static void append(StringBuilder sb, String value) {
+        // 以长度前缀分隔字段, 避免不同字段拼接出相同内容
+        String v = value == null ? "" : value;
+        sb.append('|').append(v.length()).append(':').append(v);
+    }
+
+    private String key(Worker worker) {
+        return scope + "#" + worker.getTaskDefName();
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            fingerprints.load(in);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("读取任务定义指纹缓存失败: {}", file, e);
+        }
+    }
+}
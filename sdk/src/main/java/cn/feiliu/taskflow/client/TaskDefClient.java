@@ -20,10 +20,12 @@ import cn.feiliu.taskflow.common.utils.StringUtils;
 import cn.feiliu.taskflow.executor.task.Worker;
 import cn.feiliu.taskflow.http.TaskDefResourceApi;
 import com.google.common.collect.Lists;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
 /**
@@ -79,33 +81,116 @@ public class TaskDefClient {
     }
 
     /**
-     * 更新任务定义
+     * 更新任务定义, 与服务端定义相同时不发送更新请求
      *
      * @param worker
+     * @return 是否发送了更新请求
      */
-    public void updateTaskDef(Worker worker) {
+    public boolean updateTaskDef(Worker worker) {
         TaskDefinition taskDefinition = taskDefResourceApi.getTaskDef(worker.getTaskDefName());
+        if (!mergeTaskDefinition(taskDefinition, worker)) {
+            log.debug("task def {} unchanged, skip update", worker.getTaskDefName());
+            return false;
+        }
+        taskDefResourceApi.updateTaskDef(taskDefinition);
+        log.info("update task def {} success", worker.getTaskDefName());
+        return true;
+    }
+
+    /**
+     * 并发创建和更新任务定义, 任一任务定义同步失败时在全部结束后抛出第一个异常
+     *
+     * @param creates     需要创建的任务定义
+     * @param updates     需要更新的任务定义(未变化的会跳过)
+     * @param parallelism 最大并发请求数
+     */
+    public void syncTaskDefs(Collection<Worker> creates, Collection<Worker> updates, int parallelism) {
+        List<Runnable> calls = new ArrayList<>();
+        creates.forEach(worker -> calls.add(() -> createTaskDef(worker)));
+        updates.forEach(worker -> calls.add(() -> updateTaskDef(worker)));
+        if (calls.isEmpty()) {
+            return;
+        }
+        int threads = Math.max(1, Math.min(parallelism, calls.size()));
+        if (threads == 1) {
+            calls.forEach(Runnable::run);
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+            new BasicThreadFactory.Builder().namingPattern("taskflow-taskdef-%d").daemon(true).build());
+        try {
+            List<Future<?>> futures = new ArrayList<>(calls.size());
+            for (Runnable call : calls) {
+                futures.add(executor.submit(call));
+            }
+            RuntimeException failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                            : new IllegalStateException(e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("同步任务定义被中断", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 将工作节点的声明合并到服务端的任务定义
+     *
+     * @return 任务定义是否发生变化
+     */
+    private boolean mergeTaskDefinition(TaskDefinition taskDefinition, Worker worker) {
+        boolean changed = !Objects.equals(taskDefinition.getName(), worker.getTaskDefName());
         taskDefinition.setName(worker.getTaskDefName());
-        worker.getInputNames().ifPresent((names) -> {
+        String[] inputNames = worker.getInputNames().orElse(new String[0]);
+        if (inputNames.length > 0) {
             Map<String, Object> template = new HashMap<>();
-            for (String inputName : names) {
+            for (String inputName : inputNames) {
                 template.put(inputName, "");
             }
-            if (template.size() > 0) {
-                taskDefinition.getInputTemplate().putAll(template);
+            for (Map.Entry<String, Object> entry : template.entrySet()) {
+                if (!Objects.equals(taskDefinition.getInputTemplate().get(entry.getKey()), entry.getValue())) {
+                    changed = true;
+                }
+            }
+            taskDefinition.getInputTemplate().putAll(template);
+            List<String> inputKeys = taskDefinition.getInputKeys();
+            if (inputKeys == null || !new HashSet<>(inputKeys).equals(template.keySet())) {
                 taskDefinition.setInputKeys(Lists.newArrayList(template.keySet()));
+                changed = true;
             }
-        });
-        getTag(worker).ifPresent(taskDefinition::setTag);
-        if (StringUtils.isNotBlank(worker.getDescription())) {
+        }
+        Optional<String> tag = getTag(worker);
+        if (tag.isPresent() && !tag.get().equals(taskDefinition.getTag())) {
+            taskDefinition.setTag(tag.get());
+            changed = true;
+        }
+        if (StringUtils.isNotBlank(worker.getDescription())
+            && !worker.getDescription().equals(taskDefinition.getDescription())) {
             taskDefinition.setDescription(worker.getDescription());
+            changed = true;
         }
-        worker.getOutputNames().ifPresent(outputName -> {
-            taskDefinition.setOutputKeys(Lists.newArrayList(outputName));
-        });
-        taskDefinition.setOpenTask(worker.isOpen());
-        taskDefResourceApi.updateTaskDef(taskDefinition);
-        log.info("update task def {} success", worker.getTaskDefName());
+        Optional<String[]> outputNames = worker.getOutputNames();
+        if (outputNames.isPresent() && !Lists.newArrayList(outputNames.get()).equals(taskDefinition.getOutputKeys())) {
+            taskDefinition.setOutputKeys(Lists.newArrayList(outputNames.get()));
+            changed = true;
+        }
+        if (taskDefinition.isOpenTask() != worker.isOpen()) {
+            taskDefinition.setOpenTask(worker.isOpen());
+            changed = true;
+        }
+        return changed;
     }
 
     private Optional<String> getTag(Worker worker) {
@@ -17,17 +17,28 @@ package cn.feiliu.taskflow.core;
 import com.google.common.reflect.ClassPath;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Objects;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 
 /**
+ * 扫描工作节点类
+ * <p>
+ * 优先读取taskflow-sdk-processor在编译期生成的索引({@value #INDEX_RESOURCE}), 按包分别判断: 索引中没有匹配类的包回退为遍历类路径.
+ * 索引以包为单位生效, 同一个包下的工作节点需全部由处理器编译生成索引, 否则未编入索引的类不会被扫描到
+ *
  * @author SHOUSHEN.LUAN
  * @since 2024-08-24
  */
 @Slf4j
 public class ScanClasses {
+    /**
+     * 编译期生成的工作节点索引, 每行一个类名
+     */
+    public static final String INDEX_RESOURCE = "META-INF/taskflow/workers";
 
     public static List<Object> scan(String basePackage) {
         Objects.requireNonNull(basePackage, "basePackage cannot be null");
@@ -39,24 +50,29 @@ public class ScanClasses {
             Collections.addAll(packagesToScan, packages);
             log.info("packages to scan {}", packagesToScan);
 
+            Set<String> indexed = readIndex(packagesToScan);
+            indexed.forEach(name -> newInstance(name, workers));
+            List<String> unindexed = new ArrayList<>();
+            for (String pkg : packagesToScan) {
+                if (indexed.stream().noneMatch(name -> name.startsWith(pkg))) {
+                    unindexed.add(pkg);
+                }
+            }
+            if (unindexed.isEmpty()) {
+                log.info("Took {} ms to load {} indexed classes, scan {} worker", (System.currentTimeMillis() - s),
+                    indexed.size(), workers.size());
+                return workers;
+            }
+            log.info("packages without worker index {}, scanning classpath", unindexed);
             ClassPath.from(TaskEngine.class.getClassLoader())
                     .getAllClasses()
                     .forEach(
                             classMeta -> {
                                 String name = classMeta.getName();
-                                if (!includePackage(packagesToScan, name)) {
+                                if (!includePackage(unindexed, name) || indexed.contains(name)) {
                                     return;
                                 }
-                                try {
-                                    Class<?> clazz = classMeta.load();
-                                    workers.add(clazz.getConstructor().newInstance());
-                                } catch (Throwable t) {
-                                    // trace because many classes won't have a default no-args
-                                    // constructor and will fail
-                                    log.trace(
-                                            "Caught exception while loading and scanning class {}",
-                                            t.getMessage());
-                                }
+                                newInstance(name, workers);
                             });
         } catch (Exception e) {
             log.error("Error while scanning for workers: ", e);
@@ -65,6 +81,39 @@ public class ScanClasses {
         return workers;
     }
 
+    private static void newInstance(String name, List<Object> workers) {
+        try {
+            Class<?> clazz = Class.forName(name, false, TaskEngine.class.getClassLoader());
+            workers.add(clazz.getConstructor().newInstance());
+        } catch (Throwable t) {
+            // trace because many classes won't have a default no-args
+            // constructor and will fail
+            log.trace("Caught exception while loading and scanning class {}", t.getMessage());
+        }
+    }
+
+    /**
+     * 读取类路径上所有索引文件中属于扫描包的类名
+     */
+    private static Set<String> readIndex(List<String> packagesToScan) throws IOException {
+        Set<String> names = new LinkedHashSet<>();
+        Enumeration<URL> resources = TaskEngine.class.getClassLoader().getResources(INDEX_RESOURCE);
+        while (resources.hasMoreElements()) {
+            URL url = resources.nextElement();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(),
+                StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#") && includePackage(packagesToScan, line)) {
+                        names.add(line);
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
     private static boolean includePackage(List<String> packagesToScan, String name) {
         for (String scanPkg : packagesToScan) {
             if (name.startsWith(scanPkg))
@@ -15,18 +15,26 @@
 package cn.feiliu.taskflow.core;
 
 import cn.feiliu.taskflow.annotations.WorkerTask;
+import cn.feiliu.taskflow.automator.ExecutionListener;
 import cn.feiliu.taskflow.automator.TaskRunnerConfigurer;
+import cn.feiliu.taskflow.automator.WorkerRuntimeStats;
+import cn.feiliu.taskflow.automator.tracing.TaskTracers;
 import cn.feiliu.taskflow.client.ApiClient;
+import cn.feiliu.taskflow.client.TaskDefCache;
+import cn.feiliu.taskflow.client.TaskDefClient;
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
 import cn.feiliu.taskflow.common.exceptions.ApiException;
+import cn.feiliu.taskflow.common.utils.StringUtils;
 import cn.feiliu.taskflow.executor.task.AnnotatedWorker;
 import cn.feiliu.taskflow.executor.task.Worker;
 import cn.feiliu.taskflow.executor.task.WorkerWrapper;
 import cn.feiliu.taskflow.utils.TaskflowConfig;
-import cn.feiliu.taskflow.ws.AutoReconnectClient;
-import cn.feiliu.taskflow.ws.MessageType;
-import cn.feiliu.taskflow.ws.WebSocketClient;
+import cn.feiliu.taskflow.ws.*;
 import cn.feiliu.taskflow.ws.msg.SubTaskPayload;
+import cn.feiliu.taskflow.ws.msg.TaskPushPayload;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +42,8 @@ import org.slf4j.LoggerFactory;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static cn.feiliu.common.api.utils.CommonUtils.f;
@@ -45,20 +55,28 @@ import static cn.feiliu.common.api.utils.CommonUtils.f;
  * @since 2024-06-15
  */
 public class TaskEngine {
-    private static final Logger          LOGGER          = LoggerFactory.getLogger(TaskEngine.class);
+    private static final Logger           LOGGER                    = LoggerFactory.getLogger(TaskEngine.class);
+    // 注册任务定义时的最大并发请求数
+    private static final int              TASK_DEF_SYNC_PARALLELISM = 8;
     @Getter
-    private ApiClient                    client;
+    private ApiClient                     client;
 
-    private TaskRunnerConfigurer         taskRunner;
+    private TaskRunnerConfigurer          taskRunner;
 
-    protected List<Worker>               workerList      = new ArrayList<>();
+    protected List<Worker>                workerList                = new ArrayList<>();
 
-    private Map<String, Method>          workerToMethod  = new HashMap<>();
+    private Map<String, Method>           workerToMethod            = new HashMap<>();
 
-    protected Map<String, WorkerWrapper> workerMapping   = new HashMap<>();
+    protected Map<String, WorkerWrapper>  workerMapping             = new HashMap<>();
 
-    private Map<String, Object>          workerClassObjs = new HashMap<>();
-    private AutoReconnectClient          wcClient;
+    private Map<String, Object>           workerClassObjs           = new HashMap<>();
+    private AutoReconnectClient           wcClient;
+    private WorkerConcurrency             mxBean;
+    private List<ConnectionStateListener> stateListeners            = new CopyOnWriteArrayList<>();
+    private List<ExecutionListener>       executionListeners        = new CopyOnWriteArrayList<>();
+    // 任务定义注册完成
+    @Getter
+    private final CompletableFuture<Void> readyFuture               = new CompletableFuture<>();
 
     public TaskEngine(ApiClient client) {
         this.client = client;
@@ -68,11 +86,37 @@ public class TaskEngine {
      * Shuts down the workers
      */
     public void shutdown() {
+        if (mxBean != null) {
+            mxBean.unregister();
+        }
+        if (wcClient != null) {
+            wcClient.stop();
+        }
         if (taskRunner != null) {
             taskRunner.shutdown();
         }
     }
 
+    /**
+     * 添加WebSocket连接状态监听器, 需在启动前添加
+     *
+     * @param listener 监听器
+     */
+    public TaskEngine addConnectionStateListener(ConnectionStateListener listener) {
+        stateListeners.add(listener);
+        return this;
+    }
+
+    /**
+     * 添加任务执行耗时监听器, 启动前后均可添加
+     *
+     * @param listener 监听器
+     */
+    public TaskEngine addExecutionListener(ExecutionListener listener) {
+        executionListeners.add(listener);
+        return this;
+    }
+
     /**
      * Register the worker implementation
      *
@@ -119,11 +163,12 @@ public class TaskEngine {
             workerToMethod.put(name, method);
         } else {
             Class<?> clazz = bean.getClass();
-            for (Method method : clazz.getMethods()) {
-                WorkerTask worker = method.getAnnotation(WorkerTask.class);
-                if (worker == null) {
+            for (Method m : clazz.getMethods()) {
+                Method method = findWorkerTaskMethod(clazz, m);
+                if (method == null) {
                     continue;
                 }
+                WorkerTask worker = method.getAnnotation(WorkerTask.class);
                 client.getTaskHandlerManager().registerTask(worker, bean, method);
                 workerMapping.put(worker.value(), WorkerWrapper.of(worker));
                 workerClassObjs.put(worker.value(), bean);
@@ -132,55 +177,152 @@ public class TaskEngine {
         }
     }
 
+    /**
+     * 查找标注了@WorkerTask的方法, 子类(如CGLIB代理类)重写的方法不带注解时使用父类中声明的方法,
+     * 反射调用时仍按实例的实际类型分派
+     */
+    private static Method findWorkerTaskMethod(Class<?> clazz, Method method) {
+        if (method.isAnnotationPresent(WorkerTask.class)) {
+            return method;
+        }
+        for (Class<?> c = clazz.getSuperclass(); c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                Method declared = c.getDeclaredMethod(method.getName(), method.getParameterTypes());
+                if (declared.isAnnotationPresent(WorkerTask.class)) {
+                    return declared;
+                }
+            } catch (NoSuchMethodException e) {
+                // 继续查找上一级父类
+            }
+        }
+        return null;
+    }
+
     /**
      * 初始化工作任务节点
      */
     private TaskEngine initWorkerTasks() {
+        TaskflowConfig config = client.getConfig();
+        workerMapping.forEach((taskName, wrapper) -> wrapper.setOverride(config.getWorkerConfig(taskName)));
         this.initWorkerExecutor();
         if (workerList.isEmpty()) {
             LOGGER.info("No workers to start");
         }
         this.taskRunner = new TaskRunnerConfigurer.Builder(client, workerList)//
             .withWorkerMapping(workerMapping)//
+            .withTaskTracer(TaskTracers.create(client.getConfig().getTraceSampleRatio()))//
+            .withPrefetchDepth(client.getConfig().getPrefetchDepth())//
+            .withPrefetchMaxHoldSeconds(client.getConfig().getPrefetchMaxHoldSeconds())//
+            .withLeaseExtension(client.getConfig().getLeaseExtendThresholdSeconds(),
+                client.getConfig().getLeaseExtendSeconds())//
+            .withPushDispatch(client.getConfig().isPushDispatch())//
+            .withMultiPoll(client.getConfig().isMultiPoll())//
+            .withUpdateRetryCount(config.getUpdateRetryCount())//
+            .withSleepWhenRetry(config.getSleepWhenRetry())//
+            .withShutdownGracePeriodSeconds(config.getShutdownGracePeriodSeconds())//
+            .withPollTimeoutMillis(config.getPollTimeoutMillis())//
+            .withExecutionBackend(config.getExecutionBackend())//
             .build();
         this.taskRunner.init();
-        registerAndUpdateTasks();
+        this.taskRunner.addExecutionListener((taskType, nanos) -> {
+            for (ExecutionListener listener : executionListeners) {
+                listener.onExecuted(taskType, nanos);
+            }
+        });
+        if (config.isJmxEnabled()) {
+            this.mxBean = new WorkerConcurrency(this);
+            this.mxBean.register(config.getKeyId());
+        }
         return this;
     }
 
     /**
      * 初始化并运行任务
+     * <p>
+     * 延迟启动模式下先开始拉取任务, 任务定义注册在后台执行, 完成情况见{@link #getReadyFuture()}
      */
     public void start() {
         this.initWorkerTasks();
-        this.startRunningTasks();
+        try {
+            validateTaskDefNames();
+        } catch (RuntimeException e) {
+            readyFuture.completeExceptionally(e);
+            throw e;
+        }
+        if (client.getConfig().isLazyStartup()) {
+            this.startRunningTasks();
+            Thread thread = new Thread(this::registerInBackground, "taskflow-startup");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            try {
+                registerAndUpdateTasks();
+            } catch (RuntimeException e) {
+                readyFuture.completeExceptionally(e);
+                throw e;
+            }
+            this.startRunningTasks();
+            readyFuture.complete(null);
+        }
+    }
+
+    private void registerInBackground() {
+        long start = System.currentTimeMillis();
+        try {
+            registerAndUpdateTasks();
+            LOGGER.info("任务定义注册完成, 耗时{}ms", System.currentTimeMillis() - start);
+            readyFuture.complete(null);
+        } catch (Throwable t) {
+            LOGGER.error("任务定义注册失败: {}", t.getMessage(), t);
+            readyFuture.completeExceptionally(t);
+        }
+    }
+
+    /**
+     * 校验任务名称格式
+     */
+    private void validateTaskDefNames() {
+        for (Worker worker : this.workerList) {
+            if (!worker.getTaskDefName().matches("^[a-zA-Z][a-zA-Z0-9_]{0,29}$")) {
+                throw new IllegalStateException(f("工作任务名称:'%s'不合法，格式要求：字母开头，限制包含字母数字下划线，最大30字符",
+                    worker.getTaskDefName()));
+            }
+        }
     }
 
     /**
      * 注册和更新任务定义
+     * <p>
+     * 一次拉取已注册的任务名称, 未变化的任务定义不发送更新请求, 其余创建/更新请求并发发送;
+     * 配置了指纹缓存时, 指纹与上次同步一致的任务定义直接跳过
      */
     private void registerAndUpdateTasks() {
         if (workerList.size() > 0) {
-            Set<String> taskDefNames = getClient().getApis().getTaskDefClient().getTaskNames();
+            TaskDefClient taskDefClient = getClient().getApis().getTaskDefClient();
+            TaskflowConfig config = getClient().getConfig();
+            TaskDefCache cache = StringUtils.isNotBlank(config.getTaskDefCacheFile()) ? new TaskDefCache(
+                config.getTaskDefCacheFile(), config.getBaseUrl()) : null;
+            Set<String> taskDefNames = taskDefClient.getTaskNames();
             List<String> missingNames = new ArrayList<>();
+            List<Worker> creates = new ArrayList<>();
+            List<Worker> updates = new ArrayList<>();
             for (Worker worker : this.workerList) {
-                if (worker.getTaskDefName().matches("^[a-zA-Z][a-zA-Z0-9_]{0,29}$")) {
-                    if (taskDefNames.contains(worker.getTaskDefName())) {
-                        if (getClient().getConfig().isUpdateExisting()) {
-                            getClient().getApis().getTaskDefClient().updateTaskDef(worker);
-                        }
-                    } else {
-                        if (getClient().getConfig().isAutoRegister()) {
-                            getClient().getApis().getTaskDefClient().createTaskDef(worker);
-                        } else {
-                            missingNames.add(worker.getTaskDefName());
-                        }
+                if (taskDefNames.contains(worker.getTaskDefName())) {
+                    if (config.isUpdateExisting() && (cache == null || !cache.isUnchanged(worker))) {
+                        updates.add(worker);
                     }
                 } else {
-                    throw new IllegalStateException(f("工作任务名称:'%s'不合法，格式要求：字母开头，限制包含字母数字下划线，最大30字符",
-                        worker.getTaskDefName()));
+                    if (config.isAutoRegister()) {
+                        creates.add(worker);
+                    } else {
+                        missingNames.add(worker.getTaskDefName());
+                    }
                 }
             }
+            taskDefClient.syncTaskDefs(creates, updates, TASK_DEF_SYNC_PARALLELISM);
+            if (cache != null) {
+                cache.save(Lists.newArrayList(Iterables.concat(creates, updates)));
+            }
             if (missingNames.size() > 0) {
                 String names = String.join(",", missingNames);
                 String msg = f("任务 [%s] 未注册，请访问平台注册：%s", names, "https://console.taskflow.cn/taskDef");
@@ -208,13 +350,32 @@ public class TaskEngine {
         String userId = WebSocketClient.generateUniqueUserId(config.getKeyId());
         String keyId = config.getKeyId();
         String keySecret = config.getKeySecret();
-        wcClient = new AutoReconnectClient(wcUrl, userId, keyId, keySecret, (message) -> {
+        wcClient = new AutoReconnectClient(wcUrl, userId, keyId, keySecret, client.getHttpClient(), (message) -> {
             Optional<MessageType> optional = MessageType.fromValue(message.getType());
             if (optional.isPresent()) {
                 if (optional.get() == MessageType.CONNECTION) {
                     LOGGER.info("✅ 连接建立确认: {}", message.getDescription());
                 } else if (optional.get() == MessageType.PONG) {
                     LOGGER.debug("❤️ 收到心跳响应");
+                } else if (optional.get() == MessageType.TASK_PUSH) {
+                    TaskPushPayload payload = message.getData(TaskPushPayload.class);
+                    SubscriptionManager subscriptions = wcClient.getSubscriptionManager();
+                    // 每个推送的任务消耗服务端的一个额度
+                    payload.getTasks().stream().collect(Collectors.groupingBy(ExecutingTask::getTaskDefName,
+                        Collectors.counting())).forEach((taskName, count) -> subscriptions.onPushed(taskName,
+                        count.intValue()));
+                    List<ExecutingTask> rejected = taskRunner.executePushedTasks(payload.getTasks());
+                    List<String> rejectedIds = rejected.stream().map(ExecutingTask::getTaskId)
+                        .collect(Collectors.toList());
+                    List<String> acceptedIds = payload.getTasks().stream().map(ExecutingTask::getTaskId)
+                        .filter(taskId -> !rejectedIds.contains(taskId)).collect(Collectors.toList());
+                    wcClient.sendTaskAck(acceptedIds, rejectedIds);
+                    subscriptions.awaitRelease(payload.getTasks().stream().map(ExecutingTask::getTaskDefName)
+                        .collect(Collectors.toSet()));
+                    if (!rejected.isEmpty()) {
+                        subscriptions.onRejected(rejected.stream().map(ExecutingTask::getTaskDefName)
+                            .collect(Collectors.toSet()));
+                    }
                 } else if (optional.get() == MessageType.SUB_TASK) {
                     LOGGER.debug("任务通知: `{}`, data: `{}`", message.getDescription(), message.getData());
                     SubTaskPayload payload = message.getData(SubTaskPayload.class);
@@ -232,10 +393,29 @@ public class TaskEngine {
         });
         wcClient.setOnConnectedCallback(() -> {
             LOGGER.info("🎉 WebSocket连接成功建立");
-            List<String> names = workerList.stream().map((w) -> w.getTaskDefName()).collect(Collectors.toList());
-            wcClient.subTasks(names);
-            wcClient.sendPing();
+            // 兼容不支持subscribe_v2消息的服务端
+            wcClient.subTasks(new ArrayList<>(wcClient.getSubscriptionManager().getSubscriptions()));
+            // 断开期间可能错过任务通知, 重连后全部拉取一次
+            broadcast();
+        });
+        wcClient.setReconnectPolicy(ReconnectPolicy.decorrelatedJitter(config.getReconnectBaseDelayMillis(),
+            config.getReconnectMaxDelayMillis()));
+        wcClient.addConnectionStateListener((previous, current) -> {
+            if (previous == ConnectionState.CONNECTED && current == ConnectionState.DISCONNECTED) {
+                // 推送通道断开, 立即拉取一次, 之后按正常轮询间隔拉取直到重连成功
+                broadcast();
+            }
         });
+        stateListeners.forEach(wcClient::addConnectionStateListener);
+        SubscriptionManager subscriptions = wcClient.getSubscriptionManager();
+        subscriptions.setCapacitySupplier(taskRunner::getAvailableCapacity);
+        subscriptions.subscribe(workerList.stream().map(Worker::getTaskDefName).collect(Collectors.toList()));
+        taskRunner.setCapacityListener(subscriptions::onCapacityChanged);
+        subscriptions.setReleaseWaiter(taskRunner::onCapacityReleased);
+        wcClient.enableHeartbeat(TimeUnit.SECONDS.toMillis(config.getHeartbeatIntervalSeconds()),
+            config.getHeartbeatMaxMissed());
+        taskRunner.getWorkerScheduling().setPushConnected(wcClient::isConnected);
+        taskRunner.setPushResultSender(wcClient::sendTaskResult);
         return wcClient.connect();
     }
 
@@ -262,6 +442,122 @@ public class TaskEngine {
         return Collections.unmodifiableList(workerList);
     }
 
+    /**
+     * 运行期调整任务类型的并发数, 执行线程池同步扩缩容
+     *
+     * @param taskType    任务类型
+     * @param threadCount 新的并发数, 不小于1
+     * @return 调整前的并发数
+     * @throws IllegalStateException    尚未启动
+     * @throws IllegalArgumentException 任务类型不存在或并发数小于1
+     */
+    public synchronized int setConcurrency(String taskType, int threadCount) {
+        int previous = requireTaskRunner().setConcurrency(taskType, threadCount);
+        WorkerWrapper wrapper = workerMapping.get(taskType);
+        TaskflowConfig.WorkerConfig override = wrapper.getOverride();
+        if (override == null) {
+            override = new TaskflowConfig.WorkerConfig();
+            wrapper.setOverride(override);
+        }
+        // 记录到覆盖参数中, 之后的配置刷新未指定线程数时保留该值
+        override.setThreadCount(threadCount);
+        return previous;
+    }
+
+    /**
+     * 获取每个任务类型当前的并发数
+     *
+     * @return 任务类型到并发数的映射, 未启动时为空
+     */
+    public Map<String, Integer> getConcurrency() {
+        TaskRunnerConfigurer runner = this.taskRunner;
+        Map<String, Integer> concurrency = new LinkedHashMap<>();
+        if (runner != null) {
+            for (Worker worker : workerList) {
+                concurrency.put(worker.getTaskDefName(), runner.getConcurrency(worker.getTaskDefName()));
+            }
+        }
+        return concurrency;
+    }
+
+    private TaskRunnerConfigurer requireTaskRunner() {
+        TaskRunnerConfigurer runner = this.taskRunner;
+        if (runner == null) {
+            throw new IllegalStateException("TaskEngine尚未启动");
+        }
+        return runner;
+    }
+
+    /**
+     * 应用配置中可在运行期刷新的部分, 任务域保持不变; 配置了线程数的任务类型同步调整并发数
+     *
+     * @param updated 已校验的新配置
+     */
+    public synchronized void applyRuntimeConfig(TaskflowConfig updated) {
+        TaskflowConfig config = client.getConfig();
+        config.setUpdateRetryCount(updated.getUpdateRetryCount());
+        config.setSleepWhenRetry(updated.getSleepWhenRetry());
+        config.setPollTimeoutMillis(updated.getPollTimeoutMillis());
+        Map<String, TaskflowConfig.WorkerConfig> workers = new LinkedHashMap<>();
+        workerMapping.forEach((taskName, wrapper) -> {
+            TaskflowConfig.WorkerConfig current = wrapper.getOverride();
+            TaskflowConfig.WorkerConfig refreshed = new TaskflowConfig.WorkerConfig();
+            TaskflowConfig.WorkerConfig source = updated.getWorkerConfig(taskName);
+            if (current != null) {
+                refreshed.setThreadCount(current.getThreadCount());
+                refreshed.setDomain(current.getDomain());
+            }
+            if (source != null) {
+                refreshed.setPollingInterval(source.getPollingInterval());
+                refreshed.setBatchSize(source.getBatchSize());
+                refreshed.setPollTimeoutMillis(source.getPollTimeoutMillis());
+                if (source.getThreadCount() != null) {
+                    refreshed.setThreadCount(source.getThreadCount());
+                }
+            }
+            wrapper.setOverride(refreshed);
+            workers.put(taskName, refreshed);
+        });
+        config.setWorkers(workers);
+        TaskRunnerConfigurer runner = this.taskRunner;
+        if (runner != null) {
+            runner.setUpdateRetry(updated.getUpdateRetryCount(), updated.getSleepWhenRetry());
+            runner.setPollTimeoutMillis(updated.getPollTimeoutMillis());
+            workers.forEach((taskName, worker) -> {
+                int threadCount = workerMapping.get(taskName).threadCount();
+                if (runner.getConcurrency(taskName) != threadCount) {
+                    runner.setConcurrency(taskName, threadCount);
+                }
+            });
+        }
+        for (Worker worker : workerList) {
+            if (worker instanceof AnnotatedWorker) {
+                ((AnnotatedWorker) worker).setPollingInterval(workerMapping.get(worker.getTaskDefName())
+                    .pollingInterval());
+            }
+        }
+        LOGGER.info("已刷新运行期配置: updateRetryCount={}, sleepWhenRetry={}, pollTimeoutMillis={}, workers={}",
+            updated.getUpdateRetryCount(), updated.getSleepWhenRetry(), updated.getPollTimeoutMillis(), workers);
+    }
+
+    /**
+     * 获取每个任务类型的运行时指标快照
+     *
+     * @return 指标快照, 未启动时为空
+     */
+    public List<WorkerRuntimeStats.Snapshot> getWorkerStats() {
+        TaskRunnerConfigurer runner = this.taskRunner;
+        return runner == null ? Collections.emptyList() : runner.getWorkerStats();
+    }
+
+    /**
+     * @return WebSocket连接状态, 未启用WebSocket或尚未启动时为null
+     */
+    public ConnectionState getConnectionState() {
+        AutoReconnectClient ws = this.wcClient;
+        return ws == null ? null : ws.getConnectionState();
+    }
+
     @VisibleForTesting
     TaskRunnerConfigurer getTaskRunner() {
         return taskRunner;
@@ -48,6 +48,8 @@ public class TokenManager implements AutoCloseable {
     private String                         keySecret;
     private final String                   TOKEN                 = "tf_token";
     private final RateLimiter              rateLimiter           = RateLimiter.create(1);
+    // 下一次从服务端刷新令牌的时间(毫秒), 即本地缓存失效时间而非令牌本身的过期时间, 0表示尚未获取令牌
+    private volatile long                  tokenRefreshAtMillis;
 
     public TokenManager(AuthClient authClient, String keyId, String keySecret) {
         this.authClient = Objects.requireNonNull(authClient, "authClient Cannot be null");
@@ -69,6 +71,20 @@ public class TokenManager implements AutoCloseable {
         }
     }
 
+    /**
+     * 启动调度程序并在后台初始化令牌, 不阻塞调用线程; 首次请求时如令牌仍在获取中则等待同一次获取结果
+     */
+    public void shouldStartSchedulerAndInitializeTokenAsync() {
+        scheduleTokenRefresh();
+        tokenRefreshService.execute(() -> {
+            try {
+                getBearerToken();
+            } catch (Throwable t) {
+                log.error(t.getMessage(), t);
+            }
+        });
+    }
+
     /**
      * 调度令牌刷新
      */
@@ -92,7 +108,9 @@ public class TokenManager implements AutoCloseable {
     private String refreshAndGetBearerToken() {
         log.info("Refreshing Token {}", new Timestamp(System.currentTimeMillis()));
         TokenResponse response = authClient.refreshToken();
-        return AuthTokenUtil.constructBearerToken(response.getAccessToken());
+        String token = AuthTokenUtil.constructBearerToken(response.getAccessToken());
+        tokenRefreshAtMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(tokenRefreshInSeconds);
+        return token;
     }
 
     @SneakyThrows
@@ -106,6 +124,13 @@ public class TokenManager implements AutoCloseable {
         }
     }
 
+    /**
+     * @return 下一次刷新令牌的时间(毫秒), 到期前由后台线程刷新; 0表示尚未获取令牌
+     */
+    public long getTokenRefreshAtMillis() {
+        return tokenRefreshAtMillis;
+    }
+
     public String constructCredentials() {
         return AuthTokenUtil.constructCredentials(keyId, keySecret);
     }
@@ -122,6 +147,7 @@ public class TokenManager implements AutoCloseable {
         if (rateLimiter.tryAcquire()) {
             log.info("flush token");
             CACHE.invalidateAll();
+            tokenRefreshAtMillis = 0;
         }
     }
 }
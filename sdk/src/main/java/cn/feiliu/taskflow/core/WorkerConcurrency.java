@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.core;
+
+import cn.feiliu.taskflow.automator.WorkerRuntimeStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 注册到平台MBeanServer的并发数管理对象, 名称为{@code cn.feiliu.taskflow:type=WorkerConcurrency,name="<keyId>"}
+ *
+ * @author kevin.luan
+ * @since 2025-06-28
+ */
+class WorkerConcurrency implements WorkerConcurrencyMXBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkerConcurrency.class);
+    private final TaskEngine    engine;
+    private ObjectName          objectName;
+
+    WorkerConcurrency(TaskEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public Map<String, Integer> getConcurrency() {
+        return engine.getConcurrency();
+    }
+
+    @Override
+    public Map<String, Integer> getPermitsInUse() {
+        Map<String, Integer> permitsInUse = new LinkedHashMap<>();
+        for (WorkerRuntimeStats.Snapshot snapshot : engine.getWorkerStats()) {
+            permitsInUse.put(snapshot.getTaskType(), snapshot.getPermitsInUse());
+        }
+        return permitsInUse;
+    }
+
+    @Override
+    public int setConcurrency(String taskType, int threadCount) {
+        return engine.setConcurrency(taskType, threadCount);
+    }
+
+    /**
+     * 注册到平台MBeanServer, 同名对象已存在(同一进程中多个客户端使用相同keyId)时跳过
+     *
+     * @param keyId 开发者key
+     */
+    synchronized void register(String keyId) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName("cn.feiliu.taskflow:type=WorkerConcurrency,name="
+                                             + ObjectName.quote(String.valueOf(keyId)));
+            server.registerMBean(this, name);
+            objectName = name;
+            LOGGER.info("Registered JMX MBean {}", name);
+        } catch (InstanceAlreadyExistsException e) {
+            LOGGER.warn("JMX MBean already registered, skipped: {}", e.getMessage());
+        } catch (JMException e) {
+            LOGGER.warn("Unable to register JMX MBean: {}", e.getMessage());
+        }
+    }
+
+    synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            LOGGER.debug("Unable to unregister JMX MBean {}: {}", objectName, e.getMessage());
+        }
+        objectName = null;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.core;
+
+import java.util.Map;
+
+/**
+ * 任务类型并发数的JMX管理接口
+ *
+ * @author kevin.luan
+ * @since 2025-06-28
+ */
+public interface WorkerConcurrencyMXBean {
+
+    /**
+     * @return 每个任务类型当前的并发数(执行许可总数)
+     */
+    Map<String, Integer> getConcurrency();
+
+    /**
+     * @return 每个任务类型已占用的执行许可数
+     */
+    Map<String, Integer> getPermitsInUse();
+
+    /**
+     * 调整任务类型的并发数, 执行中的任务不受影响
+     *
+     * @param taskType    任务类型
+     * @param threadCount 新的并发数, 不小于1
+     * @return 调整前的并发数
+     */
+    int setConcurrency(String taskType, int threadCount);
+}
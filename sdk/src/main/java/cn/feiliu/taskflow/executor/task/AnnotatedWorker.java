@@ -46,6 +46,10 @@ public class AnnotatedWorker implements Worker {
     private Object                obj;
 
     private int                   pollingInterval = 100;
+    // 编译期生成的调用器, 未生成时为null并使用反射调用
+    private final WorkerInvoker   invoker;
+
+    private final OutputParam     outputParam;
 
     private Set<TaskUpdateStatus> failedStatuses  = Sets.newHashSet(TaskUpdateStatus.FAILED,
                                                       TaskUpdateStatus.FAILED_WITH_TERMINAL_ERROR);
@@ -54,6 +58,12 @@ public class AnnotatedWorker implements Worker {
         this.workerWrapper = workerWrapper;
         this.workerMethod = workerMethod;
         this.obj = obj;
+        this.invoker = obj == null ? null : WorkerInvokers.find(obj.getClass(), workerWrapper.value()).orElse(null);
+        if (invoker != null) {
+            log.debug("use generated invoker for task {}", workerWrapper.value());
+        }
+        OutputParam opAnnotation = workerMethod.getAnnotatedReturnType().getAnnotation(OutputParam.class);
+        this.outputParam = opAnnotation != null ? opAnnotation : workerMethod.getAnnotation(OutputParam.class);
     }
 
     /**
@@ -142,8 +152,12 @@ public class AnnotatedWorker implements Worker {
         TaskExecResult result = null;
         try {
             TaskContext context = TaskContext.set(task);
-            Object[] parameters = getInvocationParameters(task);
-            Object invocationResult = workerMethod.invoke(obj, parameters);
+            Object invocationResult;
+            if (invoker != null) {
+                invocationResult = invoker.invoke(obj, task);
+            } else {
+                invocationResult = workerMethod.invoke(obj, getInvocationParameters(task));
+            }
             result = setValue(invocationResult, context.getTaskResult());
             if (!failedStatuses.contains(result.getStatus()) && result.getCallbackAfterSeconds() > 0) {
                 result.setStatus(TaskUpdateStatus.IN_PROGRESS);
@@ -211,47 +225,18 @@ public class AnnotatedWorker implements Worker {
             return EncoderFactory.getJsonEncoder().convert(task.getInputData(), parameterType);
         }
         InputParam inputParam = optional.get();
-        final Object value = task.getInputData().get(inputParam.value());
+        final Object value = WorkerInvokers.input(task, inputParam.value(), inputParam.required());
         if (value == null) {
-            if (inputParam.required()) {
-                throw new IllegalArgumentException(String.format("缺少必须得参数：'%s'", inputParam.value()));
-            }
             return null;
         }
         if (List.class.isAssignableFrom(parameterType)) {
-            List<?> list = safeConvertList(inputParam, value);
+            Class<?> typeOfParameter = null;
             if (type instanceof ParameterizedType) {
-                ParameterizedType parameterizedType = (ParameterizedType) type;
-                Class<?> typeOfParameter = (Class<?>) parameterizedType.getActualTypeArguments()[0];
-                List<Object> parameterizedList = new ArrayList<>();
-                for (Object item : list) {
-                    parameterizedList.add(safeConvert(inputParam, item, typeOfParameter));
-                }
-
-                return parameterizedList;
-            } else {
-                return list;
+                typeOfParameter = (Class<?>) ((ParameterizedType) type).getActualTypeArguments()[0];
             }
+            return WorkerInvokers.convertList(inputParam.value(), value, typeOfParameter);
         } else {
-            return safeConvert(inputParam, value, parameterType);
-        }
-    }
-
-    private List<?> safeConvertList(InputParam ip, Object value) {
-        try {
-            return EncoderFactory.getJsonEncoder().convert(value, List.class);
-        } catch (Throwable t) {
-            String msg = String.format("数据转换 List 类型出错, 参数:'%s', 数据: `%s`", ip.value(), value);
-            throw new IllegalArgumentException(msg, t);
-        }
-    }
-
-    private Object safeConvert(InputParam ip, Object value, Class<?> type) {
-        try {
-            return EncoderFactory.getJsonEncoder().convert(value, type);
-        } catch (Throwable e) {
-            String msg = String.format("数据转换出错，参数:'%s', 类型: '%s', 数据: `%s`", ip.value(), type, value);
-            throw new IllegalArgumentException(msg, e);
+            return WorkerInvokers.convert(inputParam.value(), value, parameterType);
         }
     }
 
@@ -269,12 +254,8 @@ public class AnnotatedWorker implements Worker {
             result.setStatus(TaskUpdateStatus.COMPLETED);
             return result;
         }
-        OutputParam opAnnotation = workerMethod.getAnnotatedReturnType().getAnnotation(OutputParam.class);
-        if (opAnnotation == null) {
-            opAnnotation = workerMethod.getAnnotation(OutputParam.class);
-        }
-        if (opAnnotation != null) {
-            String name = opAnnotation.value();
+        if (outputParam != null) {
+            String name = outputParam.value();
             result.getOutputData().put(name, invocationResult);
             result.setStatus(TaskUpdateStatus.COMPLETED);
             return result;
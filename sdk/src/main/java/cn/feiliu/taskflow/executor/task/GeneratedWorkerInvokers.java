@@ -0,0 +1,31 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.executor.task;
+
+import java.util.Map;
+
+/**
+ * taskflow-sdk-processor为每个包含{@code @WorkerTask}方法的类生成的调用器集合,
+ * 类名为工作节点类名(嵌套类以'_'连接)加{@value WorkerInvokers#SUFFIX}
+ *
+ * @author kevin.luan
+ * @since 2025-06-24
+ */
+public interface GeneratedWorkerInvokers {
+    /**
+     * @return 任务名称到调用器的映射
+     */
+    Map<String, WorkerInvoker> getInvokers();
+}
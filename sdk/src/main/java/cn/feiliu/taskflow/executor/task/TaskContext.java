@@ -14,6 +14,7 @@
  */
 package cn.feiliu.taskflow.executor.task;
 
+import cn.feiliu.taskflow.automator.tracing.TaskSpan;
 import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
 import cn.feiliu.taskflow.common.dto.tasks.TaskExecResult;
 
@@ -26,6 +27,7 @@ public class TaskContext {
     public TaskContext(ExecutingTask task, TaskExecResult taskResult) {
         this.task = task;
         this.taskResult = taskResult;
+        this.span = TaskSpan.current();
     }
 
     public static TaskContext get() {
@@ -43,6 +45,8 @@ public class TaskContext {
 
     private final TaskExecResult taskResult;
 
+    private final TaskSpan       span;
+
     public String getWorkflowInstanceId() {
         return task.getWorkflowInstanceId();
     }
@@ -75,6 +79,17 @@ public class TaskContext {
         return taskResult;
     }
 
+    /**
+     * 获取执行该任务的追踪Span, 未启用追踪或未被采样时为{@link TaskSpan#NOOP}
+     */
+    public TaskSpan getSpan() {
+        return span;
+    }
+
+    public String getTraceId() {
+        return span.getTraceId();
+    }
+
     public void setCallbackAfter(int seconds) {
         this.taskResult.setCallbackAfterSeconds(seconds);
     }
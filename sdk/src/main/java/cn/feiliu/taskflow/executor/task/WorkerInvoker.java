@@ -0,0 +1,39 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.executor.task;
+
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * 编译期生成的{@code @WorkerTask}方法调用器, 按参数类型直接绑定输入并调用方法, 不经过反射
+ *
+ * @author kevin.luan
+ * @since 2025-06-24
+ */
+@FunctionalInterface
+public interface WorkerInvoker {
+    /**
+     * 绑定任务输入并调用工作节点方法
+     *
+     * @param target 工作节点实例
+     * @param task   执行中的任务
+     * @return 方法返回值, void方法返回null
+     * @throws IllegalArgumentException  输入参数缺失或转换失败
+     * @throws InvocationTargetException 工作节点方法抛出的异常
+     */
+    Object invoke(Object target, ExecutingTask task) throws InvocationTargetException;
+}
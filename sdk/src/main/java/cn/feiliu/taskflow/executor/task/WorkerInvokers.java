@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.executor.task;
+
+import cn.feiliu.common.api.encoder.EncoderFactory;
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 查找编译期生成的调用器, 并提供生成代码与反射调用共用的参数绑定方法
+ *
+ * @author kevin.luan
+ * @since 2025-06-24
+ */
+public final class WorkerInvokers {
+    private static final Logger log    = LoggerFactory.getLogger(WorkerInvokers.class);
+    /**
+     * 生成类的类名后缀
+     */
+    public static final String  SUFFIX = "_TaskflowInvokers";
+
+    private WorkerInvokers() {
+    }
+
+    /**
+     * 沿类继承链查找任务的生成调用器
+     *
+     * @param type     工作节点实例的类型
+     * @param taskName 任务名称
+     * @return 未生成时返回空, 使用反射调用
+     */
+    public static Optional<WorkerInvoker> find(Class<?> type, String taskName) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            String name = c.getName();
+            int index = name.lastIndexOf('.');
+            String generated = name.substring(0, index + 1) + name.substring(index + 1).replace('$', '_') + SUFFIX;
+            try {
+                Class<?> clazz = Class.forName(generated, true, c.getClassLoader());
+                GeneratedWorkerInvokers invokers = (GeneratedWorkerInvokers) clazz.getConstructor().newInstance();
+                WorkerInvoker invoker = invokers.getInvokers().get(taskName);
+                if (invoker != null) {
+                    return Optional.of(invoker);
+                }
+            } catch (ClassNotFoundException e) {
+                // 未使用注解处理器编译
+            } catch (Throwable t) {
+                log.warn("加载生成的调用器失败: {}", generated, t);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 读取输入参数
+     *
+     * @throws IllegalArgumentException 必须的参数缺失
+     */
+    public static Object input(ExecutingTask task, String name, boolean required) {
+        Object value = task.getInputData().get(name);
+        if (value == null && required) {
+            throw new IllegalArgumentException(String.format("缺少必须得参数：'%s'", name));
+        }
+        return value;
+    }
+
+    /**
+     * 将输入参数转换为目标类型
+     *
+     * @throws IllegalArgumentException 转换失败
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T convert(String name, Object value, Class<T> type) {
+        if (value == null) {
+            return null;
+        }
+        if (type.isInstance(value) && (value instanceof String || value instanceof Number || value instanceof Boolean)) {
+            return (T) value;
+        }
+        try {
+            return EncoderFactory.getJsonEncoder().convert(value, type);
+        } catch (Throwable e) {
+            String msg = String.format("数据转换出错，参数:'%s', 类型: '%s', 数据: `%s`", name, type, value);
+            throw new IllegalArgumentException(msg, e);
+        }
+    }
+
+    /**
+     * 将输入参数转换为List, 元素类型不为空时逐个转换元素
+     *
+     * @throws IllegalArgumentException 转换失败
+     */
+    public static List<?> convertList(String name, Object value, Class<?> itemType) {
+        if (value == null) {
+            return null;
+        }
+        List<?> list;
+        try {
+            list = EncoderFactory.getJsonEncoder().convert(value, List.class);
+        } catch (Throwable t) {
+            String msg = String.format("数据转换 List 类型出错, 参数:'%s', 数据: `%s`", name, value);
+            throw new IllegalArgumentException(msg, t);
+        }
+        if (itemType == null) {
+            return list;
+        }
+        List<Object> items = new ArrayList<>(list.size());
+        for (Object item : list) {
+            items.add(convert(name, item, itemType));
+        }
+        return items;
+    }
+
+    /**
+     * 基本类型参数不接受null
+     *
+     * @throws IllegalArgumentException 参数值为null
+     */
+    public static <T> T primitive(String name, T value) {
+        if (value == null) {
+            throw new IllegalArgumentException(String.format("参数：'%s' 为基本类型, 不能为null", name));
+        }
+        return value;
+    }
+
+    /**
+     * 将全部输入转换为参数类型, 用于未标注{@code @InputParam}的参数
+     */
+    public static <T> T convertInput(ExecutingTask task, Class<T> type) {
+        return EncoderFactory.getJsonEncoder().convert(task.getInputData(), type);
+    }
+}
@@ -15,6 +15,7 @@
 package cn.feiliu.taskflow.executor.task;
 
 import cn.feiliu.taskflow.annotations.WorkerTask;
+import cn.feiliu.taskflow.utils.TaskflowConfig.WorkerConfig;
 
 import java.lang.annotation.Annotation;
 import java.util.Objects;
@@ -24,8 +25,10 @@ import java.util.Objects;
  * @since 2025-06-08
  */
 public class WorkerWrapper implements WorkerTask {
-    private final WorkerTask workerTask;
-    private final Worker     worker;
+    private final WorkerTask      workerTask;
+    private final Worker          worker;
+    // 配置中按任务类型覆盖的参数, 优先于注解/工作节点自身的取值
+    private volatile WorkerConfig override;
 
     private WorkerWrapper(WorkerTask workerTask, Worker worker) {
         this.workerTask = workerTask;
@@ -69,8 +72,27 @@ public class WorkerWrapper implements WorkerTask {
         }
     }
 
+    /**
+     * 设置按任务类型覆盖的参数
+     *
+     * @param override 覆盖参数, null表示不覆盖
+     * @return 当前实例
+     */
+    public WorkerWrapper setOverride(WorkerConfig override) {
+        this.override = override;
+        return this;
+    }
+
+    public WorkerConfig getOverride() {
+        return override;
+    }
+
     @Override
     public int threadCount() {
+        WorkerConfig config = override;
+        if (config != null && config.getThreadCount() != null) {
+            return Math.max(config.getThreadCount(), 1);
+        }
         if (workerTask != null) {
             return Math.max(workerTask.threadCount(), 1);
         } else {
@@ -80,6 +102,10 @@ public class WorkerWrapper implements WorkerTask {
 
     @Override
     public int pollingInterval() {
+        WorkerConfig config = override;
+        if (config != null && config.getPollingInterval() != null) {
+            return Math.max(config.getPollingInterval(), 100);
+        }
         if (workerTask != null) {
             return Math.max(workerTask.pollingInterval(), 100);
         } else {
@@ -98,6 +124,10 @@ public class WorkerWrapper implements WorkerTask {
 
     @Override
     public String domain() {
+        WorkerConfig config = override;
+        if (config != null && config.getDomain() != null) {
+            return config.getDomain();
+        }
         if (workerTask != null) {
             return workerTask.domain();
         } else {
@@ -105,6 +135,24 @@ public class WorkerWrapper implements WorkerTask {
         }
     }
 
+    /**
+     * @param maxAmount 空闲许可数
+     * @return 本次最多拉取的任务数
+     */
+    public int batchSize(int maxAmount) {
+        WorkerConfig config = override;
+        return config != null && config.getBatchSize() != null ? Math.min(maxAmount, config.getBatchSize()) : maxAmount;
+    }
+
+    /**
+     * @param defaultMillis 全局长轮询等待时间(毫秒)
+     * @return 任务类型的长轮询等待时间(毫秒)
+     */
+    public int pollTimeoutMillis(int defaultMillis) {
+        WorkerConfig config = override;
+        return config != null && config.getPollTimeoutMillis() != null ? config.getPollTimeoutMillis() : defaultMillis;
+    }
+
     @Override
     public Class<? extends Annotation> annotationType() {
         return WorkerTask.class;
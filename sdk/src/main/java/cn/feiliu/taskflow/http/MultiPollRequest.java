@@ -0,0 +1,63 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.http;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一次拉取多个任务类型的请求体
+ *
+ * @author kevin.luan
+ * @since 2025-06-22
+ */
+@Data
+public class MultiPollRequest {
+    /*工作节点ID*/
+    private String     workerId;
+    /*长轮询超时时间(毫秒)*/
+    private Integer    timeout;
+    /*各任务类型的拉取数量*/
+    private List<Poll> polls = new ArrayList<>();
+
+    /**
+     * 添加一个任务类型
+     *
+     * @param taskType 任务类型
+     * @param domain   域(可选)
+     * @param count    拉取数量
+     * @return 当前实例
+     */
+    public MultiPollRequest addPoll(String taskType, String domain, int count) {
+        polls.add(new Poll(taskType, domain, count));
+        return this;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Poll {
+        /*任务类型*/
+        private String taskType;
+        /*域*/
+        private String domain;
+        /*最多拉取的任务数, 通常为该任务类型的空闲许可数*/
+        private int    count;
+    }
+}
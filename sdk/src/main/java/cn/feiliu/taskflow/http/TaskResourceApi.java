@@ -25,11 +25,13 @@ import cn.feiliu.taskflow.http.types.TypeFactory;
 import cn.feiliu.taskflow.utils.Assertion;
 import cn.feiliu.taskflow.utils.ClientHelper;
 import com.google.common.collect.Lists;
+import com.google.inject.util.Types;
 import okhttp3.Call;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -83,6 +85,22 @@ public class TaskResourceApi {
         return resp.getData();
     }
 
+    /**
+     * 一次请求拉取多个任务类型的任务
+     *
+     * @param request 各任务类型的拉取数量（必填）
+     * @return Map<String, List<ExecutingTask>> 按任务类型分组的任务, 没有任务的类型可能不在其中
+     * @throws ApiException 如果调用API失败，例如服务器错误或无法反序列化响应体
+     */
+    public Map<String, List<ExecutingTask>> multiPoll(MultiPollRequest request) throws ApiException {
+        Assertion.assertNotNull(request, "request");
+        String path = "/tasks/poll/multi";
+        Call call = apiClient.buildPostCall(path, request);
+        DataResult<Map<String, List<ExecutingTask>>> resp = apiClient.doExecute(call,
+            TypeFactory.of(Types.mapOf(String.class, Types.listOf(ExecutingTask.class))));
+        return resp.getData() == null ? Collections.emptyMap() : resp.getData();
+    }
+
     /**
      * 获取所有任务类型的最新轮询数据
      *
@@ -213,6 +231,19 @@ public class TaskResourceApi {
         return resp.getData();
     }
 
+    /**
+     * 批量更新任务
+     *
+     * @param taskResults 任务执行结果列表
+     * @throws ApiException 如果调用API失败, 服务端不支持批量更新时状态码为404
+     */
+    public void batchUpdateTasks(List<TaskExecResult> taskResults) throws ApiException {
+        Assertion.assertNotNull(taskResults, "taskResults");
+        String path = "/tasks/update/batch";
+        Call call = apiClient.buildPostCall(path, taskResults);
+        apiClient.execute(call);
+    }
+
     /**
      * 构建通过引用名称更新任务的调用
      *
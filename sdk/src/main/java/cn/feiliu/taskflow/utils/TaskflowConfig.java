@@ -14,26 +14,82 @@
  */
 package cn.feiliu.taskflow.utils;
 
+import cn.feiliu.taskflow.automator.ExecutionBackend;
 import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * @author kevin.luan
  * @since 2025-06-04
  */
+@Slf4j
 @Data
 public class TaskflowConfig {
     /*飞流云平台 host */
-    private String  baseUrl        = "https://developer.taskflow.cn/api";
+    private String                    baseUrl                     = "https://developer.taskflow.cn/api";
     /*开发者key*/
-    private String  keyId;
+    private String                    keyId;
     /*开发者秘钥*/
-    private String  keySecret;
+    private String                    keySecret;
     /*自动注册*/
-    private Boolean autoRegister   = true;
+    private Boolean                   autoRegister                = true;
     /*存在则更新*/
-    private Boolean updateExisting = true;
+    private Boolean                   updateExisting              = true;
     /*web socket url*/
-    private String  webSocketUrl   = "wss://developer.taskflow.cn";
+    private String                    webSocketUrl                = "wss://developer.taskflow.cn";
+    /*链路追踪采样比例[0, 1], 类路径中存在OpenTelemetry API时生效, 0表示关闭*/
+    private double                    traceSampleRatio            = 0.1D;
+    /*每个任务类型在执行中的任务之外最多预取的任务数, 0表示不预取*/
+    private int                       prefetchDepth               = 0;
+    /*预取任务在本地缓冲区的最长停留时间(秒), 超时后交还服务端*/
+    private int                       prefetchMaxHoldSeconds      = 30;
+    /*执行中的任务超过该时间(秒)后自动续租, 之后按该周期续租, 0表示不续租(默认)*/
+    private int                       leaseExtendThresholdSeconds = 0;
+    /*每次续租的callbackAfterSeconds(秒), 应大于续租周期*/
+    private int                       leaseExtendSeconds          = 60;
+    /*开启WebSocket时由服务端推送驱动任务拉取, 仅在连接断开时定时轮询*/
+    private boolean                   pushDispatch                = true;
+    /*WebSocket断开后首次重连的最大等待时间(毫秒), 之后按去相关抖动指数退避*/
+    private int                       reconnectBaseDelayMillis    = 500;
+    /*WebSocket重连等待时间上限(毫秒)*/
+    private int                       reconnectMaxDelayMillis     = 30000;
+    /*WebSocket应用层心跳周期(秒), 0表示关闭*/
+    private int                       heartbeatIntervalSeconds    = 10;
+    /*连续丢失多少次心跳响应后判定连接失效并重连*/
+    private int                       heartbeatMaxMissed          = 3;
+    /*一次请求拉取所有任务类型的任务, 请求数不随任务类型数增长(需服务端支持/tasks/poll/multi)*/
+    private boolean                   multiPoll                   = false;
+    /*任务定义指纹缓存文件路径, 未配置时不启用; 指纹未变化的任务定义在重启时跳过更新*/
+    private String                    taskDefCacheFile;
+    /*后台并发执行令牌获取、任务定义注册和WebSocket连接, 不阻塞启动; 已注册的任务类型立即开始拉取*/
+    private boolean                   lazyStartup                 = false;
+    /*任务结果上报失败后的重试次数, 可在运行期刷新*/
+    private int                       updateRetryCount            = 3;
+    /*任务结果上报重试前的等待时间(毫秒), 可在运行期刷新*/
+    private int                       sleepWhenRetry              = 500;
+    /*关闭时等待执行中任务完成的最长时间(秒)*/
+    private int                       shutdownGracePeriodSeconds  = 10;
+    /*拉取任务的长轮询等待时间(毫秒), 可按任务类型覆盖, 可在运行期刷新*/
+    private int                       pollTimeoutMillis           = 100;
+    /*任务执行线程类型: PLATFORM(平台线程)/VIRTUAL(虚拟线程, 需JDK21+, 不支持时退回平台线程)*/
+    private ExecutionBackend          executionBackend            = ExecutionBackend.PLATFORM;
+    /*HTTP连接池最大空闲连接数*/
+    private int                       httpMaxIdleConnections      = 5;
+    /*HTTP空闲连接保活时间(秒)*/
+    private int                       httpKeepAliveSeconds        = 300;
+    /*HTTP连接超时(毫秒)*/
+    private int                       httpConnectTimeoutMillis    = 10000;
+    /*HTTP读超时(毫秒), 应大于长轮询等待时间*/
+    private int                       httpReadTimeoutMillis       = 10000;
+    /*HTTP写超时(毫秒)*/
+    private int                       httpWriteTimeoutMillis      = 10000;
+    /*注册JMX MBean(cn.feiliu.taskflow:type=WorkerConcurrency), 支持运行期查看和调整任务类型的并发数*/
+    private boolean                   jmxEnabled                  = true;
+    /*按任务类型覆盖的执行参数, key为任务名称*/
+    private Map<String, WorkerConfig> workers                     = new LinkedHashMap<>();
 
     public boolean isSupportWebsocket() {
         return webSocketUrl != null;
@@ -46,4 +102,85 @@ public class TaskflowConfig {
     public boolean isUpdateExisting() {
         return updateExisting != null && updateExisting;
     }
+
+    /**
+     * 获取任务类型的覆盖参数
+     *
+     * @param taskName 任务名称
+     * @return 覆盖参数, 未配置时为null
+     */
+    public WorkerConfig getWorkerConfig(String taskName) {
+        return workers == null ? null : workers.get(taskName);
+    }
+
+    /**
+     * 校验配置取值范围; 拉取超时不小于读超时的旧有组合仍然可用, 仅输出告警
+     *
+     * @throws IllegalArgumentException 配置不合法
+     */
+    public void validate() {
+        check(traceSampleRatio >= 0 && traceSampleRatio <= 1, "traceSampleRatio必须在[0, 1]之间");
+        check(prefetchDepth >= 0, "prefetchDepth不能小于0");
+        check(prefetchMaxHoldSeconds >= 1, "prefetchMaxHoldSeconds不能小于1");
+        check(leaseExtendThresholdSeconds >= 0, "leaseExtendThresholdSeconds不能小于0");
+        check(leaseExtendThresholdSeconds == 0 || leaseExtendSeconds > leaseExtendThresholdSeconds,
+            "leaseExtendSeconds必须大于leaseExtendThresholdSeconds");
+        check(reconnectBaseDelayMillis > 0, "reconnectBaseDelayMillis必须大于0");
+        check(reconnectMaxDelayMillis >= reconnectBaseDelayMillis, "reconnectMaxDelayMillis不能小于reconnectBaseDelayMillis");
+        check(heartbeatIntervalSeconds >= 0, "heartbeatIntervalSeconds不能小于0");
+        check(heartbeatMaxMissed >= 1, "heartbeatMaxMissed不能小于1");
+        check(updateRetryCount >= 0, "updateRetryCount不能小于0");
+        check(sleepWhenRetry >= 0, "sleepWhenRetry不能小于0");
+        check(shutdownGracePeriodSeconds >= 1, "shutdownGracePeriodSeconds不能小于1");
+        check(executionBackend != null, "executionBackend不能为空");
+        check(httpMaxIdleConnections >= 0, "httpMaxIdleConnections不能小于0");
+        check(httpKeepAliveSeconds > 0, "httpKeepAliveSeconds必须大于0");
+        check(httpConnectTimeoutMillis >= 0, "httpConnectTimeoutMillis不能小于0");
+        check(httpWriteTimeoutMillis >= 0, "httpWriteTimeoutMillis不能小于0");
+        checkPollTimeout("pollTimeoutMillis", pollTimeoutMillis);
+        if (workers != null) {
+            workers.forEach((taskName, worker) -> {
+                String prefix = "workers." + taskName + ".";
+                check(worker.getThreadCount() == null || worker.getThreadCount() >= 1, prefix + "threadCount不能小于1");
+                check(worker.getPollingInterval() == null || worker.getPollingInterval() >= 100,
+                    prefix + "pollingInterval不能小于100(毫秒)");
+                check(worker.getBatchSize() == null || worker.getBatchSize() >= 1, prefix + "batchSize不能小于1");
+                if (worker.getPollTimeoutMillis() != null) {
+                    checkPollTimeout(prefix + "pollTimeoutMillis", worker.getPollTimeoutMillis());
+                }
+            });
+        }
+    }
+
+    private void checkPollTimeout(String name, int timeoutMillis) {
+        check(timeoutMillis >= 0, name + "不能小于0");
+        // 读超时为0表示不限制
+        if (httpReadTimeoutMillis > 0 && timeoutMillis >= httpReadTimeoutMillis) {
+            log.warn("Taskflow配置: {}({})不小于httpReadTimeoutMillis({}), 长轮询可能因读超时而失败", name, timeoutMillis,
+                httpReadTimeoutMillis);
+        }
+    }
+
+    private static void check(boolean valid, String message) {
+        if (!valid) {
+            throw new IllegalArgumentException("Taskflow配置不合法: " + message);
+        }
+    }
+
+    /**
+     * 按任务类型覆盖的执行参数, 未配置的项使用{@code @WorkerTask}或全局配置
+     */
+    @Data
+    public static class WorkerConfig {
+        /*执行线程数(许可数), 可在运行期刷新*/
+        private Integer threadCount;
+        /*拉取间隔(毫秒), 不小于100, 可在运行期刷新*/
+        private Integer pollingInterval;
+        /*每次最多拉取的任务数, 未配置时按空闲许可数拉取, 可在运行期刷新*/
+        private Integer batchSize;
+        /*长轮询等待时间(毫秒), 可在运行期刷新*/
+        private Integer pollTimeoutMillis;
+        /*任务域, 重启后生效*/
+        private String  domain;
+    }
 }
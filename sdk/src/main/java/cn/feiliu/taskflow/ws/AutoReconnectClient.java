@@ -14,21 +14,22 @@
  */
 package cn.feiliu.taskflow.ws;
 
+import cn.feiliu.common.api.encoder.EncoderFactory;
 import cn.feiliu.common.api.utils.MapBuilder;
+import cn.feiliu.taskflow.common.dto.tasks.TaskExecResult;
 import cn.feiliu.taskflow.ws.handler.MessageHandler;
 import cn.feiliu.taskflow.ws.handler.SimpleMessageHandler;
 import cn.feiliu.taskflow.ws.msg.WebSocketMessage;
+import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 创建一个简单的自动重连客户端示例
@@ -39,18 +40,26 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class AutoReconnectClient {
 
     private static final Logger logger = LoggerFactory.getLogger(AutoReconnectClient.class);
-    private static final int MAX_RECONNECT_ATTEMPTS = Integer.MAX_VALUE;
-    private static final long RECONNECT_DELAY_MS = 5000;                                              // 5秒重连间隔
 
     private WebSocketClient client;
     private String serverUrl;
     private String userId;
     private String keyId;
     private String keySecret;
+    // 共享的基础HTTP客户端, 每次重连创建的WebSocketClient均由其派生
+    private final OkHttpClient httpClient;
     private final AtomicInteger reconnectAttempts = new AtomicInteger(0);
+    // 连接代次, 每创建一个WebSocketClient递增一次, 旧连接的连接状态事件按代次丢弃
+    private final AtomicInteger generation = new AtomicInteger(0);
     private volatile boolean shouldReconnect = true;
     private MessageHandler handler;
-
+    private volatile ReconnectPolicy reconnectPolicy = ReconnectPolicy.decorrelatedJitter(500, 30000);
+    // 上一次重连的等待时间(毫秒)
+    private volatile long lastReconnectDelay = 0;
+    private final AtomicReference<ConnectionState> state = new AtomicReference<>(ConnectionState.DISCONNECTED);
+    private final List<ConnectionStateListener> stateListeners = new CopyOnWriteArrayList<>();
+    private volatile HeartbeatMonitor heartbeat;
+    private final SubscriptionManager subscriptions;
 
     // 同步控制：确保同一时间只有一个重连任务
     private final AtomicBoolean reconnecting = new AtomicBoolean(false);
@@ -64,23 +73,55 @@ public class AutoReconnectClient {
     private volatile Runnable onConnectedCallback;
 
     public AutoReconnectClient(String serverUrl, String userId, String keyId, String keySecret, MessageHandler handler) {
+        this(serverUrl, userId, keyId, keySecret, null, handler);
+    }
+
+    /**
+     * @param httpClient 基础HTTP客户端(通常为ApiClient的客户端), 为空时使用默认客户端
+     */
+    public AutoReconnectClient(String serverUrl, String userId, String keyId, String keySecret, OkHttpClient httpClient,
+                               MessageHandler handler) {
         this.serverUrl = serverUrl;
+        this.httpClient = httpClient;
         this.userId = userId;
         this.keyId = keyId;
         this.keySecret = keySecret;
         this.handler = handler;
+        this.subscriptions = new SubscriptionManager(this, reconnectExecutor);
         this.client = createClient();
     }
 
     private WebSocketClient createClient() {
-        return new WebSocketClient(serverUrl, userId, keyId, keySecret,
+        int clientGeneration = generation.incrementAndGet();
+        return new WebSocketClient(serverUrl, userId, keyId, keySecret, null, httpClient,
                 new SimpleMessageHandler() {
+                    /**
+                     * 事件是否来自已被替换的旧连接, 旧连接的事件不得修改连接状态或触发重连
+                     */
+                    private boolean isStale(String event) {
+                        if (clientGeneration != generation.get()) {
+                            logger.debug("忽略已替换连接(第{}代)的{}事件, 当前为第{}代", clientGeneration, event, generation.get());
+                            return true;
+                        }
+                        return false;
+                    }
+
                     @Override
                     public void onConnected() {
+                        if (isStale("连接成功")) {
+                            return;
+                        }
                         logger.info("🎉 WebSocket连接成功，重置重连计数");
                         reconnectAttempts.set(0);
+                        lastReconnectDelay = 0;
                         reconnecting.set(false); // 连接成功，重置重连状态
                         shouldReconnect = true;
+                        changeState(ConnectionState.CONNECTED);
+                        HeartbeatMonitor monitor = heartbeat;
+                        if (monitor != null) {
+                            monitor.start();
+                        }
+                        subscriptions.resync();
                         if (onConnectedCallback != null) {
                             try {// 执行连接成功回调
                                 onConnectedCallback.run();
@@ -92,32 +133,65 @@ public class AutoReconnectClient {
 
                     @Override
                     public void onDisconnected(int code, String reason) {
+                        if (isStale("断开")) {
+                            return;
+                        }
                         logger.warn("💔 WebSocket连接断开: code={}, reason={}", code, reason);
-                        triggerReconnectIfNeeded();
+                        onConnectionLost();
                     }
 
                     @Override
                     public void onMessage(WebSocketMessage message) {
+                        HeartbeatMonitor monitor = heartbeat;
+                        if (monitor != null && message.isMessageType(MessageType.PONG)) {
+                            monitor.onPong();
+                        }
                         handler.onMessage(message);
                     }
 
                     @Override
                     public void onError(Throwable error) {
+                        if (isStale("错误")) {
+                            return;
+                        }
                         logger.error("❌ WebSocket连接错误", error);
-                        triggerReconnectIfNeeded();
+                        onConnectionLost();
                     }
                 });
     }
 
     /**
-     * 触发重连（如果需要且未在重连中）
+     * 连接断开或出错, 通知状态变化并触发重连（如果需要且未在重连中）
      */
-    private void triggerReconnectIfNeeded() {
-        if (shouldReconnect && reconnectAttempts.get() < MAX_RECONNECT_ATTEMPTS) {
+    private void onConnectionLost() {
+        stopHeartbeat();
+        if (shouldReconnect) {
+            changeState(ConnectionState.DISCONNECTED);
             scheduleReconnect();
         }
     }
 
+    private void stopHeartbeat() {
+        HeartbeatMonitor monitor = heartbeat;
+        if (monitor != null) {
+            monitor.stop();
+        }
+    }
+
+    private void changeState(ConnectionState current) {
+        ConnectionState previous = state.getAndSet(current);
+        if (previous == current) {
+            return;
+        }
+        for (ConnectionStateListener listener : stateListeners) {
+            try {
+                listener.onStateChanged(previous, current);
+            } catch (Exception e) {
+                logger.error("执行连接状态监听器时发生异常", e);
+            }
+        }
+    }
+
     /**
      * 连接到WebSocket服务器
      *
@@ -130,8 +204,10 @@ public class AutoReconnectClient {
             return CompletableFuture.completedFuture(null);
         }
 
+        changeState(ConnectionState.CONNECTING);
         return client.connect().thenAccept(success -> {
-            if (!success && shouldReconnect && reconnectAttempts.get() < MAX_RECONNECT_ATTEMPTS) {
+            if (!success && shouldReconnect) {
+                changeState(ConnectionState.DISCONNECTED);
                 scheduleReconnect();
             }
         });
@@ -145,24 +221,34 @@ public class AutoReconnectClient {
         }
 
         int currentAttempt = reconnectAttempts.incrementAndGet();
-        logger.info("🔄 准备第{}次重连，{}秒后开始", currentAttempt, RECONNECT_DELAY_MS / 1000);
+        long delay = reconnectPolicy.nextDelayMillis(currentAttempt, lastReconnectDelay);
+        if (delay < 0) {
+            logger.warn("⏹️ 已重连{}次, 按重连策略放弃重连", currentAttempt - 1);
+            reconnecting.set(false);
+            return;
+        }
+        lastReconnectDelay = delay;
+        logger.info("🔄 准备第{}次重连，{}毫秒后开始", currentAttempt, delay);
 
         // 使用ScheduledExecutorService替代手动创建线程，更好的资源管理
         reconnectExecutor.schedule(() -> {
             try {
                 if (shouldReconnect) {
                     logger.info("🚀 开始第{}次重连", currentAttempt);
+                    changeState(ConnectionState.CONNECTING);
                     if (client != null) {// 关闭旧连接
                         client.close();
                     }
                     // 创建新客户端
                     client = createClient();
+                    int clientGeneration = generation.get();
                     // 尝试连接
                     CompletableFuture<Boolean> connectFuture = client.connect();
                     // 等待连接结果，避免立即触发下一次重连
                     connectFuture.thenAccept(success -> {
-                        if (!success && shouldReconnect && reconnectAttempts.get() < MAX_RECONNECT_ATTEMPTS) {
+                        if (!success && shouldReconnect && clientGeneration == generation.get()) {
                             logger.warn("🔴 第{}次重连失败，准备下次重连", currentAttempt);
+                            changeState(ConnectionState.DISCONNECTED);
                             // 连接失败，重置重连状态以允许下次重连
                             reconnecting.set(false);
                             scheduleReconnect();
@@ -171,7 +257,8 @@ public class AutoReconnectClient {
                     }).exceptionally(throwable -> {
                         logger.error("💥 重连过程中发生异常", throwable);
                         reconnecting.set(false);
-                        if (shouldReconnect && reconnectAttempts.get() < MAX_RECONNECT_ATTEMPTS) {
+                        if (shouldReconnect) {
+                            changeState(ConnectionState.DISCONNECTED);
                             scheduleReconnect();
                         }
                         return null;
@@ -183,16 +270,18 @@ public class AutoReconnectClient {
             } catch (Exception e) {
                 logger.error("💥 重连执行异常", e);
                 reconnecting.set(false);
-                if (shouldReconnect && reconnectAttempts.get() < MAX_RECONNECT_ATTEMPTS) {
+                if (shouldReconnect) {
+                    changeState(ConnectionState.DISCONNECTED);
                     scheduleReconnect();
                 }
             }
-        }, RECONNECT_DELAY_MS, TimeUnit.MILLISECONDS);
+        }, delay, TimeUnit.MILLISECONDS);
     }
 
     public void stop() {
         shouldReconnect = false;
         reconnecting.set(false);
+        stopHeartbeat();
 
         // 关闭重连线程池
         reconnectExecutor.shutdown();
@@ -208,6 +297,7 @@ public class AutoReconnectClient {
         if (client != null) {
             client.close();
         }
+        changeState(ConnectionState.CLOSED);
     }
 
     /**
@@ -232,6 +322,30 @@ public class AutoReconnectClient {
         return sendMessage(MessageType.SUB_TASK.getValue(), "订阅消息", data);
     }
 
+    /**
+     * 确认收到推送的任务
+     *
+     * @param acceptedTaskIds 已接收执行的任务
+     * @param rejectedTaskIds 无空闲线程未接收的任务, 由服务端重新入队
+     */
+    public boolean sendTaskAck(List<String> acceptedTaskIds, List<String> rejectedTaskIds) {
+        Map<String, Object> data = MapBuilder.newBuilder().put("taskIds", acceptedTaskIds)
+                .put("rejectedTaskIds", rejectedTaskIds).build();
+        return sendMessage(MessageType.TASK_ACK.getValue(), "任务确认", data);
+    }
+
+    /**
+     * 通过WebSocket上报任务执行结果
+     *
+     * @param result 任务执行结果
+     * @return 是否发送成功, 失败时应改用HTTP上报
+     */
+    @SuppressWarnings("unchecked")
+    public boolean sendTaskResult(TaskExecResult result) {
+        Map<String, Object> data = EncoderFactory.getJsonEncoder().convert(result, Map.class);
+        return sendMessage(MessageType.TASK_RESULT.getValue(), "任务结果", data);
+    }
+
     /**
      * 检查连接状态
      */
@@ -239,6 +353,71 @@ public class AutoReconnectClient {
         return this.client != null && this.client.isConnected();
     }
 
+    /**
+     * 获取当前连接状态
+     */
+    public ConnectionState getConnectionState() {
+        return state.get();
+    }
+
+    /**
+     * 添加连接状态监听器
+     *
+     * @param listener 监听器
+     * @return 当前AutoReconnectClient实例，支持链式调用
+     */
+    public AutoReconnectClient addConnectionStateListener(ConnectionStateListener listener) {
+        stateListeners.add(listener);
+        return this;
+    }
+
+    /**
+     * 开启应用层心跳, 连续丢失maxMissed次PONG后主动断开并重连, 需在connect前调用
+     *
+     * @param intervalMillis 心跳周期(毫秒), 小于1表示关闭心跳
+     * @param maxMissed      连续丢失多少次PONG后判定连接失效
+     * @return 当前AutoReconnectClient实例，支持链式调用
+     */
+    public AutoReconnectClient enableHeartbeat(long intervalMillis, int maxMissed) {
+        stopHeartbeat();
+        this.heartbeat = intervalMillis < 1 ? null : new HeartbeatMonitor(reconnectExecutor, intervalMillis,
+                maxMissed, this::sendPing, this::onDeadPeer, HeartbeatMetrics.create());
+        return this;
+    }
+
+    /**
+     * @return 任务订阅管理, 重连后自动重新订阅
+     */
+    public SubscriptionManager getSubscriptionManager() {
+        return subscriptions;
+    }
+
+    /**
+     * @return 心跳监控, 未开启心跳时为null
+     */
+    public HeartbeatMonitor getHeartbeatMonitor() {
+        return heartbeat;
+    }
+
+    private void onDeadPeer() {
+        WebSocketClient current = client;
+        if (current != null) {
+            // 中断半开连接, 由onError触发重连
+            current.cancel();
+        }
+    }
+
+    /**
+     * 设置断线重连策略, 默认第一次快速重连, 之后按去相关抖动指数退避, 上限30秒
+     *
+     * @param reconnectPolicy 重连策略
+     * @return 当前AutoReconnectClient实例，支持链式调用
+     */
+    public AutoReconnectClient setReconnectPolicy(ReconnectPolicy reconnectPolicy) {
+        this.reconnectPolicy = reconnectPolicy;
+        return this;
+    }
+
     /**
      * 设置连接成功后的回调处理器
      *
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws;
+
+import cn.feiliu.common.api.encoder.EncoderFactory;
+import cn.feiliu.common.api.encoder.JsonEncoder;
+import cn.feiliu.taskflow.ws.msg.WebSocketMessage;
+import okio.Buffer;
+import okio.ByteString;
+
+import java.io.EOFException;
+import java.util.Map;
+
+/**
+ * WebSocket二进制帧编解码
+ * <p>
+ * 帧格式(大端): 1字节版本号 | 1字节类型长度 + 类型 | 2字节描述长度 + 描述 | 负载(data的JSON, 可为空), 字符串均为UTF-8
+ * <p>
+ * 解码时只解析帧头, 负载保留原始JSON, 调用{@link WebSocketMessage#getData(Class)}时直接解码为目标类型,
+ * 不再经过 Map 中转
+ *
+ * @author kevin.luan
+ * @since 2025-06-17
+ */
+public final class BinaryMessageCodec {
+    /**
+     * 客户端在连接参数capabilities中声明支持二进制帧
+     */
+    public static final String       CAPABILITY = "binary";
+    private static final byte        VERSION    = 1;
+    private static final JsonEncoder JSON       = EncoderFactory.getJsonEncoder();
+
+    private BinaryMessageCodec() {
+    }
+
+    /**
+     * 编码为二进制帧
+     *
+     * @param message 消息
+     * @return 二进制帧
+     */
+    public static ByteString encode(WebSocketMessage message) {
+        ByteString type = ByteString.encodeUtf8(message.getType());
+        ByteString description = ByteString
+            .encodeUtf8(message.getDescription() == null ? "" : message.getDescription());
+        if (type.size() > 0xFF || description.size() > 0xFFFF) {
+            throw new IllegalArgumentException("消息类型或描述过长: " + message.getType());
+        }
+        Buffer buffer = new Buffer();
+        buffer.writeByte(VERSION);
+        buffer.writeByte(type.size()).write(type);
+        buffer.writeShort(description.size()).write(description);
+        if (message.getData() != null) {
+            buffer.writeUtf8(JSON.encode(message.getData()));
+        }
+        return buffer.readByteString();
+    }
+
+    /**
+     * 解码二进制帧, 负载延迟到读取data时解码
+     *
+     * @param bytes 二进制帧
+     * @return 消息
+     */
+    public static WebSocketMessage decode(ByteString bytes) {
+        Buffer buffer = new Buffer().write(bytes);
+        try {
+            byte version = buffer.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("不支持的二进制帧版本: " + version);
+            }
+            String type = buffer.readUtf8(buffer.readByte() & 0xFF);
+            int descriptionLength = buffer.readShort() & 0xFFFF;
+            String description = descriptionLength == 0 ? null : buffer.readUtf8(descriptionLength);
+            String payload = buffer.exhausted() ? null : buffer.readUtf8();
+            return new EncodedPayloadMessage(type, description, payload);
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("二进制帧不完整", e);
+        }
+    }
+
+    /**
+     * 负载保持编码状态的消息
+     */
+    private static final class EncodedPayloadMessage extends WebSocketMessage {
+        private final String payload;
+
+        EncodedPayloadMessage(String type, String description, String payload) {
+            super(type, description, null);
+            this.payload = payload;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> getData() {
+            Map<String, Object> data = super.getData();
+            if (data == null && payload != null) {
+                data = JSON.decode(payload, Map.class);
+                setData(data);
+            }
+            return data;
+        }
+
+        @Override
+        public <T> T getData(Class<T> type) {
+            if (super.getData() != null || payload == null) {
+                return super.getData(type);
+            }
+            return JSON.decode(payload, type);
+        }
+    }
+}
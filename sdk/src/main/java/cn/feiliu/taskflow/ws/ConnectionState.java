@@ -0,0 +1,32 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws;
+
+/**
+ * WebSocket连接状态
+ *
+ * @author kevin.luan
+ * @since 2025-06-18
+ */
+public enum ConnectionState {
+    /*正在建立连接(包括重连)*/
+    CONNECTING,
+    /*连接已建立*/
+    CONNECTED,
+    /*连接已断开, 等待重连*/
+    DISCONNECTED,
+    /*客户端已关闭, 不再重连*/
+    CLOSED
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws;
+
+/**
+ * WebSocket连接状态监听器
+ *
+ * @author kevin.luan
+ * @since 2025-06-18
+ */
+@FunctionalInterface
+public interface ConnectionStateListener {
+
+    /**
+     * 连接状态发生变化, 在WebSocket回调线程中执行, 不应阻塞
+     *
+     * @param previous 变化前的状态
+     * @param current  当前状态
+     */
+    void onStateChanged(ConnectionState previous, ConnectionState current);
+}
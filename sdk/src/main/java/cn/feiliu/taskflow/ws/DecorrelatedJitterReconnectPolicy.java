@@ -0,0 +1,49 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 去相关抖动(decorrelated jitter)的指数退避重连策略
+ * <p>
+ * 第一次重连在[0, base)内随机等待, 服务端短暂重启时尽快恢复推送; 之后每次等待时间在[base, 上次等待时间*3]内随机,
+ * 不超过上限. 随机化使大量工作节点在服务端重启后错开重连, 不会同时涌入
+ *
+ * @author kevin.luan
+ * @since 2025-06-18
+ */
+public class DecorrelatedJitterReconnectPolicy implements ReconnectPolicy {
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public DecorrelatedJitterReconnectPolicy(long baseDelayMillis, long maxDelayMillis) {
+        if (baseDelayMillis < 1 || maxDelayMillis < baseDelayMillis) {
+            throw new IllegalArgumentException("重连等待时间配置错误: base=" + baseDelayMillis + ", max=" + maxDelayMillis);
+        }
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    @Override
+    public long nextDelayMillis(int attempt, long previousDelay) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (attempt <= 1) {
+            return random.nextLong(baseDelayMillis);
+        }
+        long upper = Math.min(maxDelayMillis, Math.max(baseDelayMillis, previousDelay) * 3);
+        return random.nextLong(baseDelayMillis, upper + 1);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws;
+
+import cn.feiliu.taskflow.automator.tracing.TaskTracers;
+
+/**
+ * WebSocket心跳指标输出
+ *
+ * @author kevin.luan
+ * @since 2025-06-19
+ */
+public interface HeartbeatMetrics {
+    String           METRIC_RTT       = "taskflow.websocket.rtt";
+    String           METRIC_MISSED    = "taskflow.websocket.heartbeat.missed";
+    String           METRIC_DEAD_PEER = "taskflow.websocket.dead_peer";
+
+    HeartbeatMetrics NOOP             = new HeartbeatMetrics() {
+                                          @Override
+                                          public void recordRtt(long rttMillis) {
+                                          }
+
+                                          @Override
+                                          public void recordMissed() {
+                                          }
+
+                                          @Override
+                                          public void recordDeadPeer() {
+                                          }
+                                      };
+
+    /**
+     * 记录一次PING到PONG的往返时间
+     *
+     * @param rttMillis 往返时间(毫秒)
+     */
+    void recordRtt(long rttMillis);
+
+    /**
+     * 记录一次未按时收到PONG
+     */
+    void recordMissed();
+
+    /**
+     * 记录一次判定连接失效
+     */
+    void recordDeadPeer();
+
+    /**
+     * 类路径中存在OpenTelemetry时基于GlobalOpenTelemetry输出指标, 否则返回{@link #NOOP}
+     */
+    static HeartbeatMetrics create() {
+        return TaskTracers.isOpenTelemetryPresent() ? OpenTelemetryHeartbeatMetrics.fromGlobal() : NOOP;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 应用层WebSocket心跳
+ * <p>
+ * 连接建立后按固定周期发送PING并测量到PONG的往返时间; 下一次发送时上一次PING仍未收到响应记为一次丢失,
+ * 连续丢失达到上限时判定连接半开失效, 交由调用方主动重连, 避免推送通道长时间静默中断
+ *
+ * @author kevin.luan
+ * @since 2025-06-19
+ */
+public class HeartbeatMonitor {
+    private static final Logger            logger        = LoggerFactory.getLogger(HeartbeatMonitor.class);
+    private final ScheduledExecutorService scheduler;
+    private final long                     intervalMillis;
+    private final int                      maxMissed;
+    private final BooleanSupplier          pingSender;
+    private final Runnable                 deadPeerHandler;
+    private final HeartbeatMetrics         metrics;
+    // 连续未收到PONG的次数
+    private final AtomicInteger            missed        = new AtomicInteger();
+    private final LongAdder                deadPeers     = new LongAdder();
+    private volatile boolean               awaitingPong  = false;
+    private volatile long                  pingSentNanos;
+    private volatile long                  lastRttMillis = -1;
+    private ScheduledFuture<?>             future;
+
+    /**
+     * @param scheduler       执行心跳的调度线程
+     * @param intervalMillis  心跳周期(毫秒)
+     * @param maxMissed       连续丢失多少次PONG后判定连接失效
+     * @param pingSender      发送PING, 返回是否发送成功
+     * @param deadPeerHandler 判定连接失效后执行
+     * @param metrics         指标输出
+     */
+    public HeartbeatMonitor(ScheduledExecutorService scheduler, long intervalMillis, int maxMissed,
+                            BooleanSupplier pingSender, Runnable deadPeerHandler, HeartbeatMetrics metrics) {
+        if (intervalMillis < 1 || maxMissed < 1) {
+            throw new IllegalArgumentException("心跳周期和最大丢失次数必须大于0");
+        }
+        this.scheduler = scheduler;
+        this.intervalMillis = intervalMillis;
+        this.maxMissed = maxMissed;
+        this.pingSender = pingSender;
+        this.deadPeerHandler = deadPeerHandler;
+        this.metrics = metrics;
+    }
+
+    /**
+     * 连接建立后开始心跳, 立即发送第一次PING
+     */
+    public synchronized void start() {
+        stop();
+        missed.set(0);
+        awaitingPong = false;
+        future = scheduler.scheduleWithFixedDelay(this::tick, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止心跳
+     */
+    public synchronized void stop() {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+    }
+
+    /**
+     * 收到PONG
+     */
+    public void onPong() {
+        if (!awaitingPong) {
+            return;
+        }
+        long rtt = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pingSentNanos);
+        awaitingPong = false;
+        missed.set(0);
+        lastRttMillis = rtt;
+        metrics.recordRtt(rtt);
+    }
+
+    void tick() {
+        try {
+            if (awaitingPong) {
+                int count = missed.incrementAndGet();
+                metrics.recordMissed();
+                if (count >= maxMissed) {
+                    logger.warn("连续{}次未收到心跳响应, 判定连接失效", count);
+                    deadPeers.increment();
+                    metrics.recordDeadPeer();
+                    stop();
+                    deadPeerHandler.run();
+                    return;
+                }
+            }
+            pingSentNanos = System.nanoTime();
+            awaitingPong = true;
+            if (!pingSender.getAsBoolean()) {
+                logger.debug("心跳发送失败");
+            }
+        } catch (Exception e) {
+            logger.error("心跳执行异常", e);
+        }
+    }
+
+    /**
+     * @return 最近一次PING到PONG的往返时间(毫秒), 尚未测量时为-1
+     */
+    public long getLastRttMillis() {
+        return lastRttMillis;
+    }
+
+    /**
+     * @return 当前连续未收到PONG的次数
+     */
+    public int getMissedCount() {
+        return missed.get();
+    }
+
+    /**
+     * @return 累计判定连接失效的次数
+     */
+    public long getDeadPeerCount() {
+        return deadPeers.sum();
+    }
+}
@@ -36,6 +36,34 @@ public enum MessageType {
      * 任务状态更新通知
      */
     SUB_TASK("sub_task"),
+    /**
+     * 服务端直接推送待执行的任务
+     */
+    TASK_PUSH("task_push"),
+    /**
+     * 客户端确认收到推送的任务, 未接收的任务由服务端重新入队
+     */
+    TASK_ACK("task_ack"),
+    /**
+     * 客户端通过WebSocket上报推送任务的执行结果
+     */
+    TASK_RESULT("task_result"),
+    /**
+     * 订阅任务类型, 消息体为{"tasks":[...]}, 不携带空闲容量, 见{@link WebSocketClient#subTask(java.util.List)}
+     */
+    SUBSCRIBE("subscribe"),
+    /**
+     * 订阅任务类型或更新订阅的空闲容量, 消息体为{@link cn.feiliu.taskflow.ws.msg.SubscribePayload}
+     */
+    SUBSCRIBE_V2("subscribe_v2"),
+    /**
+     * 取消订阅任务类型
+     */
+    UNSUBSCRIBE("unsubscribe"),
+    /**
+     * 追加订阅任务类型的额度, 空闲许可增加时发送
+     */
+    CREDIT("credit"),
     /**
      * 错误消息
      */
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+
+/**
+ * 基于OpenTelemetry的心跳指标实现
+ *
+ * @author kevin.luan
+ * @since 2025-06-19
+ */
+public class OpenTelemetryHeartbeatMetrics implements HeartbeatMetrics {
+    static final String         INSTRUMENTATION = "cn.feiliu.taskflow.sdk";
+    private final LongHistogram rtt;
+    private final LongCounter   missed;
+    private final LongCounter   deadPeers;
+
+    public OpenTelemetryHeartbeatMetrics(Meter meter) {
+        this.rtt = meter.histogramBuilder(METRIC_RTT).setDescription("WebSocket PING到PONG的往返时间").setUnit("ms")
+            .ofLongs().build();
+        this.missed = meter.counterBuilder(METRIC_MISSED).setDescription("未按时收到PONG的次数").build();
+        this.deadPeers = meter.counterBuilder(METRIC_DEAD_PEER).setDescription("心跳超时判定连接失效的次数").build();
+    }
+
+    static OpenTelemetryHeartbeatMetrics fromGlobal() {
+        return new OpenTelemetryHeartbeatMetrics(GlobalOpenTelemetry.getMeter(INSTRUMENTATION));
+    }
+
+    @Override
+    public void recordRtt(long rttMillis) {
+        rtt.record(rttMillis);
+    }
+
+    @Override
+    public void recordMissed() {
+        missed.add(1);
+    }
+
+    @Override
+    public void recordDeadPeer() {
+        deadPeers.add(1);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws;
+
+/**
+ * WebSocket断线重连策略
+ *
+ * @author kevin.luan
+ * @since 2025-06-18
+ */
+@FunctionalInterface
+public interface ReconnectPolicy {
+
+    /**
+     * 计算下一次重连前的等待时间
+     *
+     * @param attempt       第几次重连(从1开始, 连接成功后重置)
+     * @param previousDelay 上一次重连的等待时间(毫秒), 第一次重连为0
+     * @return 等待时间(毫秒), 小于0表示放弃重连
+     */
+    long nextDelayMillis(int attempt, long previousDelay);
+
+    /**
+     * 固定间隔重连
+     *
+     * @param delayMillis 重连间隔(毫秒)
+     */
+    static ReconnectPolicy fixed(long delayMillis) {
+        return (attempt, previousDelay) -> delayMillis;
+    }
+
+    /**
+     * 去相关抖动的指数退避重连, 第一次重连在[0, baseDelayMillis)内随机等待
+     *
+     * @param baseDelayMillis 基础等待时间(毫秒)
+     * @param maxDelayMillis  等待时间上限(毫秒)
+     */
+    static ReconnectPolicy decorrelatedJitter(long baseDelayMillis, long maxDelayMillis) {
+        return new DecorrelatedJitterReconnectPolicy(baseDelayMillis, maxDelayMillis);
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws;
+
+import cn.feiliu.common.api.encoder.EncoderFactory;
+import cn.feiliu.common.api.utils.MapBuilder;
+import cn.feiliu.taskflow.ws.msg.CreditPayload;
+import cn.feiliu.taskflow.ws.msg.SubscribePayload;
+import cn.feiliu.taskflow.ws.msg.SubscribePayload.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * WebSocket任务订阅管理
+ * <p>
+ * 支持运行期增量订阅/取消订阅, 每个订阅携带当前空闲容量作为初始额度(credit); 服务端每推送一个任务消耗一个额度,
+ * 额度用尽后不再向该进程推送或通知. 有执行中的任务时等待其归还许可, 在短时间内合并后按空闲许可与服务端剩余额度的差值追加额度;
+ * 空闲许可少于剩余额度时重新订阅以重置额度. 重连成功后全量重新订阅
+ *
+ * @author kevin.luan
+ * @since 2025-06-20
+ */
+public class SubscriptionManager {
+    private static final Logger                    logger             = LoggerFactory.getLogger(SubscriptionManager.class);
+    // 容量变化的合并上报延迟
+    private static final long                      FLUSH_DELAY_MILLIS = 100;
+    private final AutoReconnectClient              client;
+    private final ScheduledExecutorService         scheduler;
+    // 已订阅的任务类型及服务端剩余额度, 未上报成功时为null
+    private final Map<String, Integer>             subscriptions      = new LinkedHashMap<>();
+    private final AtomicBoolean                    flushScheduled     = new AtomicBoolean();
+    private volatile ToIntFunction<String>         capacitySupplier   = taskName -> -1;
+    // 等待任务类型归还许可, 返回false表示没有执行中的任务
+    private volatile BiPredicate<String, Runnable> releaseWaiter      = (taskName, callback) -> false;
+    // 已在等待归还许可的任务类型
+    private final Set<String>                      awaitingRelease    = ConcurrentHashMap.newKeySet();
+
+    SubscriptionManager(AutoReconnectClient client, ScheduledExecutorService scheduler) {
+        this.client = client;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 设置任务类型当前空闲容量的来源
+     *
+     * @param capacitySupplier 返回任务类型的空闲容量, 小于0表示未知
+     */
+    public void setCapacitySupplier(ToIntFunction<String> capacitySupplier) {
+        this.capacitySupplier = Objects.requireNonNull(capacitySupplier);
+    }
+
+    /**
+     * 设置等待任务类型归还许可的方式
+     *
+     * @param releaseWaiter 注册一次性回调, 任务类型下一次归还许可时执行; 没有执行中的任务时返回false
+     */
+    public void setReleaseWaiter(BiPredicate<String, Runnable> releaseWaiter) {
+        this.releaseWaiter = Objects.requireNonNull(releaseWaiter);
+    }
+
+    /**
+     * 推送的任务开始执行后等待其归还许可, 归还后追加额度; 任务已全部完成时立即上报
+     *
+     * @param taskNames 任务类型
+     */
+    public synchronized void awaitRelease(Collection<String> taskNames) {
+        taskNames.forEach(this::watchCapacity);
+    }
+
+    /**
+     * 订阅任务类型, 未连接时在连接建立后发送
+     *
+     * @param taskNames 任务类型
+     */
+    public synchronized void subscribe(Collection<String> taskNames) {
+        List<String> added = new ArrayList<>();
+        for (String taskName : taskNames) {
+            if (!subscriptions.containsKey(taskName)) {
+                subscriptions.put(taskName, null);
+                added.add(taskName);
+            }
+        }
+        send(added);
+        added.forEach(this::watchCapacity);
+    }
+
+    /**
+     * 取消订阅任务类型
+     *
+     * @param taskNames 任务类型
+     */
+    public synchronized void unsubscribe(Collection<String> taskNames) {
+        List<String> removed = new ArrayList<>();
+        for (String taskName : taskNames) {
+            if (subscriptions.containsKey(taskName)) {
+                subscriptions.remove(taskName);
+                removed.add(taskName);
+            }
+        }
+        if (!removed.isEmpty() && client.isConnected()) {
+            client.sendMessage(MessageType.UNSUBSCRIBE.getValue(), "取消订阅",
+                MapBuilder.newBuilder().put("taskNames", removed).build());
+        }
+    }
+
+    /**
+     * @return 已订阅的任务类型
+     */
+    public synchronized Set<String> getSubscriptions() {
+        return new LinkedHashSet<>(subscriptions.keySet());
+    }
+
+    /**
+     * 空闲容量发生变化, 合并后异步上报
+     */
+    public void onCapacityChanged() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(this::flush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * 推送的任务因无空闲许可被拒绝, 服务端随即清空该任务类型的额度, 本地同步后在许可释放时重新追加
+     *
+     * @param taskNames 被拒绝任务的任务类型
+     */
+    public synchronized void onRejected(Collection<String> taskNames) {
+        for (String taskName : taskNames) {
+            if (subscriptions.containsKey(taskName)) {
+                subscriptions.put(taskName, 0);
+            }
+        }
+        onCapacityChanged();
+    }
+
+    /**
+     * 收到服务端推送的任务, 同步扣减服务端消耗的额度
+     *
+     * @param taskName 任务类型
+     * @param count    推送的任务数
+     */
+    public synchronized void onPushed(String taskName, int count) {
+        Integer credits = subscriptions.get(taskName);
+        if (credits != null) {
+            subscriptions.put(taskName, Math.max(0, credits - count));
+        }
+    }
+
+    /**
+     * 按当前空闲许可追加或重置额度
+     */
+    synchronized void flush() {
+        flushScheduled.set(false);
+        List<String> reset = new ArrayList<>();
+        CreditPayload payload = new CreditPayload();
+        for (Map.Entry<String, Integer> entry : subscriptions.entrySet()) {
+            Integer capacity = capacityOf(entry.getKey());
+            Integer credits = entry.getValue();
+            if (capacity == null) {
+                continue;
+            }
+            if (credits == null || capacity < credits) {
+                reset.add(entry.getKey());
+            } else if (capacity > credits) {
+                payload.getCredits().put(entry.getKey(), capacity - credits);
+            }
+        }
+        send(reset);
+        if (!payload.getCredits().isEmpty() && client.isConnected()) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> data = EncoderFactory.getJsonEncoder().convert(payload, Map.class);
+            if (client.sendMessage(MessageType.CREDIT.getValue(), "追加额度", data)) {
+                payload.getCredits().forEach((taskName, credit) -> subscriptions.merge(taskName, credit, Integer::sum));
+            } else {
+                logger.debug("发送额度消息失败: {}", payload.getCredits());
+            }
+        }
+        // 仍有执行中的任务时, 其归还许可后再次追加额度
+        new ArrayList<>(subscriptions.keySet()).forEach(this::watchCapacity);
+    }
+
+    /**
+     * 连接建立后全量重新订阅
+     */
+    synchronized void resync() {
+        subscriptions.replaceAll((taskName, capacity) -> null);
+        List<String> taskNames = new ArrayList<>(subscriptions.keySet());
+        send(taskNames);
+        taskNames.forEach(this::watchCapacity);
+    }
+
+    private void send(List<String> taskNames) {
+        if (taskNames.isEmpty() || !client.isConnected()) {
+            return;
+        }
+        SubscribePayload payload = new SubscribePayload();
+        for (String taskName : taskNames) {
+            payload.getSubscriptions().add(new Subscription(taskName, capacityOf(taskName)));
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = EncoderFactory.getJsonEncoder().convert(payload, Map.class);
+        if (client.sendMessage(MessageType.SUBSCRIBE_V2.getValue(), "订阅消息", data)) {
+            for (Subscription subscription : payload.getSubscriptions()) {
+                subscriptions.put(subscription.getTaskName(), subscription.getCapacity());
+            }
+        } else {
+            logger.debug("发送订阅消息失败: {}", taskNames);
+        }
+    }
+
+    /**
+     * 上报的是当前空闲许可, 执行中的任务归还许可后再追加额度; 读取空闲许可与注册等待之间归还的许可不会触发回调,
+     * 注册后空闲许可已多于服务端剩余额度时立即上报
+     */
+    private void watchCapacity(String taskName) {
+        if (!subscriptions.containsKey(taskName)) {
+            return;
+        }
+        if (awaitingRelease.add(taskName) && !releaseWaiter.test(taskName, () -> {
+            awaitingRelease.remove(taskName);
+            onCapacityChanged();
+        })) {
+            awaitingRelease.remove(taskName);
+        }
+        Integer credits = subscriptions.get(taskName);
+        Integer capacity = capacityOf(taskName);
+        if (credits != null && capacity != null && capacity > credits) {
+            onCapacityChanged();
+        }
+    }
+
+    private Integer capacityOf(String taskName) {
+        int capacity = capacitySupplier.applyAsInt(taskName);
+        return capacity < 0 ? null : capacity;
+    }
+}
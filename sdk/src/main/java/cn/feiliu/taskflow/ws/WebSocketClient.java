@@ -39,6 +39,10 @@ import java.util.concurrent.TimeUnit;
 public class WebSocketClient {
 
     private static final Logger           logger            = LoggerFactory.getLogger(WebSocketClient.class);
+    // 超过该大小的消息使用permessage-deflate压缩, 该扩展由OkHttp在握手时自动协商
+    private static final long             MIN_COMPRESS_SIZE = 256;
+    // 未指定基础客户端时共享的默认客户端, 避免每次重连都创建新的连接池和线程池
+    private static final OkHttpClient     DEFAULT_CLIENT    = new OkHttpClient();
 
     private final OkHttpClient            client;
     private final String                  serverUrl;
@@ -51,6 +55,10 @@ public class WebSocketClient {
     private WebSocket                     webSocket;
     private boolean                       connected         = false;
     private boolean                       disconnectHandled = false;                                         // 防止重复处理断开事件
+    // 已调用close(), 之后底层连接的关闭和失败事件不再通知messageHandler
+    private volatile boolean              closed            = false;
+    // 服务端已发送过二进制帧, 之后发送的消息也使用二进制帧
+    private volatile boolean              binaryFrames      = false;
     private JsonEncoder                   jsonEncoder       = EncoderFactory.getJsonEncoder();
 
     /**
@@ -62,10 +70,20 @@ public class WebSocketClient {
     }
 
     /**
-     * 完整构造函数（支持多种认证方式）
+     * 支持多种认证方式的构造函数
      */
     public WebSocketClient(String serverUrl, String userId, String keyId, String keySecret, String authToken,
                            WebSocketMessageHandler messageHandler) {
+        this(serverUrl, userId, keyId, keySecret, authToken, null, messageHandler);
+    }
+
+    /**
+     * 完整构造函数
+     *
+     * @param httpClient 基础HTTP客户端(通常为ApiClient的客户端), 共享其连接池、调度线程和TLS会话, 为空时使用默认客户端
+     */
+    public WebSocketClient(String serverUrl, String userId, String keyId, String keySecret, String authToken,
+                           OkHttpClient httpClient, WebSocketMessageHandler messageHandler) {
         this.serverUrl = serverUrl;
         this.userId = userId;
         this.keyId = keyId;
@@ -73,10 +91,11 @@ public class WebSocketClient {
         this.authToken = authToken;
         this.messageHandler = messageHandler;
 
-        // 配置OkHttp客户端
-        this.client = new OkHttpClient.Builder().connectTimeout(30, TimeUnit.SECONDS).readTimeout(30, TimeUnit.SECONDS)
+        // 基于共享客户端派生, newBuilder()不会创建新的连接池和调度线程
+        OkHttpClient baseClient = httpClient == null ? DEFAULT_CLIENT : httpClient;
+        this.client = baseClient.newBuilder().connectTimeout(30, TimeUnit.SECONDS).readTimeout(30, TimeUnit.SECONDS)
             .writeTimeout(30, TimeUnit.SECONDS).pingInterval(30, TimeUnit.SECONDS) // 心跳间隔
-            .build();
+            .minWebSocketMessageToCompress(MIN_COMPRESS_SIZE).build();
     }
 
     /**
@@ -87,6 +106,7 @@ public class WebSocketClient {
 
         // 重置断开处理标志
         disconnectHandled = false;
+        binaryFrames = false;
 
         try {
             // 构建WebSocket URL，包含用户ID等参数
@@ -101,7 +121,13 @@ public class WebSocketClient {
             WebSocketListener listener = new WebSocketListener() {
                 @Override
                 public void onOpen(WebSocket webSocket, Response response) {
-                    logger.info("WebSocket连接建立成功");
+                    if (closed) {
+                        // 握手完成前客户端已关闭
+                        webSocket.cancel();
+                        future.complete(false);
+                        return;
+                    }
+                    logger.info("WebSocket连接建立成功, extensions: {}", response.header("Sec-WebSocket-Extensions"));
                     WebSocketClient.this.webSocket = webSocket;
                     connected = true;
                     disconnectHandled = false; // 连接成功时重置标志
@@ -126,15 +152,23 @@ public class WebSocketClient {
 
                 @Override
                 public void onMessage(WebSocket webSocket, ByteString bytes) {
-                    logger.debug("收到WebSocket二进制消息");
-                    // 如果需要处理二进制消息，可以在这里实现
+                    logger.debug("收到WebSocket二进制消息: {} bytes", bytes.size());
+                    try {
+                        WebSocketMessage message = BinaryMessageCodec.decode(bytes);
+                        binaryFrames = true;
+                        if (messageHandler != null) {
+                            messageHandler.onMessage(message);
+                        }
+                    } catch (Exception e) {
+                        logger.error("解析WebSocket二进制消息失败: {}", bytes.hex(), e);
+                    }
                 }
 
                 @Override
                 public void onClosing(WebSocket webSocket, int code, String reason) {
                     logger.info("WebSocket连接正在关闭: code={}, reason={}", code, reason);
                     connected = false;
-                    if (messageHandler != null) {
+                    if (messageHandler != null && !closed) {
                         messageHandler.onDisconnecting(code, reason);
                         // 在 onClosing 中触发 onDisconnected，确保重连逻辑被执行
                         handleDisconnection(code, reason);
@@ -146,7 +180,7 @@ public class WebSocketClient {
                     logger.info("WebSocket连接已关闭: code={}, reason={}", code, reason);
                     connected = false;
                     // 确保断开事件被处理（如果在 onClosing 中未处理）
-                    if (messageHandler != null) {
+                    if (messageHandler != null && !closed) {
                         handleDisconnection(code, reason);
                     }
                 }
@@ -158,7 +192,7 @@ public class WebSocketClient {
                     if (!future.isDone()) {
                         future.complete(false);
                     }
-                    if (messageHandler != null) {
+                    if (messageHandler != null && !closed) {
                         messageHandler.onError(t);
                     }
                 }
@@ -184,6 +218,9 @@ public class WebSocketClient {
         }
         try {
             WebSocketMessage wsMessage = new WebSocketMessage(type, message, data);
+            if (binaryFrames) {
+                return webSocket.send(BinaryMessageCodec.encode(wsMessage));
+            }
             String json = jsonEncoder.encode(wsMessage);
             return webSocket.send(json);
         } catch (Exception e) {
@@ -205,7 +242,7 @@ public class WebSocketClient {
     public boolean subTask(List<String> tasks) {
         Map<String, Object> data = new HashMap<>();
         data.put("tasks", tasks);
-        return sendMessage("subscribe", "订阅消息", data);
+        return sendMessage(MessageType.SUBSCRIBE.getValue(), "订阅消息", data);
     }
 
     /**
@@ -219,6 +256,16 @@ public class WebSocketClient {
         connected = false;
     }
 
+    /**
+     * 立即中断连接, 不等待关闭握手, 用于对端已失效的半开连接; 会触发{@link WebSocketMessageHandler#onError}
+     */
+    public void cancel() {
+        WebSocket current = webSocket;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
     /**
      * 检查连接状态
      */
@@ -227,11 +274,13 @@ public class WebSocketClient {
     }
 
     /**
-     * 关闭客户端
+     * 关闭客户端, 调度线程池与连接池为共享资源, 不在此关闭
+     * <p>
+     * 关闭握手异步完成, 之后该连接的关闭和失败事件不再通知messageHandler, 以免被替换的旧连接影响新连接
      */
     public void close() {
+        closed = true;
         disconnect();
-        client.dispatcher().executorService().shutdown();
     }
 
     private String buildWebSocketUrl() {
@@ -245,6 +294,9 @@ public class WebSocketClient {
         urlBuilder.append("?userId=").append(userId);
         urlBuilder.append("&clientType=java-sdk");
         urlBuilder.append("&version=1.0.0");
+        // 声明支持通过WebSocket接收任务及上报结果、二进制帧, 服务端不支持时忽略该参数
+        urlBuilder.append("&capabilities=").append(MessageType.TASK_PUSH.getValue()).append(',')
+            .append(BinaryMessageCodec.CAPABILITY);
 
         return urlBuilder.toString();
     }
@@ -280,6 +332,7 @@ public class WebSocketClient {
         private String                  keyId;
         private String                  keySecret;
         private String                  authToken;
+        private OkHttpClient            httpClient;
         private WebSocketMessageHandler messageHandler;
 
         private Builder() {
@@ -325,6 +378,14 @@ public class WebSocketClient {
             return this;
         }
 
+        /**
+         * 设置共享的基础HTTP客户端
+         */
+        public Builder httpClient(OkHttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
         /**
          * 设置消息处理器
          */
@@ -347,7 +408,7 @@ public class WebSocketClient {
                 throw new IllegalArgumentException("serverUrl必须以ws://或wss://开头");
             }
 
-            return new WebSocketClient(serverUrl, userId, keyId, keySecret, authToken, messageHandler);
+            return new WebSocketClient(serverUrl, userId, keyId, keySecret, authToken, httpClient, messageHandler);
         }
     }
 
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws.msg;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 客户端向服务端追加的任务额度(credit)
+ * <p>
+ * 每个额度允许服务端推送或通知一个任务, 服务端每推送一个任务消耗一个额度, 客户端在任务执行完成、许可释放后追加
+ *
+ * @author kevin.luan
+ * @since 2025-06-21
+ */
+@Data
+public class CreditPayload {
+    /*任务类型及本次追加的额度*/
+    private Map<String, Integer> credits = new LinkedHashMap<>();
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws.msg;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 订阅任务类型, 已订阅的任务类型再次发送时只更新空闲容量
+ *
+ * @author kevin.luan
+ * @since 2025-06-20
+ */
+@Data
+public class SubscribePayload {
+    /*订阅的任务类型及空闲容量*/
+    private List<Subscription> subscriptions = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Subscription {
+        /*任务类型*/
+        private String  taskName;
+        /*当前可接收的任务数, 为0时服务端无需通知该进程, 为空表示未知*/
+        private Integer capacity;
+    }
+}
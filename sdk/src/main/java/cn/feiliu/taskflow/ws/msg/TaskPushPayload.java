@@ -0,0 +1,33 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws.msg;
+
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 服务端通过WebSocket推送的任务
+ *
+ * @author kevin.luan
+ * @since 2025-06-16
+ */
+@Data
+public class TaskPushPayload {
+    /*待执行的任务*/
+    private List<ExecutingTask> tasks = new ArrayList<>();
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator;
+
+import cn.feiliu.taskflow.automator.PollEventLogger.Event;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.event.Level;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-10
+ */
+public class PollEventLoggerTest {
+    @Test
+    public void testCounters() {
+        PollEventLogger logger = new PollEventLogger();
+        for (int i = 0; i < 100; i++) {
+            logger.record(Event.POLL, "t1", "poll {}", i);
+        }
+        logger.record(Event.POLL_EMPTY, "t2");
+        Assert.assertEquals(100, logger.getCount(Event.POLL, "t1"));
+        Assert.assertEquals(1, logger.getCount(Event.POLL_EMPTY, "t2"));
+        Assert.assertEquals(0, logger.getCount(Event.POLL, "t2"));
+        Assert.assertEquals(2, logger.getTaskTypes().size());
+    }
+
+    @Test
+    public void testSampling() {
+        PollEventLogger logger = new PollEventLogger(60, 1);
+        logger.setLevel(Event.TASK_FAILED, Level.ERROR);
+        Assert.assertTrue(logger.shouldLog(Event.TASK_FAILED, "t1"));
+        // 同一秒内的后续事件被限流
+        Assert.assertFalse(logger.shouldLog(Event.TASK_FAILED, "t1"));
+        // 限流按任务类型和事件类型分别计算
+        Assert.assertTrue(logger.shouldLog(Event.TASK_FAILED, "t2"));
+        Assert.assertTrue(logger.shouldLog(Event.UPDATE_FAILED, "t1"));
+        logger.setSampleRate(Event.TASK_FAILED, 0);
+        Assert.assertFalse(logger.shouldLog(Event.TASK_FAILED, "t3"));
+    }
+}
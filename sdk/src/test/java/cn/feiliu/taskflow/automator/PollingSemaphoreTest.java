@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-28
+ */
+public class PollingSemaphoreTest {
+
+    @Test
+    public void testGrow() {
+        PollingSemaphore semaphore = new PollingSemaphore(2);
+        AtomicInteger changes = new AtomicInteger();
+        semaphore.setChangeListener(changes::incrementAndGet);
+        Assert.assertTrue(semaphore.canPoll());
+        Assert.assertEquals(2, semaphore.resize(4));
+        Assert.assertEquals(4, semaphore.totalThreads());
+        Assert.assertEquals(3, semaphore.availableThreads());
+        // 仅调整许可总数时回调, 获取或归还许可时不回调
+        Assert.assertEquals(1, changes.get());
+        semaphore.complete();
+        Assert.assertEquals(1, changes.get());
+        Assert.assertEquals(4, semaphore.resize(4));
+        Assert.assertEquals(1, changes.get());
+    }
+
+    @Test
+    public void testShrinkWhileInFlight() {
+        PollingSemaphore semaphore = new PollingSemaphore(4);
+        Assert.assertEquals(4, semaphore.tryAcquireAvailablePermits().get().intValue());
+        semaphore.resize(1);
+        Assert.assertEquals(1, semaphore.totalThreads());
+        Assert.assertEquals(-3, semaphore.availableThreads());
+        Assert.assertFalse(semaphore.canPoll());
+        Assert.assertFalse(semaphore.tryAcquireAvailablePermits().isPresent());
+        semaphore.complete(3);
+        Assert.assertFalse(semaphore.canPoll());
+        semaphore.complete();
+        Assert.assertEquals(1, semaphore.availableThreads());
+        Assert.assertTrue(semaphore.canPoll());
+        Assert.assertFalse(semaphore.canPoll());
+    }
+
+    @Test
+    public void testOnAvailable() {
+        PollingSemaphore semaphore = new PollingSemaphore(1);
+        AtomicInteger wakeups = new AtomicInteger();
+        Assert.assertTrue(semaphore.canPoll());
+        semaphore.onAvailable(wakeups::incrementAndGet);
+        Assert.assertEquals(0, wakeups.get());
+        semaphore.complete();
+        Assert.assertEquals(1, wakeups.get());
+        // 回调只执行一次
+        Assert.assertTrue(semaphore.canPoll());
+        semaphore.complete();
+        Assert.assertEquals(1, wakeups.get());
+        // 已有空闲许可时立即执行
+        semaphore.onAvailable(wakeups::incrementAndGet);
+        Assert.assertEquals(2, wakeups.get());
+    }
+
+    @Test
+    public void testOnRelease() {
+        PollingSemaphore semaphore = new PollingSemaphore(2);
+        AtomicInteger releases = new AtomicInteger();
+        // 没有占用中的许可时不注册
+        Assert.assertFalse(semaphore.onRelease(releases::incrementAndGet));
+        Assert.assertTrue(semaphore.canPoll());
+        Assert.assertTrue(semaphore.onRelease(releases::incrementAndGet));
+        // 仍有空闲许可时不立即执行
+        Assert.assertEquals(0, releases.get());
+        semaphore.complete();
+        Assert.assertEquals(1, releases.get());
+        Assert.assertTrue(semaphore.canPoll());
+        semaphore.complete();
+        Assert.assertEquals(1, releases.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new PollingSemaphore(1).resize(0);
+    }
+}
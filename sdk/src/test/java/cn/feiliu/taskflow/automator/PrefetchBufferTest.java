@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator;
+
+import cn.feiliu.taskflow.automator.tracing.TaskSpan;
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
+import cn.feiliu.taskflow.common.dto.tasks.TaskExecResult;
+import cn.feiliu.taskflow.executor.task.Worker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-13
+ */
+public class PrefetchBufferTest {
+    private static final Worker WORKER = new Worker() {
+                                           @Override
+                                           public String getTaskDefName() {
+                                               return "prefetch";
+                                           }
+
+                                           @Override
+                                           public TaskExecResult execute(ExecutingTask task) {
+                                               return new TaskExecResult(task);
+                                           }
+
+                                           @Override
+                                           public Optional<String[]> getInputNames() {
+                                               return Optional.empty();
+                                           }
+
+                                           @Override
+                                           public Optional<String[]> getOutputNames() {
+                                               return Optional.empty();
+                                           }
+
+                                           @Override
+                                           public String getTag() {
+                                               return "test";
+                                           }
+
+                                           @Override
+                                           public String getDescription() {
+                                               return "test";
+                                           }
+                                       };
+
+    @Test
+    public void testTargetDepth() {
+        PrefetchBuffer buffer = new PrefetchBuffer(WORKER, () -> 4, 16, 30);
+        // 尚无观测数据时取执行线程数
+        Assert.assertEquals(4, buffer.targetDepth());
+        // 拉取20ms, 执行10ms: 一次拉取期间4个线程可完成8个任务
+        buffer.recordPoll(TimeUnit.MILLISECONDS.toNanos(20), false);
+        buffer.recordExecute(TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals(8, buffer.targetDepth());
+        Assert.assertEquals(8, buffer.remainingCapacity());
+        // 执行远慢于拉取时至少保留1个
+        PrefetchBuffer slow = new PrefetchBuffer(WORKER, () -> 4, 16, 30);
+        slow.recordPoll(TimeUnit.MILLISECONDS.toNanos(1), false);
+        slow.recordExecute(TimeUnit.SECONDS.toNanos(1));
+        Assert.assertEquals(1, slow.targetDepth());
+        // 不超过最大深度
+        PrefetchBuffer fast = new PrefetchBuffer(WORKER, () -> 4, 16, 30);
+        fast.recordPoll(TimeUnit.MILLISECONDS.toNanos(100), false);
+        fast.recordExecute(TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertEquals(16, fast.targetDepth());
+    }
+
+    @Test
+    public void testResize() {
+        AtomicInteger threads = new AtomicInteger(2);
+        PrefetchBuffer buffer = new PrefetchBuffer(WORKER, threads::get, 16, 30);
+        buffer.recordPoll(TimeUnit.MILLISECONDS.toNanos(20), false);
+        buffer.recordExecute(TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals(4, buffer.targetDepth());
+        // 运行期调整并发数后立即按新的线程数计算
+        threads.set(4);
+        Assert.assertEquals(8, buffer.targetDepth());
+    }
+
+    @Test
+    public void testOfferAndExpire() {
+        PrefetchBuffer buffer = new PrefetchBuffer(WORKER, () -> 2, 4, 1);
+        buffer.offer(task("t1"), TaskSpan.NOOP, TaskSpan.NOOP);
+        buffer.offer(task("t2"), TaskSpan.NOOP, TaskSpan.NOOP);
+        Assert.assertEquals(2, buffer.size());
+        Assert.assertEquals(0, buffer.remainingCapacity());
+        Assert.assertTrue(buffer.removeExpired(System.nanoTime()).isEmpty());
+        Assert.assertEquals("t1", buffer.poll().task.getTaskId());
+
+        long later = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        Assert.assertEquals(1, buffer.removeExpired(later).size());
+        Assert.assertEquals(0, buffer.size());
+        Assert.assertNull(buffer.poll());
+    }
+
+    @Test
+    public void testMaxDepth() {
+        PrefetchBuffer buffer = new PrefetchBuffer(WORKER, () -> 2, 2, 30);
+        Assert.assertTrue(buffer.offer(task("t1"), TaskSpan.NOOP, TaskSpan.NOOP));
+        Assert.assertTrue(buffer.offer(task("t2"), TaskSpan.NOOP, TaskSpan.NOOP));
+        // 超出最大预取深度的任务不放入
+        Assert.assertFalse(buffer.offer(task("t3"), TaskSpan.NOOP, TaskSpan.NOOP));
+        Assert.assertEquals(2, buffer.size());
+        Assert.assertEquals("t1", buffer.poll().task.getTaskId());
+        Assert.assertTrue(buffer.offer(task("t3"), TaskSpan.NOOP, TaskSpan.NOOP));
+    }
+
+    private static ExecutingTask task(String taskId) {
+        ExecutingTask task = new ExecutingTask();
+        task.setTaskId(taskId);
+        return task;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-26
+ */
+public class WorkerRuntimeStatsTest {
+    @Test
+    public void testSnapshot() {
+        WorkerRuntimeStats stats = new WorkerRuntimeStats();
+        for (int i = 1; i <= 100; i++) {
+            stats.recordExecution("t1", TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        for (int i = 0; i < 120; i++) {
+            stats.recordPoll("t1");
+        }
+        stats.updateStarted("t1");
+        stats.updateStarted("t1");
+        stats.updateFinished("t1");
+        WorkerRuntimeStats.Snapshot snapshot = stats.snapshot("t1");
+        Assert.assertEquals(100, snapshot.getExecutionCount());
+        Assert.assertEquals(50, snapshot.getLatencyP50Millis(), 0.001);
+        Assert.assertEquals(99, snapshot.getLatencyP99Millis(), 0.001);
+        Assert.assertEquals(100, snapshot.getLatencyMaxMillis(), 0.001);
+        Assert.assertEquals(120, snapshot.getPollCount());
+        Assert.assertEquals(2.0, snapshot.getPollRate(), 0.001);
+        Assert.assertEquals(1, snapshot.getPendingUpdates());
+        Assert.assertEquals(0, stats.snapshot("t2").getExecutionCount());
+    }
+
+    @Test
+    public void testLatencyReservoir() {
+        WorkerRuntimeStats stats = new WorkerRuntimeStats();
+        // 采样区写满后只保留最近的耗时
+        for (int i = 0; i < WorkerRuntimeStats.LATENCY_SAMPLES * 2; i++) {
+            stats.recordExecution("t1",
+                TimeUnit.MILLISECONDS.toNanos(i < WorkerRuntimeStats.LATENCY_SAMPLES ? 1000 : 1));
+        }
+        Assert.assertEquals(1, stats.snapshot("t1").getLatencyMaxMillis(), 0.001);
+    }
+
+    @Test
+    public void testExecutionListener() {
+        WorkerRuntimeStats stats = new WorkerRuntimeStats();
+        List<String> executed = new ArrayList<>();
+        stats.addExecutionListener((taskType, nanos) -> executed.add(taskType + ":" + nanos));
+        stats.recordExecution("t1", 5);
+        stats.recordExecution("t2", 7);
+        Assert.assertEquals(2, executed.size());
+        Assert.assertEquals("t1:5", executed.get(0));
+        Assert.assertEquals("t2:7", executed.get(1));
+        Assert.assertEquals(1, stats.snapshot("t1").getExecutionCount());
+    }
+}
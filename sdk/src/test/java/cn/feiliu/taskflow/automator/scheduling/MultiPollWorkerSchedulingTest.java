@@ -0,0 +1,35 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator.scheduling;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-30
+ */
+public class MultiPollWorkerSchedulingTest {
+
+    @Test
+    public void testRetryDelay() {
+        Assert.assertEquals(100, MultiPollWorkerScheduling.retryDelay(100, 1));
+        Assert.assertEquals(200, MultiPollWorkerScheduling.retryDelay(100, 2));
+        Assert.assertEquals(800, MultiPollWorkerScheduling.retryDelay(100, 4));
+        // 连续失败时不超过最大重试间隔
+        Assert.assertEquals(30000, MultiPollWorkerScheduling.retryDelay(100, 10));
+        Assert.assertEquals(30000, MultiPollWorkerScheduling.retryDelay(100, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.automator.tracing;
+
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
+import cn.feiliu.taskflow.executor.task.TaskContext;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-11
+ */
+public class OpenTelemetryTaskTracerTest {
+    private InMemorySpanExporter exporter;
+    private SdkTracerProvider    tracerProvider;
+
+    @Before
+    public void setUp() {
+        exporter = InMemorySpanExporter.create();
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+    }
+
+    @After
+    public void tearDown() {
+        tracerProvider.close();
+        TaskContext.TASK_CONTEXT_INHERITABLE_THREAD_LOCAL.remove();
+    }
+
+    @Test
+    public void testTaskLifecycleSpans() {
+        TaskTracer tracer = new OpenTelemetryTaskTracer(tracerProvider.get("test"), 1);
+        ExecutingTask task = new ExecutingTask();
+        task.setTaskId("task-1");
+        task.setWorkflowInstanceId("wf-1");
+        task.setTaskDefName("demo");
+
+        TaskSpan pollSpan = tracer.startPoll("demo", 2);
+        Assert.assertTrue(pollSpan.isRecording());
+        pollSpan.end();
+
+        TaskSpan executeSpan = tracer.startTaskSpan(TaskTracer.SPAN_EXECUTE, pollSpan, task);
+        try (TaskSpan.Scope ignored = executeSpan.makeCurrent()) {
+            // 业务代码通过TaskContext获取链路信息
+            TaskContext context = TaskContext.set(task);
+            Assert.assertSame(executeSpan, context.getSpan());
+            Assert.assertEquals(pollSpan.getTraceId(), context.getTraceId());
+        } finally {
+            executeSpan.end();
+        }
+        Assert.assertSame(TaskSpan.NOOP, TaskSpan.current());
+        tracer.startTaskSpan(TaskTracer.SPAN_UPDATE_TASK, pollSpan, task).end();
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        Assert.assertEquals(3, spans.size());
+        for (SpanData span : spans.subList(1, 3)) {
+            Assert.assertEquals(pollSpan.getTraceId(), span.getTraceId());
+            Assert.assertEquals(pollSpan.getSpanId(), span.getParentSpanId());
+            Assert.assertEquals("task-1", span.getAttributes().get(AttributeKey.stringKey(TaskTracer.ATTR_TASK_ID)));
+            Assert.assertEquals("wf-1", span.getAttributes().get(AttributeKey.stringKey(TaskTracer.ATTR_WORKFLOW_ID)));
+        }
+        Assert.assertEquals(TaskTracer.SPAN_EXECUTE, spans.get(1).getName());
+        Assert.assertEquals(TaskTracer.SPAN_UPDATE_TASK, spans.get(2).getName());
+    }
+
+    @Test
+    public void testUnsampledPollSkipsChildren() {
+        TaskTracer tracer = new OpenTelemetryTaskTracer(tracerProvider.get("test"), 0);
+        TaskSpan pollSpan = tracer.startPoll("demo", 1);
+        Assert.assertSame(TaskSpan.NOOP, pollSpan);
+        Assert.assertSame(TaskSpan.NOOP, tracer.startTaskSpan(TaskTracer.SPAN_EXECUTE, pollSpan, new ExecutingTask()));
+        Assert.assertTrue(exporter.getFinishedSpanItems().isEmpty());
+    }
+
+    @Test
+    public void testDisabled() {
+        Assert.assertSame(TaskTracer.NOOP, TaskTracers.create(0));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.client;
+
+import cn.feiliu.taskflow.common.dto.tasks.ExecutingTask;
+import cn.feiliu.taskflow.common.dto.tasks.TaskExecResult;
+import cn.feiliu.taskflow.executor.task.Worker;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-23
+ */
+public class TaskDefCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Worker newWorker(String description, String... inputs) {
+        return new Worker() {
+            @Override
+            public String getTaskDefName() {
+                return "cached";
+            }
+
+            @Override
+            public TaskExecResult execute(ExecutingTask task) {
+                return new TaskExecResult(task);
+            }
+
+            @Override
+            public Optional<String[]> getInputNames() {
+                return Optional.of(inputs);
+            }
+
+            @Override
+            public Optional<String[]> getOutputNames() {
+                return Optional.of(new String[] { "result" });
+            }
+
+            @Override
+            public String getTag() {
+                return "demo";
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+
+    @Test
+    public void testFingerprint() {
+        // 输入参数顺序不影响指纹
+        Assert.assertEquals(TaskDefCache.fingerprint(newWorker("desc", "a", "b")),
+            TaskDefCache.fingerprint(newWorker("desc", "b", "a")));
+        Assert.assertNotEquals(TaskDefCache.fingerprint(newWorker("desc", "a", "b")),
+            TaskDefCache.fingerprint(newWorker("changed", "a", "b")));
+    }
+
+    @Test
+    public void testSaveAndReload() throws Exception {
+        String file = new File(folder.getRoot(), "cache/taskdef.properties").getPath();
+        Worker worker = newWorker("desc", "a");
+        TaskDefCache cache = new TaskDefCache(file, "http://localhost");
+        Assert.assertFalse(cache.isUnchanged(worker));
+        cache.save(Collections.singletonList(worker));
+
+        TaskDefCache reloaded = new TaskDefCache(file, "http://localhost");
+        Assert.assertTrue(reloaded.isUnchanged(worker));
+        Assert.assertFalse(reloaded.isUnchanged(newWorker("changed", "a")));
+        // 不同服务端地址互不影响
+        Assert.assertFalse(new TaskDefCache(file, "http://other").isUnchanged(worker));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.utils;
+
+import cn.feiliu.taskflow.annotations.WorkerTask;
+import cn.feiliu.taskflow.executor.task.WorkerWrapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.function.Consumer;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-27
+ */
+public class TaskflowConfigTest {
+    @Test
+    public void testValidate() {
+        new TaskflowConfig().validate();
+        assertInvalid(config -> config.setTraceSampleRatio(1.5));
+        assertInvalid(config -> {
+            config.setLeaseExtendThresholdSeconds(30);
+            config.setLeaseExtendSeconds(30);
+        });
+        assertInvalid(config -> config.setShutdownGracePeriodSeconds(0));
+        assertInvalid(config -> config.getWorkers().put("t1", workerConfig(0, null)));
+        assertInvalid(config -> config.getWorkers().put("t1", workerConfig(null, 0)));
+        TaskflowConfig legacy = new TaskflowConfig();
+        legacy.setPollTimeoutMillis(legacy.getHttpReadTimeoutMillis());
+        legacy.validate();
+    }
+
+    @Test
+    public void testWorkerOverride() throws Exception {
+        WorkerTask workerTask = getClass().getDeclaredMethod("echo", String.class).getAnnotation(WorkerTask.class);
+        WorkerWrapper wrapper = WorkerWrapper.of(workerTask);
+        int threadCount = wrapper.threadCount();
+        Assert.assertEquals(10, wrapper.batchSize(10));
+        Assert.assertEquals(100, wrapper.pollTimeoutMillis(100));
+        TaskflowConfig.WorkerConfig override = workerConfig(null, 4);
+        override.setPollTimeoutMillis(500);
+        wrapper.setOverride(override);
+        Assert.assertEquals(threadCount, wrapper.threadCount());
+        Assert.assertEquals(4, wrapper.batchSize(10));
+        Assert.assertEquals(2, wrapper.batchSize(2));
+        Assert.assertEquals(500, wrapper.pollTimeoutMillis(100));
+        override.setThreadCount(8);
+        Assert.assertEquals(8, wrapper.threadCount());
+    }
+
+    @WorkerTask(value = "t1", tag = "test", description = "echo")
+    public String echo(String text) {
+        return text;
+    }
+
+    private static TaskflowConfig.WorkerConfig workerConfig(Integer threadCount, Integer batchSize) {
+        TaskflowConfig.WorkerConfig config = new TaskflowConfig.WorkerConfig();
+        config.setThreadCount(threadCount);
+        config.setBatchSize(batchSize);
+        return config;
+    }
+
+    private static void assertInvalid(Consumer<TaskflowConfig> customizer) {
+        TaskflowConfig config = new TaskflowConfig();
+        customizer.accept(config);
+        try {
+            config.validate();
+            Assert.fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Taskflow配置不合法"));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws;
+
+import cn.feiliu.taskflow.ws.msg.SubTaskPayload;
+import cn.feiliu.taskflow.ws.msg.WebSocketMessage;
+import okio.Buffer;
+import okio.ByteString;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-17
+ */
+public class BinaryMessageCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        WebSocketMessage message = new WebSocketMessage(MessageType.SUB_TASK.getValue(), "new task",
+            Collections.singletonMap("taskNames", Arrays.asList("a", "b")));
+        WebSocketMessage decoded = BinaryMessageCodec.decode(BinaryMessageCodec.encode(message));
+        Assert.assertTrue(decoded.isMessageType(MessageType.SUB_TASK));
+        Assert.assertEquals("new task", decoded.getDescription());
+        Assert.assertEquals(Arrays.asList("a", "b"), decoded.getData(SubTaskPayload.class).getTaskNames());
+        Assert.assertEquals(Arrays.asList("a", "b"), decoded.getData().get("taskNames"));
+    }
+
+    @Test
+    public void testEmptyPayload() {
+        WebSocketMessage decoded = BinaryMessageCodec.decode(BinaryMessageCodec.encode(new WebSocketMessage(
+            MessageType.PING.getValue(), null, null)));
+        Assert.assertTrue(decoded.isMessageType(MessageType.PING));
+        Assert.assertNull(decoded.getDescription());
+        Assert.assertNull(decoded.getData());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedFrame() {
+        ByteString frame = BinaryMessageCodec.encode(new WebSocketMessage(MessageType.PONG.getValue(), "pong", null));
+        BinaryMessageCodec.decode(frame.substring(0, 3));
+    }
+
+    @Test
+    public void testFrameLayout() throws Exception {
+        ByteString frame = BinaryMessageCodec.encode(new WebSocketMessage(MessageType.PONG.getValue(), "pong",
+            Collections.singletonMap("a", 1)));
+        Buffer buffer = new Buffer().write(frame);
+        // 版本号 | 类型长度 + 类型 | 描述长度(大端2字节) + 描述 | JSON负载
+        Assert.assertEquals(1, buffer.readByte());
+        Assert.assertEquals(4, buffer.readByte());
+        Assert.assertEquals("pong", buffer.readUtf8(4));
+        Assert.assertEquals(4, buffer.readShort());
+        Assert.assertEquals("pong", buffer.readUtf8(4));
+        Assert.assertEquals("{\"a\":1}", buffer.readUtf8());
+    }
+
+    @Test
+    public void testMultiByteDescription() {
+        // 描述长度按UTF-8字节数编码
+        String description = "新任务";
+        ByteString frame = BinaryMessageCodec.encode(new WebSocketMessage(MessageType.SUB_TASK.getValue(), description,
+            null));
+        Assert.assertEquals(1 + 1 + 8 + 2 + 9, frame.size());
+        Assert.assertEquals(description, BinaryMessageCodec.decode(frame).getDescription());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedVersion() {
+        ByteString frame = BinaryMessageCodec.encode(new WebSocketMessage(MessageType.PONG.getValue(), "pong", null));
+        byte[] bytes = frame.toByteArray();
+        bytes[0] = 2;
+        BinaryMessageCodec.decode(ByteString.of(bytes));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTypeTooLong() {
+        char[] type = new char[256];
+        Arrays.fill(type, 'x');
+        BinaryMessageCodec.encode(new WebSocketMessage(new String(type), null, null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedDescription() {
+        ByteString frame = BinaryMessageCodec.encode(new WebSocketMessage(MessageType.PONG.getValue(), "pong", null));
+        BinaryMessageCodec.decode(frame.substring(0, frame.size() - 1));
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024 Taskflow, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.feiliu.taskflow.ws;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author kevin.luan
+ * @since 2025-06-18
+ */
+public class DecorrelatedJitterReconnectPolicyTest {
+
+    @Test
+    public void testDelayBounds() {
+        ReconnectPolicy policy = ReconnectPolicy.decorrelatedJitter(500, 30000);
+        for (int i = 0; i < 1000; i++) {
+            long first = policy.nextDelayMillis(1, 0);
+            Assert.assertTrue(first >= 0 && first < 500);
+            long previous = first;
+            for (int attempt = 2; attempt < 20; attempt++) {
+                long delay = policy.nextDelayMillis(attempt, previous);
+                Assert.assertTrue(delay >= 500 && delay <= 30000);
+                Assert.assertTrue(delay <= Math.max(500, previous) * 3);
+                previous = delay;
+            }
+        }
+    }
+
+    @Test
+    public void testReachesCap() {
+        ReconnectPolicy policy = ReconnectPolicy.decorrelatedJitter(100, 1000);
+        long max = 0;
+        long previous = 0;
+        for (int attempt = 1; attempt < 200; attempt++) {
+            previous = policy.nextDelayMillis(attempt, previous);
+            max = Math.max(max, previous);
+        }
+        Assert.assertTrue(max > 500 && max <= 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConfig() {
+        ReconnectPolicy.decorrelatedJitter(1000, 500);
+    }
+}